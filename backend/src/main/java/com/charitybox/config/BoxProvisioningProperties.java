@@ -0,0 +1,19 @@
+package com.charitybox.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "provisioning")
+public class BoxProvisioningProperties {
+    // Most boxes a single bulk registration or assignment may handle; each runs in one transaction
+    private int maxBoxes = 100_000;
+
+    public int getMaxBoxes() {
+        return maxBoxes;
+    }
+
+    public void setMaxBoxes(int maxBoxes) {
+        this.maxBoxes = maxBoxes;
+    }
+}
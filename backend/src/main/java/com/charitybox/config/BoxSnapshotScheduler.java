@@ -0,0 +1,30 @@
+package com.charitybox.config;
+
+import com.charitybox.service.BoxJournalService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+
+@Configuration
+@EnableScheduling
+public class BoxSnapshotScheduler {
+    private static final Logger log = LoggerFactory.getLogger(BoxSnapshotScheduler.class);
+
+    private final BoxJournalService boxJournalService;
+
+    public BoxSnapshotScheduler(BoxJournalService boxJournalService) {
+        this.boxJournalService = boxJournalService;
+    }
+
+    @Scheduled(fixedDelayString = "${deposits.snapshot-interval:PT1H}", initialDelayString = "${deposits.snapshot-interval:PT1H}")
+    public void snapshotBoxes() {
+        try {
+            int boxes = boxJournalService.snapshotChangedBoxes();
+            log.debug("Snapshotted {} boxes", boxes);
+        } catch (RuntimeException ex) {
+            log.warn("Snapshotting boxes failed: {}", ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.charitybox.config;
+
+import com.charitybox.service.DepositAccumulator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "deposits.write-behind", havingValue = "true")
+public class DepositFlushScheduler {
+    private static final Logger log = LoggerFactory.getLogger(DepositFlushScheduler.class);
+
+    private final DepositAccumulator depositAccumulator;
+
+    public DepositFlushScheduler(DepositAccumulator depositAccumulator) {
+        this.depositAccumulator = depositAccumulator;
+    }
+
+    @Scheduled(fixedDelayString = "${deposits.flush-interval:PT1S}")
+    public void flushDeposits() {
+        try {
+            depositAccumulator.flushAll();
+        } catch (RuntimeException ex) {
+            // The deposits stay pending and are written by the next run.
+            log.warn("Flushing pending deposits failed: {}", ex.getMessage());
+        }
+    }
+}
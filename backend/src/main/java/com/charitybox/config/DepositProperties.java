@@ -0,0 +1,50 @@
+package com.charitybox.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "deposits")
+public class DepositProperties {
+    // Number of deposits from an NDJSON stream applied per transaction
+    private int ingestChunkSize = 1000;
+    // Collect single deposits in memory and write them to the database in periodic batches
+    private boolean writeBehind = false;
+    private Duration flushInterval = Duration.ofSeconds(1);
+    // How often boxes changed since their last snapshot get a new one
+    private Duration snapshotInterval = Duration.ofHours(1);
+
+    public int getIngestChunkSize() {
+        return ingestChunkSize;
+    }
+
+    public void setIngestChunkSize(int ingestChunkSize) {
+        this.ingestChunkSize = ingestChunkSize;
+    }
+
+    public boolean isWriteBehind() {
+        return writeBehind;
+    }
+
+    public void setWriteBehind(boolean writeBehind) {
+        this.writeBehind = writeBehind;
+    }
+
+    public Duration getFlushInterval() {
+        return flushInterval;
+    }
+
+    public void setFlushInterval(Duration flushInterval) {
+        this.flushInterval = flushInterval;
+    }
+
+    public Duration getSnapshotInterval() {
+        return snapshotInterval;
+    }
+
+    public void setSnapshotInterval(Duration snapshotInterval) {
+        this.snapshotInterval = snapshotInterval;
+    }
+}
@@ -0,0 +1,49 @@
+package com.charitybox.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+@Configuration
+@ConfigurationProperties(prefix = "durability")
+public class DurabilityProperties {
+    // Log every state change to a local file and replay it into the in-memory database on startup
+    private boolean enabled = false;
+    private String logFile = "data/operations.log";
+    // The log file is mapped into memory and extended by this much whenever it fills up
+    private DataSize logGrowSize = DataSize.ofMegabytes(16);
+    // The log file is mapped in segments of this size (at most 2GB); one operation must fit into a segment
+    private DataSize logSegmentSize = DataSize.ofGigabytes(1);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getLogFile() {
+        return logFile;
+    }
+
+    public void setLogFile(String logFile) {
+        this.logFile = logFile;
+    }
+
+    public DataSize getLogGrowSize() {
+        return logGrowSize;
+    }
+
+    public void setLogGrowSize(DataSize logGrowSize) {
+        this.logGrowSize = logGrowSize;
+    }
+
+    public DataSize getLogSegmentSize() {
+        return logSegmentSize;
+    }
+
+    public void setLogSegmentSize(DataSize logSegmentSize) {
+        this.logSegmentSize = logSegmentSize;
+    }
+}
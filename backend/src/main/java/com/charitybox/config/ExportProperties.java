@@ -0,0 +1,19 @@
+package com.charitybox.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "export")
+public class ExportProperties {
+    // Rows the JDBC driver fetches per round trip while an export streams from the database cursor
+    private int fetchSize = 1000;
+
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    public void setFetchSize(int fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+}
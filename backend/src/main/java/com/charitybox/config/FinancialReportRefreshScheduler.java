@@ -0,0 +1,30 @@
+package com.charitybox.config;
+
+import com.charitybox.service.FinancialReportView;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+
+@Configuration
+@EnableScheduling
+public class FinancialReportRefreshScheduler {
+    private static final Logger log = LoggerFactory.getLogger(FinancialReportRefreshScheduler.class);
+
+    private final FinancialReportView financialReportView;
+
+    public FinancialReportRefreshScheduler(FinancialReportView financialReportView) {
+        this.financialReportView = financialReportView;
+    }
+
+    @Scheduled(fixedDelayString = "${reports.refresh-interval:PT10S}", initialDelayString = "${reports.refresh-interval:PT10S}")
+    public void refreshReport() {
+        try {
+            financialReportView.load();
+        } catch (RuntimeException ex) {
+            // The view keeps its last state and is reloaded by the next run.
+            log.warn("Reloading the financial report failed: {}", ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.charitybox.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.time.Duration;
+
+@Configuration
+@Profile("nbp-stub")
+public class NbpStubConfig {
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public NbpStubServer nbpStubServer(@Value("${nbp.stub.port}") int port,
+                                       @Value("${nbp.stub.latency:PT0S}") Duration latency) {
+        return new NbpStubServer(port, latency);
+    }
+}
@@ -0,0 +1,80 @@
+package com.charitybox.config;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Embedded HTTP server answering like the NBP table A endpoint with fixed rates, optionally after an
+ * artificial delay. Lets the application and its load tests run without network access.
+ */
+public class NbpStubServer {
+    public static final String TABLE_PATH = "/api/exchangerates/tables/A";
+
+    private static final String TABLE_TEMPLATE = """
+            [{"table":"A","no":"STUB/A/NBP","effectiveDate":"%s","rates":[\
+            {"currency":"dolar amerykański","code":"USD","mid":3.9120},\
+            {"currency":"euro","code":"EUR","mid":4.2651},\
+            {"currency":"funt szterling","code":"GBP","mid":4.9813},\
+            {"currency":"frank szwajcarski","code":"CHF","mid":4.4607}]}]""";
+
+    private final int port;
+    private final Duration latency;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public NbpStubServer(int port, Duration latency) {
+        this.port = port;
+        this.latency = latency;
+    }
+
+    public void start() {
+        try {
+            server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot start NBP stub on port " + port, ex);
+        }
+        executor = Executors.newCachedThreadPool();
+        server.setExecutor(executor);
+        server.createContext(TABLE_PATH, this::handleTable);
+        server.start();
+    }
+
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+        }
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public String tableUrl() {
+        return "http://localhost:" + getPort() + TABLE_PATH + "?format=json";
+    }
+
+    private void handleTable(HttpExchange exchange) throws IOException {
+        try {
+            Thread.sleep(latency.toMillis());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        byte[] body = TABLE_TEMPLATE.formatted(LocalDate.now()).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
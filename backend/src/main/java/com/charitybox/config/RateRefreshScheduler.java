@@ -0,0 +1,37 @@
+package com.charitybox.config;
+
+import com.charitybox.service.CurrencyConversionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "nbp.background-refresh", havingValue = "true", matchIfMissing = true)
+public class RateRefreshScheduler {
+    private static final Logger log = LoggerFactory.getLogger(RateRefreshScheduler.class);
+
+    private final CurrencyConversionService currencyConversionService;
+
+    public RateRefreshScheduler(CurrencyConversionService currencyConversionService) {
+        this.currencyConversionService = currencyConversionService;
+    }
+
+    /**
+     * Starts the refresh and returns at once, so the scheduler thread, which also flushes deposits and
+     * takes box snapshots, never waits for NBP.
+     */
+    @Scheduled(fixedDelayString = "${nbp.refresh-interval:PT10M}")
+    public void refreshRates() {
+        currencyConversionService.refreshRatesAsync().whenComplete((snapshot, ex) -> {
+            if (ex != null) {
+                // Keep serving the previous snapshot until it expires; the next run will try again.
+                Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                log.warn("Background refresh of NBP rates failed: {}", cause.getMessage());
+            }
+        });
+    }
+}
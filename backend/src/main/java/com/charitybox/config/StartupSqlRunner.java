@@ -18,6 +18,6 @@ public class StartupSqlRunner {
 
     @PostConstruct
     public void runSql() {
-        jdbcTemplate.execute("ALTER TABLE collection_box_amounts ADD CONSTRAINT IF NOT EXISTS chk_amount_non_negative CHECK (amount >= 0)");
+        jdbcTemplate.execute("ALTER TABLE collection_box_amounts ADD CONSTRAINT IF NOT EXISTS chk_amount_non_negative CHECK (amount_minor >= 0)");
     }
 }
\ No newline at end of file
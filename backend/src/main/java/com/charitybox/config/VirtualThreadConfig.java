@@ -0,0 +1,36 @@
+package com.charitybox.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import java.util.concurrent.Executors;
+
+/**
+ * Runs every request on its own virtual thread instead of Tomcat's pool of platform threads, and does the
+ * same for asynchronous request processing (streamed deposit ingestion and exports). A request blocked on
+ * JDBC or on an NBP call then only parks its virtual thread, and the NBP client, which is called from the
+ * request thread, runs on it as well.
+ * <p>
+ * With the thread limit gone, the connection pool bounds how many requests use the database at once, see
+ * {@code spring.datasource.hikari.maximum-pool-size}. Enabled with {@code spring.threads.virtual.enabled},
+ * the property Spring Boot 3.2 reads for the same switch.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    @Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(Executors.newVirtualThreadPerTaskExecutor());
+    }
+}
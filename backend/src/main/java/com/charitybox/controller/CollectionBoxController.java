@@ -1,15 +1,32 @@
 package com.charitybox.controller;
 
 import com.charitybox.dto.AddMoneyRequest;
+import com.charitybox.dto.BoxJournalEntryDto;
+import com.charitybox.dto.CollectionBoxBatchDto;
 import com.charitybox.dto.CollectionBoxDto;
+import com.charitybox.dto.CollectionBoxPageDto;
+import com.charitybox.dto.CreateBoxesRequest;
+import com.charitybox.dto.DepositRequest;
+import com.charitybox.dto.DepositResultDto;
 import com.charitybox.model.CollectionBox;
 import com.charitybox.model.Currency;
+import com.charitybox.service.BoxJournalService;
 import com.charitybox.service.CollectionBoxService;
+import com.charitybox.service.DepositIngestionService;
+import com.charitybox.service.ExportFormat;
+import com.charitybox.service.ExportService;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.util.List;
 
@@ -18,10 +35,19 @@ import java.util.List;
 public class CollectionBoxController {
 
     private final CollectionBoxService collectionBoxService;
+    private final DepositIngestionService depositIngestionService;
+    private final BoxJournalService boxJournalService;
+    private final ExportService exportService;
 
     @Autowired
-    public CollectionBoxController(CollectionBoxService collectionBoxService){
+    public CollectionBoxController(CollectionBoxService collectionBoxService,
+                                   DepositIngestionService depositIngestionService,
+                                   BoxJournalService boxJournalService,
+                                   ExportService exportService){
         this.collectionBoxService = collectionBoxService;
+        this.depositIngestionService = depositIngestionService;
+        this.boxJournalService = boxJournalService;
+        this.exportService = exportService;
     }
 
     @PostMapping
@@ -32,11 +58,36 @@ public class CollectionBoxController {
                 .body(box);
     }
 
+    @PostMapping("/bulk")
+    public ResponseEntity<CollectionBoxBatchDto> createBoxes(@RequestBody CreateBoxesRequest request) {
+        CollectionBoxBatchDto batch = collectionBoxService.createBoxes(request.getCount(), request.getEventId());
+        return ResponseEntity.status(HttpStatus.CREATED).body(batch);
+    }
+
     @GetMapping
     public List<CollectionBoxDto> listBoxes() {
         return collectionBoxService.listBoxes();
     }
 
+    @GetMapping("/page")
+    public CollectionBoxPageDto listBoxesPage(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) Boolean assigned,
+            @RequestParam(required = false) Boolean empty,
+            @RequestParam(required = false) Long eventId) {
+        return collectionBoxService.listBoxes(after, size, assigned, empty, eventId);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportBoxes(@RequestParam(defaultValue = "csv") String format) {
+        ExportFormat exportFormat = ExportFormat.parse(format);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + exportFormat.fileName("boxes"))
+                .body(output -> exportService.exportBoxes(exportFormat, output));
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteBox(@PathVariable Long id) {
         collectionBoxService.deleteBox(id);
@@ -51,10 +102,33 @@ public class CollectionBoxController {
         return ResponseEntity.noContent().build();
     }
 
+    @PostMapping("/deposits")
+    public List<DepositResultDto> addMoneyBulk(@RequestBody List<DepositRequest> deposits) {
+        return collectionBoxService.addMoneyBulk(deposits);
+    }
+
+    @PostMapping(value = "/deposits/stream", consumes = "application/x-ndjson", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamDeposits(HttpServletRequest request) throws IOException {
+        InputStream body = request.getInputStream();
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(output -> depositIngestionService.ingest(body, output));
+    }
+
     @PostMapping("/{id}/empty")
     public ResponseEntity<Void> emptyBox(@PathVariable Long id) {
         collectionBoxService.emptyBox(id);
         return ResponseEntity.noContent().build();
     }
-}
 
+    @GetMapping("/{id}/journal")
+    public List<BoxJournalEntryDto> getJournal(@PathVariable Long id) {
+        return boxJournalService.getJournal(id);
+    }
+
+    @PostMapping("/{id}/rebuild")
+    public ResponseEntity<Void> rebuildAmounts(@PathVariable Long id) {
+        boxJournalService.rebuild(id);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,37 @@
+package com.charitybox.controller;
+
+import com.charitybox.dto.ExchangeRateSnapshotDto;
+import com.charitybox.dto.RateCacheStatsDto;
+import com.charitybox.service.CurrencyConversionService;
+import com.charitybox.service.ExchangeRateHistoryService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/api/rates")
+public class ExchangeRateController {
+
+    private final CurrencyConversionService currencyConversionService;
+    private final ExchangeRateHistoryService exchangeRateHistoryService;
+
+    @Autowired
+    public ExchangeRateController(CurrencyConversionService currencyConversionService,
+                                  ExchangeRateHistoryService exchangeRateHistoryService) {
+        this.currencyConversionService = currencyConversionService;
+        this.exchangeRateHistoryService = exchangeRateHistoryService;
+    }
+
+    @GetMapping("/cache-stats")
+    public RateCacheStatsDto getCacheStats() {
+        return currencyConversionService.getCacheStats();
+    }
+
+    @GetMapping("/history/{date}")
+    public ExchangeRateSnapshotDto getApplicableRates(
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return exchangeRateHistoryService.getApplicable(date);
+    }
+}
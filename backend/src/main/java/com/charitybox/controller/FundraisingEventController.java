@@ -1,15 +1,22 @@
 package com.charitybox.controller;
 
+import com.charitybox.dto.AssignBoxesRequest;
+import com.charitybox.dto.BoxAssignmentDto;
+import com.charitybox.dto.EventSettlementDto;
 import com.charitybox.dto.FundraisingEventDto;
 import com.charitybox.dto.FundraisingEventReportDto;
 import com.charitybox.model.Currency;
 import com.charitybox.model.FundraisingEvent;
 import com.charitybox.repository.FundraisingEventRepository;
+import com.charitybox.service.ExportFormat;
+import com.charitybox.service.ExportService;
 import com.charitybox.service.FundraisingEventService;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.net.URI;
 import java.util.List;
@@ -19,10 +26,13 @@ import java.util.List;
 public class FundraisingEventController {
 
     private final FundraisingEventService fundraisingEventService;
+    private final ExportService exportService;
 
     @Autowired
-    public FundraisingEventController(FundraisingEventService fundraisingEventService) {
+    public FundraisingEventController(FundraisingEventService fundraisingEventService,
+                                      ExportService exportService) {
         this.fundraisingEventService = fundraisingEventService;
+        this.exportService = exportService;
     }
 
     @PostMapping
@@ -41,8 +51,34 @@ public class FundraisingEventController {
         return ResponseEntity.noContent().build();
     }
 
+    @PutMapping("/{eventId}/assign-boxes")
+    public BoxAssignmentDto assignCollectionBoxes(
+            @PathVariable Long eventId,
+            @RequestBody AssignBoxesRequest request) {
+        return fundraisingEventService.assignCollectionBoxes(eventId, request);
+    }
+
+    @PostMapping("/{eventId}/settle")
+    public EventSettlementDto settleEvent(@PathVariable Long eventId) {
+        return fundraisingEventService.settleEvent(eventId);
+    }
+
     @GetMapping("/financial-report")
-    public List<FundraisingEventReportDto> getFinancialReport() {
-        return fundraisingEventService.getFinancialReport();
+    public List<FundraisingEventReportDto> getFinancialReport(
+            @RequestParam(defaultValue = "false") boolean includeBoxes) {
+        return includeBoxes
+                ? fundraisingEventService.getFinancialReportWithBoxes()
+                : fundraisingEventService.getFinancialReport();
+    }
+
+    @GetMapping("/financial-report/export")
+    public ResponseEntity<StreamingResponseBody> exportFinancialReport(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean includeBoxes) {
+        ExportFormat exportFormat = ExportFormat.parse(format);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + exportFormat.fileName("financial-report"))
+                .body(output -> exportService.exportFinancialReport(exportFormat, includeBoxes, output));
     }
-}
\ No newline at end of file
+}
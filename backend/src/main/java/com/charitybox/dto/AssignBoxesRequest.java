@@ -0,0 +1,17 @@
+package com.charitybox.dto;
+
+import java.util.List;
+
+public class AssignBoxesRequest {
+    // either a list of box ids or an inclusive id range
+    private List<Long> boxIds;
+    private Long firstId;
+    private Long lastId;
+
+    public List<Long> getBoxIds() { return boxIds; }
+    public void setBoxIds(List<Long> boxIds) { this.boxIds = boxIds; }
+    public Long getFirstId() { return firstId; }
+    public void setFirstId(Long firstId) { this.firstId = firstId; }
+    public Long getLastId() { return lastId; }
+    public void setLastId(Long lastId) { this.lastId = lastId; }
+}
@@ -0,0 +1,17 @@
+package com.charitybox.dto;
+
+import java.util.List;
+
+public class BoxAssignmentDto {
+    private int assigned;
+    // boxes that were left as they were, in id order
+    private List<BoxRejectionDto> rejected;
+
+    public BoxAssignmentDto(int assigned, List<BoxRejectionDto> rejected) {
+        this.assigned = assigned;
+        this.rejected = rejected;
+    }
+
+    public int getAssigned() { return assigned; }
+    public List<BoxRejectionDto> getRejected() { return rejected; }
+}
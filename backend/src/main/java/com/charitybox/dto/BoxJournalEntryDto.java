@@ -0,0 +1,32 @@
+package com.charitybox.dto;
+
+import com.charitybox.model.Currency;
+import com.charitybox.model.JournalEntryType;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+public class BoxJournalEntryDto {
+    private Long id;
+    private JournalEntryType type;
+    private Long eventId;
+    private Currency currency;
+    private BigDecimal amount;
+    private Instant createdAt;
+
+    public BoxJournalEntryDto(Long id, JournalEntryType type, Long eventId, Currency currency, BigDecimal amount, Instant createdAt) {
+        this.id = id;
+        this.type = type;
+        this.eventId = eventId;
+        this.currency = currency;
+        this.amount = amount;
+        this.createdAt = createdAt;
+    }
+
+    public Long getId() { return id; }
+    public JournalEntryType getType() { return type; }
+    public Long getEventId() { return eventId; }
+    public Currency getCurrency() { return currency; }
+    public BigDecimal getAmount() { return amount; }
+    public Instant getCreatedAt() { return createdAt; }
+}
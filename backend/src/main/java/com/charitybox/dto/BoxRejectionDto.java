@@ -0,0 +1,14 @@
+package com.charitybox.dto;
+
+public class BoxRejectionDto {
+    private Long boxId;
+    private String reason;
+
+    public BoxRejectionDto(Long boxId, String reason) {
+        this.boxId = boxId;
+        this.reason = reason;
+    }
+
+    public Long getBoxId() { return boxId; }
+    public String getReason() { return reason; }
+}
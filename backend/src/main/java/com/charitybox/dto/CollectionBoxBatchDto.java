@@ -0,0 +1,24 @@
+package com.charitybox.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CollectionBoxBatchDto {
+    private int count;
+    // event the boxes were assigned to; null when they were left unassigned
+    private Long eventId;
+    // ids of the new boxes in ascending order; usually a single range
+    private List<IdRangeDto> ids;
+
+    public CollectionBoxBatchDto(int count, Long eventId, List<IdRangeDto> ids) {
+        this.count = count;
+        this.eventId = eventId;
+        this.ids = ids;
+    }
+
+    public int getCount() { return count; }
+    public Long getEventId() { return eventId; }
+    public List<IdRangeDto> getIds() { return ids; }
+}
@@ -0,0 +1,17 @@
+package com.charitybox.dto;
+
+import java.util.List;
+
+public class CollectionBoxPageDto {
+    private List<CollectionBoxDto> boxes;
+    // id to pass as "after" for the next page; null on the last page
+    private Long nextCursor;
+
+    public CollectionBoxPageDto(List<CollectionBoxDto> boxes, Long nextCursor) {
+        this.boxes = boxes;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<CollectionBoxDto> getBoxes() { return boxes; }
+    public Long getNextCursor() { return nextCursor; }
+}
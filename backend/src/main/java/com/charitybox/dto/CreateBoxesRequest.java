@@ -0,0 +1,11 @@
+package com.charitybox.dto;
+
+public class CreateBoxesRequest {
+    private Integer count;
+    private Long eventId;
+
+    public Integer getCount() { return count; }
+    public void setCount(Integer count) { this.count = count; }
+    public Long getEventId() { return eventId; }
+    public void setEventId(Long eventId) { this.eventId = eventId; }
+}
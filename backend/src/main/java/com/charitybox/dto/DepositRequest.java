@@ -0,0 +1,16 @@
+package com.charitybox.dto;
+
+import java.math.BigDecimal;
+
+public class DepositRequest {
+    private Long boxId;
+    private String currency;
+    private BigDecimal amount;
+
+    public Long getBoxId() { return boxId; }
+    public void setBoxId(Long boxId) { this.boxId = boxId; }
+    public String getCurrency() { return currency; }
+    public void setCurrency(String currency) { this.currency = currency; }
+    public BigDecimal getAmount() { return amount; }
+    public void setAmount(BigDecimal amount) { this.amount = amount; }
+}
@@ -0,0 +1,28 @@
+package com.charitybox.dto;
+
+public class DepositResultDto {
+    private int index;
+    private Long boxId;
+    private boolean success;
+    private String error;
+
+    public DepositResultDto(int index, Long boxId, boolean success, String error) {
+        this.index = index;
+        this.boxId = boxId;
+        this.success = success;
+        this.error = error;
+    }
+
+    public static DepositResultDto succeeded(int index, Long boxId) {
+        return new DepositResultDto(index, boxId, true, null);
+    }
+
+    public static DepositResultDto failed(int index, Long boxId, String error) {
+        return new DepositResultDto(index, boxId, false, error);
+    }
+
+    public int getIndex() { return index; }
+    public Long getBoxId() { return boxId; }
+    public boolean isSuccess() { return success; }
+    public String getError() { return error; }
+}
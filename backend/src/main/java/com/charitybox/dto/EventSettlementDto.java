@@ -0,0 +1,49 @@
+package com.charitybox.dto;
+
+import com.charitybox.model.Currency;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Outcome of emptying every box of an event at once.
+ */
+public class EventSettlementDto {
+    private int boxesEmptied;
+
+    private Map<Currency, BigDecimal> collectedAmounts;
+
+    private BigDecimal credited;
+
+    private Currency accountCurrency;
+
+    public EventSettlementDto(int boxesEmptied, Map<Currency, BigDecimal> collectedAmounts,
+                              BigDecimal credited, Currency accountCurrency) {
+        this.boxesEmptied = boxesEmptied;
+        this.collectedAmounts = collectedAmounts;
+        this.credited = credited;
+        this.accountCurrency = accountCurrency;
+    }
+
+    public int getBoxesEmptied() {
+        return boxesEmptied;
+    }
+
+    /**
+     * Money taken out of the boxes, per currency.
+     */
+    public Map<Currency, BigDecimal> getCollectedAmounts() {
+        return collectedAmounts;
+    }
+
+    /**
+     * What the event account received, in its own currency.
+     */
+    public BigDecimal getCredited() {
+        return credited;
+    }
+
+    public Currency getAccountCurrency() {
+        return accountCurrency;
+    }
+}
@@ -0,0 +1,23 @@
+package com.charitybox.dto;
+
+import com.charitybox.model.Currency;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+
+public class ExchangeRateSnapshotDto {
+    private LocalDate effectiveDate;
+    private String tableNo;
+    private Map<Currency, BigDecimal> ratesToPLN;
+
+    public ExchangeRateSnapshotDto(LocalDate effectiveDate, String tableNo, Map<Currency, BigDecimal> ratesToPLN) {
+        this.effectiveDate = effectiveDate;
+        this.tableNo = tableNo;
+        this.ratesToPLN = ratesToPLN;
+    }
+
+    public LocalDate getEffectiveDate() { return effectiveDate; }
+    public String getTableNo() { return tableNo; }
+    public Map<Currency, BigDecimal> getRatesToPLN() { return ratesToPLN; }
+}
@@ -1,9 +1,10 @@
 package com.charitybox.dto;
 
 import com.charitybox.model.Currency;
+import com.fasterxml.jackson.annotation.JsonInclude;
 
 import java.math.BigDecimal;
-
+import java.util.Map;
 
 public class FundraisingEventReportDto {
     private String name;
@@ -12,12 +13,26 @@ public class FundraisingEventReportDto {
 
     private Currency accountCurrency;
 
+    // money still in the assigned boxes, only set (and serialized) when the report includes it
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Map<Currency, BigDecimal> boxAmounts;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private BigDecimal boxTotal;
+
     public FundraisingEventReportDto(String name, BigDecimal accountBalance, Currency accountCurrency) {
         this.name = name;
         this.accountBalance = accountBalance;
         this.accountCurrency = accountCurrency;
     }
 
+    public FundraisingEventReportDto(String name, BigDecimal accountBalance, Currency accountCurrency,
+                                     Map<Currency, BigDecimal> boxAmounts, BigDecimal boxTotal) {
+        this(name, accountBalance, accountCurrency);
+        this.boxAmounts = boxAmounts;
+        this.boxTotal = boxTotal;
+    }
+
     public String getName() {
         return name;
     }
@@ -30,4 +45,18 @@ public class FundraisingEventReportDto {
         return accountCurrency;
     }
 
+    /**
+     * Amounts per currency still held by the boxes assigned to the event.
+     */
+    public Map<Currency, BigDecimal> getBoxAmounts() {
+        return boxAmounts;
+    }
+
+    /**
+     * The box amounts converted to the event currency with one exchange rate table.
+     */
+    public BigDecimal getBoxTotal() {
+        return boxTotal;
+    }
+
 }
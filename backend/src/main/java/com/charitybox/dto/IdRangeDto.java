@@ -0,0 +1,15 @@
+package com.charitybox.dto;
+
+public class IdRangeDto {
+    // both ends are inclusive
+    private long firstId;
+    private long lastId;
+
+    public IdRangeDto(long firstId, long lastId) {
+        this.firstId = firstId;
+        this.lastId = lastId;
+    }
+
+    public long getFirstId() { return firstId; }
+    public long getLastId() { return lastId; }
+}
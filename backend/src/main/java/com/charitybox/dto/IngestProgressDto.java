@@ -0,0 +1,32 @@
+package com.charitybox.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class IngestProgressDto {
+    private long processed;
+    private long succeeded;
+    private long failed;
+    private List<DepositResultDto> failures;
+    private boolean done;
+    private String error;
+
+    public IngestProgressDto(long processed, long succeeded, long failed,
+                             List<DepositResultDto> failures, boolean done, String error) {
+        this.processed = processed;
+        this.succeeded = succeeded;
+        this.failed = failed;
+        this.failures = failures;
+        this.done = done;
+        this.error = error;
+    }
+
+    public long getProcessed() { return processed; }
+    public long getSucceeded() { return succeeded; }
+    public long getFailed() { return failed; }
+    public List<DepositResultDto> getFailures() { return failures; }
+    public boolean isDone() { return done; }
+    public String getError() { return error; }
+}
@@ -0,0 +1,25 @@
+package com.charitybox.dto;
+
+import java.time.Instant;
+
+public class RateCacheStatsDto {
+    private long hits;
+    private long misses;
+    private long refreshes;
+    private long refreshFailures;
+    private Instant snapshotFetchedAt;
+
+    public RateCacheStatsDto(long hits, long misses, long refreshes, long refreshFailures, Instant snapshotFetchedAt) {
+        this.hits = hits;
+        this.misses = misses;
+        this.refreshes = refreshes;
+        this.refreshFailures = refreshFailures;
+        this.snapshotFetchedAt = snapshotFetchedAt;
+    }
+
+    public long getHits() { return hits; }
+    public long getMisses() { return misses; }
+    public long getRefreshes() { return refreshes; }
+    public long getRefreshFailures() { return refreshFailures; }
+    public Instant getSnapshotFetchedAt() { return snapshotFetchedAt; }
+}
@@ -28,6 +28,11 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(400).body(new ErrorResponse("Invalid request body", 400));
     }
 
+    @ExceptionHandler(org.springframework.web.client.RestClientException.class)
+    public ResponseEntity<ErrorResponse> handleRestClient(Exception ex) {
+        return ResponseEntity.status(503).body(new ErrorResponse("Exchange rates are currently unavailable", 503));
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleOtherExceptions(Exception ex) {
         return ResponseEntity.status(500).body(new ErrorResponse("Internal Server Error", 500));
@@ -0,0 +1,70 @@
+package com.charitybox.model;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * One change of a box's amount in one currency, kept as an audit trail. Entries are never updated; the
+ * amounts in {@code collection_box_amounts} are what the application reads and should equal the sum of
+ * a box's entries.
+ */
+@Entity
+@Table(name = "box_journal",
+        indexes = @Index(name = "idx_box_journal_box_id", columnList = "box_id, id"))
+public class BoxJournalEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // not a foreign key: the history of a box outlives the box
+    @Column(name = "box_id", nullable = false)
+    private Long boxId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private JournalEntryType entryType;
+
+    private Long eventId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Currency currency;
+
+    // signed: deposits are positive, transfers and discards negative
+    @Column(name = "amount_minor", nullable = false)
+    private long amountMinor;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    public BoxJournalEntry() {}
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getBoxId() {
+        return boxId;
+    }
+
+    public JournalEntryType getEntryType() {
+        return entryType;
+    }
+
+    public Long getEventId() {
+        return eventId;
+    }
+
+    public Currency getCurrency() {
+        return currency;
+    }
+
+    public long getAmountMinor() {
+        return amountMinor;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,57 @@
+package com.charitybox.model;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * The amounts of one box after all of its journal entries up to {@code lastEntryId}. Replaying the
+ * entries after that id on top of the snapshot gives the current amounts.
+ */
+@Entity
+@Table(name = "box_snapshot")
+public class BoxSnapshot {
+
+    @Id
+    @Column(name = "box_id")
+    private Long boxId;
+
+    @Column(nullable = false)
+    private long lastEntryId;
+
+    @Column(nullable = false)
+    private Instant takenAt;
+
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "box_snapshot_amounts", joinColumns = @JoinColumn(name = "box_id"))
+    @MapKeyEnumerated(EnumType.STRING)
+    @MapKeyColumn(name = "currency")
+    @Column(name = "amount_minor", nullable = false)
+    private Map<Currency, Long> amounts = new EnumMap<>(Currency.class);
+
+    public BoxSnapshot() {}
+
+    public BoxSnapshot(Long boxId, long lastEntryId, Map<Currency, Long> amounts, Instant takenAt) {
+        this.boxId = boxId;
+        this.lastEntryId = lastEntryId;
+        this.amounts.putAll(amounts);
+        this.takenAt = takenAt;
+    }
+
+    public Long getBoxId() {
+        return boxId;
+    }
+
+    public long getLastEntryId() {
+        return lastEntryId;
+    }
+
+    public Instant getTakenAt() {
+        return takenAt;
+    }
+
+    public Map<Currency, Long> getAmounts() {
+        return amounts;
+    }
+}
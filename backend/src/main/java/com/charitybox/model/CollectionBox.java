@@ -1,15 +1,24 @@
 package com.charitybox.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import jakarta.persistence.*;
-import java.math.BigDecimal;
+
 import java.util.EnumMap;
 import java.util.Map;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_collection_box_event", columnList = "fundraising_event_id, id"),
+        @Index(name = "idx_collection_box_empty", columnList = "is_empty, id")})
 public class CollectionBox {
+    // A pooled sequence: Hibernate takes one value per block of ids, and bulk provisioning takes whole blocks
+    public static final String ID_SEQUENCE = "collection_box_seq";
+    public static final int ID_ALLOCATION_SIZE = 50;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @ManyToOne
@@ -19,16 +28,26 @@ public class CollectionBox {
     @CollectionTable(name = "collection_box_amounts", joinColumns = @JoinColumn(name = "collection_box_id"))
     @MapKeyEnumerated(EnumType.STRING)
     @MapKeyColumn(name = "currency")
-    @Column(name = "amount")
-    private Map<Currency, BigDecimal> collectedAmounts = new EnumMap<>(Currency.class);
+    @Column(name = "amount_minor", nullable = false)
+    @JsonSerialize(contentUsing = MinorUnitsSerializer.class)
+    private Map<Currency, Long> collectedAmounts = new EnumMap<>(Currency.class);
 
+    // Derived from collectedAmounts; after the insert it is only written by the SQL that changes the amounts
+    @Column(name = "is_empty", nullable = false, updatable = false)
+    @JsonIgnore
+    private boolean empty = true;
 
     public CollectionBox() {
         for (Currency currency : Currency.values()) {
-            collectedAmounts.put(currency, BigDecimal.ZERO);
+            collectedAmounts.put(currency, 0L);
         }
     }
 
+    @PrePersist
+    void initEmpty() {
+        empty = collectedAmounts.values().stream().allMatch(amount -> amount == 0);
+    }
+
     public Long getId() {
         return id;
     }
@@ -42,11 +61,15 @@ public class CollectionBox {
     }
 
 
-    public Map<Currency, BigDecimal> getCollectedAmounts() {
+    public boolean isEmpty() {
+        return empty;
+    }
+
+    public Map<Currency, Long> getCollectedAmounts() {
         return collectedAmounts;
     }
 
-    public void setCollectedAmounts(Map<Currency, BigDecimal> collectedAmounts) {
+    public void setCollectedAmounts(Map<Currency, Long> collectedAmounts) {
         this.collectedAmounts = collectedAmounts;
     }
 
@@ -0,0 +1,71 @@
+package com.charitybox.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.Map;
+
+@Entity
+@Table(name = "exchange_rate_snapshot",
+        indexes = @Index(name = "idx_exchange_rate_snapshot_effective_date", columnList = "effective_date", unique = true))
+public class ExchangeRateSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private Long id;
+
+    @Column(name = "effective_date", nullable = false)
+    private LocalDate effectiveDate;
+
+    private String tableNo;
+
+    @Column(nullable = false)
+    private Instant fetchedAt;
+
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "exchange_rate_snapshot_rates", joinColumns = @JoinColumn(name = "snapshot_id"))
+    @MapKeyEnumerated(EnumType.STRING)
+    @MapKeyColumn(name = "currency")
+    @Column(name = "rate_to_pln", precision = 19, scale = 6)
+    private Map<Currency, BigDecimal> ratesToPLN = new EnumMap<>(Currency.class);
+
+    public ExchangeRateSnapshot() {}
+
+    public Long getId() {
+        return id;
+    }
+
+    public LocalDate getEffectiveDate() {
+        return effectiveDate;
+    }
+
+    public void setEffectiveDate(LocalDate effectiveDate) {
+        this.effectiveDate = effectiveDate;
+    }
+
+    public String getTableNo() {
+        return tableNo;
+    }
+
+    public void setTableNo(String tableNo) {
+        this.tableNo = tableNo;
+    }
+
+    public Instant getFetchedAt() {
+        return fetchedAt;
+    }
+
+    public void setFetchedAt(Instant fetchedAt) {
+        this.fetchedAt = fetchedAt;
+    }
+
+    public Map<Currency, BigDecimal> getRatesToPLN() {
+        return ratesToPLN;
+    }
+
+    public void setRatesToPLN(Map<Currency, BigDecimal> ratesToPLN) {
+        this.ratesToPLN = ratesToPLN;
+    }
+}
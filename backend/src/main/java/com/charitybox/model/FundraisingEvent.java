@@ -1,7 +1,8 @@
 package com.charitybox.model;
 
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import jakarta.persistence.*;
-import java.math.BigDecimal;
+
 import java.util.HashSet;
 import java.util.Set;
 
@@ -16,8 +17,9 @@ public class FundraisingEvent {
     @OneToMany(mappedBy = "fundraisingEvent")
     private Set<CollectionBox> collectionBoxes = new HashSet<>();
 
-    @Column(nullable = false)
-    private BigDecimal accountBalance = BigDecimal.ZERO;
+    @Column(name = "account_balance_minor", nullable = false)
+    @JsonSerialize(using = MinorUnitsSerializer.class)
+    private long accountBalance;
 
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
@@ -50,11 +52,11 @@ public class FundraisingEvent {
         this.collectionBoxes = collectionBoxes;
     }
 
-    public BigDecimal getAccountBalance() {
+    public long getAccountBalance() {
         return accountBalance;
     }
 
-    public void setAccountBalance(BigDecimal accountBalance) {
+    public void setAccountBalance(long accountBalance) {
         this.accountBalance = accountBalance;
     }
 
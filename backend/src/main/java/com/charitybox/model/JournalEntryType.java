@@ -0,0 +1,10 @@
+package com.charitybox.model;
+
+public enum JournalEntryType {
+    // money put into a box
+    DEPOSIT,
+    // money moved from a box to its event's account when the box is emptied
+    TRANSFER,
+    // money that left the system together with a deleted box
+    DISCARD
+}
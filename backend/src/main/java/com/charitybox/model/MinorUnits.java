@@ -0,0 +1,38 @@
+package com.charitybox.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Money amounts are kept as a {@code long} number of minor units (grosze, cents), which every supported
+ * currency divides into 100 of. {@link BigDecimal} is only used where amounts enter or leave the
+ * application: JSON, configuration and NBP rates.
+ */
+public final class MinorUnits {
+    public static final int DIGITS = 2;
+
+    private MinorUnits() {
+    }
+
+    public static long of(BigDecimal amount) {
+        if (amount.scale() > DIGITS && amount.stripTrailingZeros().scale() > DIGITS) {
+            throw new IllegalArgumentException("Amount must not have more than " + DIGITS + " decimal places: " + amount);
+        }
+        try {
+            return amount.movePointRight(DIGITS).longValueExact();
+        } catch (ArithmeticException ex) {
+            throw new IllegalArgumentException("Amount is out of range: " + amount);
+        }
+    }
+
+    public static BigDecimal toDecimal(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, DIGITS);
+    }
+
+    public static long add(long a, long b) {
+        try {
+            return Math.addExact(a, b);
+        } catch (ArithmeticException ex) {
+            throw new IllegalStateException("Amount is out of range: " + toDecimal(a) + " + " + toDecimal(b));
+        }
+    }
+}
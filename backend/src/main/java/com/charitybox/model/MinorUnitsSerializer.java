@@ -0,0 +1,18 @@
+package com.charitybox.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+import java.io.IOException;
+
+/**
+ * Writes an amount held in minor units as a decimal number, so the JSON shape of the entities does not change.
+ */
+public class MinorUnitsSerializer extends JsonSerializer<Long> {
+
+    @Override
+    public void serialize(Long minorUnits, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+        gen.writeNumber(MinorUnits.toDecimal(minorUnits));
+    }
+}
@@ -0,0 +1,29 @@
+package com.charitybox.repository;
+
+import com.charitybox.model.BoxJournalEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface BoxJournalRepository extends JpaRepository<BoxJournalEntry, Long> {
+
+    List<BoxJournalEntry> findByBoxIdOrderByIdAsc(Long boxId);
+
+    @Query("SELECT COALESCE(MAX(j.id), 0) FROM BoxJournalEntry j WHERE j.boxId = :boxId")
+    long findLastIdByBoxId(@Param("boxId") Long boxId);
+
+    // rows of [currency, sum of amountMinor]
+    @Query("SELECT j.currency, SUM(j.amountMinor) FROM BoxJournalEntry j WHERE j.boxId = :boxId AND j.id > :afterId GROUP BY j.currency")
+    List<Object[]> sumByCurrencyAfter(@Param("boxId") Long boxId, @Param("afterId") long afterId);
+
+    @Query("SELECT COALESCE(MAX(j.id), 0) FROM BoxJournalEntry j")
+    long findLastId();
+
+    // only entries in (afterId, upToId] are read, and boxes that were deleted since are left out
+    @Query("SELECT DISTINCT j.boxId FROM BoxJournalEntry j WHERE j.id > :afterId AND j.id <= :upToId "
+            + "AND EXISTS (SELECT b.id FROM CollectionBox b WHERE b.id = j.boxId) "
+            + "AND j.id > COALESCE((SELECT s.lastEntryId FROM BoxSnapshot s WHERE s.boxId = j.boxId), 0)")
+    List<Long> findBoxIdsChangedSinceSnapshot(@Param("afterId") long afterId, @Param("upToId") long upToId);
+}
@@ -0,0 +1,13 @@
+package com.charitybox.repository;
+
+import com.charitybox.model.BoxSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface BoxSnapshotRepository extends JpaRepository<BoxSnapshot, Long> {
+
+    @Query("SELECT s.boxId FROM BoxSnapshot s WHERE NOT EXISTS (SELECT b.id FROM CollectionBox b WHERE b.id = s.boxId)")
+    List<Long> findBoxIdsOfDeletedBoxes();
+}
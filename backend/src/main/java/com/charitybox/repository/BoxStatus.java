@@ -0,0 +1,32 @@
+package com.charitybox.repository;
+
+/**
+ * What the deposit and status checks need to know about a box, without loading the entity and its amounts.
+ */
+public class BoxStatus {
+    private final Long id;
+    private final Long eventId;
+    private final boolean empty;
+
+    public BoxStatus(Long id, Long eventId, boolean empty) {
+        this.id = id;
+        this.eventId = eventId;
+        this.empty = empty;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getEventId() {
+        return eventId;
+    }
+
+    public boolean isAssigned() {
+        return eventId != null;
+    }
+
+    public boolean isEmpty() {
+        return empty;
+    }
+}
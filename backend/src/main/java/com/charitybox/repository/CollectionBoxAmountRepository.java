@@ -0,0 +1,66 @@
+package com.charitybox.repository;
+
+import com.charitybox.model.Currency;
+import com.charitybox.model.JournalEntryType;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Deposits as in-place SQL increments of {@code collection_box_amounts}, so that concurrent deposits
+ * into the same box never overwrite each other. All amounts are in minor units.
+ * <p>
+ * Every change also keeps the {@code is_empty} status column of the box in step and is recorded in the
+ * {@code box_journal} audit log in the same transaction, after the amount row has been locked by the
+ * update. The amount rows stay the state the application reads; the journal costs one more insert per
+ * change and only serves as history and as a check of the amounts.
+ */
+public interface CollectionBoxAmountRepository {
+
+    /**
+     * Returns false and changes nothing if the box no longer exists, e.g. because it was deleted after
+     * the caller checked it.
+     */
+    @Transactional
+    boolean incrementAmount(Long boxId, Currency currency, long minorUnits);
+
+    /**
+     * Returns the boxes that no longer exist; nothing is written for them, while the deposits into all
+     * other boxes are applied.
+     */
+    @Transactional
+    Set<Long> incrementAmounts(Map<Long, Map<Currency, Long>> amountsByBox);
+
+    /**
+     * Reads the amounts of one box and locks its rows until the end of the transaction, so no deposit
+     * can land between reading and zeroing them.
+     */
+    Map<Currency, Long> lockAmounts(Long boxId);
+
+    /**
+     * Takes the given amounts out of a box and journals where the money went. Called with the amounts read
+     * by {@link #lockAmounts(Long)} it empties the box; subtracting instead of zeroing keeps the operation
+     * independent of deposits ordered around it when it is replayed.
+     */
+    void withdrawAmounts(Long boxId, Map<Currency, Long> amounts, JournalEntryType entryType, Long eventId);
+
+    /**
+     * Reads the amounts of every box assigned to an event and locks all their rows, zero or not, until the end
+     * of the transaction. Returns the non-zero amounts by box in box id order; boxes without money are left out.
+     */
+    Map<Long, Map<Currency, Long>> lockEventAmounts(Long eventId);
+
+    /**
+     * Transfers everything in the given boxes to an event with set-based statements: one journal insert, one
+     * update zeroing the amounts and one marking the boxes empty. The amount rows must have been locked by
+     * {@link #lockEventAmounts(Long)} in the same transaction.
+     */
+    void emptyLockedBoxes(Collection<Long> boxIds, Long eventId);
+
+    /**
+     * Sets the amounts of a box without journaling, for rebuilding them from the journal.
+     */
+    void overwriteAmounts(Long boxId, Map<Currency, Long> amounts);
+}
@@ -0,0 +1,211 @@
+package com.charitybox.repository;
+
+import com.charitybox.model.Currency;
+import com.charitybox.model.JournalEntryType;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+class CollectionBoxAmountRepositoryImpl implements CollectionBoxAmountRepository {
+    private static final String INCREMENT_SQL =
+            "UPDATE collection_box_amounts SET amount_minor = amount_minor + ? WHERE collection_box_id = ? AND currency = ?";
+    // inserts nothing if the box is gone, instead of failing on the foreign key
+    private static final String INSERT_IF_BOX_EXISTS_SQL =
+            "INSERT INTO collection_box_amounts (collection_box_id, currency, amount_minor) "
+                    + "SELECT id, ?, ? FROM collection_box WHERE id = ?";
+
+    private static final String LOCK_SQL =
+            "SELECT currency, amount_minor FROM collection_box_amounts WHERE collection_box_id = ? FOR UPDATE";
+    // the subquery only selects the boxes, so the box rows themselves are not locked
+    private static final String LOCK_EVENT_SQL =
+            "SELECT collection_box_id, currency, amount_minor FROM collection_box_amounts "
+                    + "WHERE collection_box_id IN (SELECT id FROM collection_box WHERE fundraising_event_id = ?) "
+                    + "ORDER BY collection_box_id, currency FOR UPDATE";
+    private static final String WITHDRAW_SQL =
+            "UPDATE collection_box_amounts SET amount_minor = amount_minor - ? WHERE collection_box_id = ? AND currency = ?";
+    private static final String OVERWRITE_SQL =
+            "UPDATE collection_box_amounts SET amount_minor = ? WHERE collection_box_id = ? AND currency = ?";
+
+    // only a box that is still marked empty is touched, so deposits into a box with money take no box row lock
+    private static final String MARK_NOT_EMPTY_SQL =
+            "UPDATE collection_box SET is_empty = FALSE WHERE id = ? AND is_empty";
+    private static final String REFRESH_EMPTY_SQL =
+            "UPDATE collection_box b SET is_empty = NOT EXISTS "
+                    + "(SELECT 1 FROM collection_box_amounts a WHERE a.collection_box_id = b.id AND a.amount_minor <> 0) "
+                    + "WHERE b.id = ?";
+
+    // the locked box ids are bound as one array and joined by primary key, so each statement touches exactly
+    // the locked rows and stays the same whatever the number of boxes
+    private static final String JOURNAL_TRANSFERS_SQL =
+            "INSERT INTO box_journal (box_id, entry_type, event_id, currency, amount_minor, created_at) "
+                    + "SELECT a.collection_box_id, ?, ?, a.currency, -a.amount_minor, ? "
+                    + "FROM UNNEST(CAST(? AS BIGINT ARRAY)) u(box_id) "
+                    + "JOIN collection_box_amounts a ON a.collection_box_id = u.box_id "
+                    + "WHERE a.amount_minor <> 0 ORDER BY a.collection_box_id, a.currency";
+    private static final String ZERO_AMOUNTS_SQL =
+            "MERGE INTO collection_box_amounts a USING UNNEST(CAST(? AS BIGINT ARRAY)) u(box_id) "
+                    + "ON a.collection_box_id = u.box_id "
+                    + "WHEN MATCHED AND a.amount_minor <> 0 THEN UPDATE SET amount_minor = 0";
+    private static final String MARK_EMPTY_SQL =
+            "MERGE INTO collection_box b USING UNNEST(CAST(? AS BIGINT ARRAY)) u(box_id) "
+                    + "ON b.id = u.box_id "
+                    + "WHEN MATCHED AND NOT b.is_empty THEN UPDATE SET is_empty = TRUE";
+
+    private static final String JOURNAL_SQL =
+            "INSERT INTO box_journal (box_id, entry_type, event_id, currency, amount_minor, created_at) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    CollectionBoxAmountRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public boolean incrementAmount(Long boxId, Currency currency, long minorUnits) {
+        if (jdbcTemplate.update(INCREMENT_SQL, minorUnits, boxId, currency.name()) == 0) {
+            int inserted;
+            try {
+                inserted = jdbcTemplate.update(INSERT_IF_BOX_EXISTS_SQL, currency.name(), minorUnits, boxId);
+            } catch (DataIntegrityViolationException ex) {
+                // the box was deleted by a transaction that committed while this insert ran
+                inserted = 0;
+            }
+            if (inserted == 0) {
+                return false;
+            }
+        }
+        jdbcTemplate.update(JOURNAL_SQL, journalRow(boxId, JournalEntryType.DEPOSIT, null, currency, minorUnits, now()));
+        if (minorUnits != 0) {
+            jdbcTemplate.update(MARK_NOT_EMPTY_SQL, boxId);
+        }
+        return true;
+    }
+
+    @Override
+    public Set<Long> incrementAmounts(Map<Long, Map<Currency, Long>> amountsByBox) {
+        List<Object[]> increments = new ArrayList<>();
+        amountsByBox.forEach((boxId, amounts) ->
+                amounts.forEach((currency, amount) -> increments.add(new Object[]{amount, boxId, currency.name()})));
+        // update rows in one global order so that concurrent batches cannot deadlock on each other
+        increments.sort(Comparator.comparing((Object[] row) -> (Long) row[1]).thenComparing(row -> (String) row[2]));
+        int[] updated = jdbcTemplate.batchUpdate(INCREMENT_SQL, increments);
+
+        // a box only lacks a currency row if it was created without one or was deleted meanwhile; the rows
+        // are inserted one by one, so a deleted box only fails its own deposits
+        Set<Long> missing = new HashSet<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                Object[] increment = increments.get(i);
+                int inserted;
+                try {
+                    inserted = jdbcTemplate.update(INSERT_IF_BOX_EXISTS_SQL, increment[2], increment[0], increment[1]);
+                } catch (DataIntegrityViolationException ex) {
+                    inserted = 0;
+                }
+                if (inserted == 0) {
+                    missing.add((Long) increment[1]);
+                }
+            }
+        }
+
+        Timestamp now = now();
+        List<Object[]> entries = new ArrayList<>(increments.size());
+        for (Object[] increment : increments) {
+            if (missing.contains((Long) increment[1])) continue;
+            entries.add(journalRow((Long) increment[1], JournalEntryType.DEPOSIT, null,
+                    Currency.valueOf((String) increment[2]), (Long) increment[0], now));
+        }
+        jdbcTemplate.batchUpdate(JOURNAL_SQL, entries);
+
+        // box rows after all amount rows and in id order, like every other path that touches both
+        List<Object[]> filledBoxes = new ArrayList<>();
+        new TreeMap<>(amountsByBox).forEach((boxId, amounts) -> {
+            if (!missing.contains(boxId) && amounts.values().stream().anyMatch(amount -> amount != 0)) {
+                filledBoxes.add(new Object[]{boxId});
+            }
+        });
+        if (!filledBoxes.isEmpty()) {
+            jdbcTemplate.batchUpdate(MARK_NOT_EMPTY_SQL, filledBoxes);
+        }
+        return missing;
+    }
+
+    @Override
+    public Map<Currency, Long> lockAmounts(Long boxId) {
+        Map<Currency, Long> amounts = new EnumMap<>(Currency.class);
+        jdbcTemplate.query(LOCK_SQL, rs -> {
+            amounts.put(Currency.valueOf(rs.getString("currency")), rs.getLong("amount_minor"));
+        }, boxId);
+        return amounts;
+    }
+
+    @Override
+    public void withdrawAmounts(Long boxId, Map<Currency, Long> amounts, JournalEntryType entryType, Long eventId) {
+        Timestamp now = now();
+        List<Object[]> withdrawals = new ArrayList<>();
+        List<Object[]> entries = new ArrayList<>();
+        amounts.forEach((currency, amount) -> {
+            if (amount != 0) {
+                withdrawals.add(new Object[]{amount, boxId, currency.name()});
+                entries.add(journalRow(boxId, entryType, eventId, currency, -amount, now));
+            }
+        });
+        if (!withdrawals.isEmpty()) {
+            jdbcTemplate.batchUpdate(WITHDRAW_SQL, withdrawals);
+            jdbcTemplate.batchUpdate(JOURNAL_SQL, entries);
+            jdbcTemplate.update(REFRESH_EMPTY_SQL, boxId);
+        }
+    }
+
+    @Override
+    public Map<Long, Map<Currency, Long>> lockEventAmounts(Long eventId) {
+        Map<Long, Map<Currency, Long>> amountsByBox = new TreeMap<>();
+        jdbcTemplate.query(LOCK_EVENT_SQL, rs -> {
+            long amount = rs.getLong("amount_minor");
+            if (amount != 0) {
+                amountsByBox.computeIfAbsent(rs.getLong("collection_box_id"), id -> new EnumMap<>(Currency.class))
+                        .put(Currency.valueOf(rs.getString("currency")), amount);
+            }
+        }, eventId);
+        return amountsByBox;
+    }
+
+    @Override
+    public void emptyLockedBoxes(Collection<Long> boxIds, Long eventId) {
+        if (boxIds.isEmpty()) {
+            return;
+        }
+        Long[] ids = boxIds.toArray(Long[]::new);
+        jdbcTemplate.update(JOURNAL_TRANSFERS_SQL, JournalEntryType.TRANSFER.name(), eventId, now(), ids);
+        jdbcTemplate.update(ZERO_AMOUNTS_SQL, (Object) ids);
+        jdbcTemplate.update(MARK_EMPTY_SQL, (Object) ids);
+    }
+
+    @Override
+    public void overwriteAmounts(Long boxId, Map<Currency, Long> amounts) {
+        List<Object[]> rows = new ArrayList<>();
+        amounts.forEach((currency, amount) -> rows.add(new Object[]{amount, boxId, currency.name()}));
+        jdbcTemplate.batchUpdate(OVERWRITE_SQL, rows);
+        jdbcTemplate.update(REFRESH_EMPTY_SQL, boxId);
+    }
+
+    private static Object[] journalRow(Long boxId, JournalEntryType entryType, Long eventId,
+                                       Currency currency, long amount, Timestamp createdAt) {
+        return new Object[]{boxId, entryType.name(), eventId, currency.name(), amount, createdAt};
+    }
+
+    private static Timestamp now() {
+        return Timestamp.from(Instant.now());
+    }
+}
@@ -0,0 +1,25 @@
+package com.charitybox.repository;
+
+import com.charitybox.dto.CollectionBoxDto;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Keyset-paginated box listing. Each filter is added to the SQL only when it is set, so every query
+ * is a plain range scan by id that the indexes can serve.
+ */
+public interface CollectionBoxListingRepository {
+
+    /**
+     * Returns up to {@code limit} boxes with an id greater than {@code afterId} in id order. Null filters
+     * are ignored.
+     */
+    List<CollectionBoxDto> findPage(Long afterId, Boolean assigned, Boolean empty, Long eventId, int limit);
+
+    /**
+     * Passes every box in id order to {@code action} while reading them from a database cursor, fetching
+     * {@code fetchSize} rows at a time, so the boxes are never all held in memory.
+     */
+    void forEachBox(int fetchSize, Consumer<CollectionBoxDto> action);
+}
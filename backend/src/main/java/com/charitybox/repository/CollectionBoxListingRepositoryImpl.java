@@ -0,0 +1,58 @@
+package com.charitybox.repository;
+
+import com.charitybox.dto.CollectionBoxDto;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+class CollectionBoxListingRepositoryImpl implements CollectionBoxListingRepository {
+    private static final String SELECT_SQL =
+            "SELECT b.id, b.fundraising_event_id IS NOT NULL AS assigned, b.is_empty AS empty "
+                    + "FROM collection_box b WHERE b.id > ?";
+    private static final String ALL_SQL =
+            "SELECT b.id, b.fundraising_event_id IS NOT NULL AS assigned, b.is_empty AS empty "
+                    + "FROM collection_box b ORDER BY b.id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    CollectionBoxListingRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<CollectionBoxDto> findPage(Long afterId, Boolean assigned, Boolean empty, Long eventId, int limit) {
+        StringBuilder sql = new StringBuilder(SELECT_SQL);
+        List<Object> args = new ArrayList<>();
+        args.add(afterId != null ? afterId : 0L);
+        if (eventId != null) {
+            sql.append(" AND b.fundraising_event_id = ?");
+            args.add(eventId);
+        }
+        if (assigned != null) {
+            sql.append(assigned ? " AND b.fundraising_event_id IS NOT NULL" : " AND b.fundraising_event_id IS NULL");
+        }
+        if (empty != null) {
+            sql.append(" AND b.is_empty = ?");
+            args.add(empty);
+        }
+        sql.append(" ORDER BY b.id LIMIT ?");
+        args.add(limit);
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> new CollectionBoxDto(
+                rs.getLong("id"), rs.getBoolean("assigned"), rs.getBoolean("empty")), args.toArray());
+    }
+
+    @Override
+    public void forEachBox(int fetchSize, Consumer<CollectionBoxDto> action) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(ALL_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            return statement;
+        }, (RowCallbackHandler) rs -> action.accept(new CollectionBoxDto(
+                rs.getLong("id"), rs.getBoolean("assigned"), rs.getBoolean("empty"))));
+    }
+}
@@ -0,0 +1,37 @@
+package com.charitybox.repository;
+
+import com.charitybox.dto.IdRangeDto;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Bulk registration and assignment of boxes with set-based statements, bypassing the entity manager.
+ */
+public interface CollectionBoxProvisioningRepository {
+
+    /**
+     * Reserves {@code count} box ids from the pooled box sequence, whole blocks at a time, so they can never
+     * collide with ids Hibernate hands out. Returns them as ascending ranges of consecutive ids; there is
+     * more than one only if another transaction took a block in between.
+     */
+    List<IdRangeDto> allocateIds(int count);
+
+    /**
+     * Inserts empty boxes with every id from {@code firstId} to {@code lastId}, including their zero amount
+     * rows, assigned to {@code eventId} unless it is null.
+     */
+    void insertEmptyBoxes(long firstId, long lastId, Long eventId);
+
+    /**
+     * Locks the rows of the given boxes in id order and returns their status. Ids without a box are
+     * left out.
+     */
+    List<BoxStatus> lockStatuses(Collection<Long> boxIds);
+
+    /**
+     * Assigns the given boxes to {@code eventId} with one statement. Boxes that are assigned already or not
+     * empty are skipped; returns the number of boxes assigned.
+     */
+    int assignBoxes(Collection<Long> boxIds, Long eventId);
+}
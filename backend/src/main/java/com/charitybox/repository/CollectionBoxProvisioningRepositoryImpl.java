@@ -0,0 +1,93 @@
+package com.charitybox.repository;
+
+import com.charitybox.dto.IdRangeDto;
+import com.charitybox.model.CollectionBox;
+import com.charitybox.model.Currency;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+class CollectionBoxProvisioningRepositoryImpl implements CollectionBoxProvisioningRepository {
+    // one sequence value per row; each value is the last id of a block of ID_ALLOCATION_SIZE ids
+    private static final String NEXT_VALUES_SQL =
+            "SELECT NEXT VALUE FOR " + CollectionBox.ID_SEQUENCE + " FROM SYSTEM_RANGE(1, ?)";
+    private static final String INSERT_BOXES_SQL =
+            "INSERT INTO collection_box (id, fundraising_event_id, is_empty) SELECT x, ?, TRUE FROM SYSTEM_RANGE(?, ?)";
+    // every box gets a zero row per currency like a box created by the entity manager, so that the
+    // row locks taken when boxes are emptied or settled cover all the money a box can hold
+    private static final String INSERT_AMOUNTS_SQL =
+            "INSERT INTO collection_box_amounts (collection_box_id, currency, amount_minor) "
+                    + "SELECT r.x, c.currency, 0 FROM SYSTEM_RANGE(?, ?) r "
+                    + "CROSS JOIN UNNEST(CAST(? AS VARCHAR ARRAY)) c(currency)";
+
+    // the box ids are bound as one array and joined by primary key; only the box rows are locked
+    private static final String LOCK_STATUSES_SQL =
+            "SELECT b.id, b.fundraising_event_id, b.is_empty FROM UNNEST(CAST(? AS BIGINT ARRAY)) u(box_id) "
+                    + "JOIN collection_box b ON b.id = u.box_id ORDER BY b.id FOR UPDATE";
+    private static final String ASSIGN_SQL =
+            "MERGE INTO collection_box b USING UNNEST(CAST(? AS BIGINT ARRAY)) u(box_id) ON b.id = u.box_id "
+                    + "WHEN MATCHED AND b.fundraising_event_id IS NULL AND b.is_empty THEN UPDATE SET fundraising_event_id = ?";
+
+    private static final String[] CURRENCIES = Arrays.stream(Currency.values()).map(Currency::name).toArray(String[]::new);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    CollectionBoxProvisioningRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<IdRangeDto> allocateIds(int count) {
+        List<long[]> blocks = new ArrayList<>();
+        long allocated = 0;
+        while (allocated < count) {
+            long values = (count - allocated + CollectionBox.ID_ALLOCATION_SIZE - 1) / CollectionBox.ID_ALLOCATION_SIZE;
+            for (Long value : jdbcTemplate.queryForList(NEXT_VALUES_SQL, Long.class, values)) {
+                // the very first value of the sequence is its start value and only stands for itself
+                long first = Math.max(1, value - CollectionBox.ID_ALLOCATION_SIZE + 1);
+                blocks.add(new long[]{first, value});
+                allocated += value - first + 1;
+            }
+        }
+        blocks.sort(Comparator.comparingLong(block -> block[0]));
+
+        List<IdRangeDto> ranges = new ArrayList<>();
+        long remaining = count;
+        for (long[] block : blocks) {
+            if (remaining == 0) {
+                break;
+            }
+            long last = Math.min(block[1], block[0] + remaining - 1);
+            remaining -= last - block[0] + 1;
+            int previous = ranges.size() - 1;
+            if (previous >= 0 && ranges.get(previous).getLastId() + 1 == block[0]) {
+                ranges.set(previous, new IdRangeDto(ranges.get(previous).getFirstId(), last));
+            } else {
+                ranges.add(new IdRangeDto(block[0], last));
+            }
+        }
+        return ranges;
+    }
+
+    @Override
+    public void insertEmptyBoxes(long firstId, long lastId, Long eventId) {
+        jdbcTemplate.update(INSERT_BOXES_SQL, eventId, firstId, lastId);
+        jdbcTemplate.update(INSERT_AMOUNTS_SQL, firstId, lastId, CURRENCIES);
+    }
+
+    @Override
+    public List<BoxStatus> lockStatuses(Collection<Long> boxIds) {
+        return jdbcTemplate.query(LOCK_STATUSES_SQL, (rs, rowNum) -> new BoxStatus(rs.getLong("id"),
+                        rs.getObject("fundraising_event_id", Long.class), rs.getBoolean("is_empty")),
+                (Object) boxIds.toArray(new Long[0]));
+    }
+
+    @Override
+    public int assignBoxes(Collection<Long> boxIds, Long eventId) {
+        return jdbcTemplate.update(ASSIGN_SQL, boxIds.toArray(new Long[0]), eventId);
+    }
+}
@@ -1,7 +1,40 @@
 package com.charitybox.repository;
 
+import com.charitybox.dto.CollectionBoxDto;
 import com.charitybox.model.CollectionBox;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface CollectionBoxRepository extends JpaRepository<CollectionBox, Long> {
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface CollectionBoxRepository extends JpaRepository<CollectionBox, Long>, CollectionBoxAmountRepository,
+        CollectionBoxListingRepository, CollectionBoxProvisioningRepository {
+
+    @Query("SELECT new com.charitybox.repository.BoxStatus(b.id, e.id, b.empty) FROM CollectionBox b LEFT JOIN b.fundraisingEvent e WHERE b.id = :id")
+    Optional<BoxStatus> findStatusById(@Param("id") Long id);
+
+    @Query("SELECT new com.charitybox.repository.BoxStatus(b.id, e.id, b.empty) FROM CollectionBox b LEFT JOIN b.fundraisingEvent e WHERE b.id IN :ids")
+    List<BoxStatus> findStatusByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT b.id FROM CollectionBox b WHERE b.fundraisingEvent.id = :eventId ORDER BY b.id")
+    List<Long> findIdsByEventId(@Param("eventId") Long eventId);
+
+    /**
+     * The box listing in one statement, read from the status columns of the box table alone.
+     */
+    @Query("SELECT new com.charitybox.dto.CollectionBoxDto(b.id, "
+            + "CASE WHEN b.fundraisingEvent IS NOT NULL THEN true ELSE false END, b.empty) "
+            + "FROM CollectionBox b ORDER BY b.id")
+    List<CollectionBoxDto> findAllSummaries();
+
+    /**
+     * Assigns a box only while it is still empty; a deposit committed in the meantime makes it return 0.
+     */
+    @Modifying
+    @Query(value = "UPDATE collection_box SET fundraising_event_id = :eventId WHERE id = :boxId AND is_empty", nativeQuery = true)
+    int assignIfEmpty(@Param("boxId") Long boxId, @Param("eventId") Long eventId);
 }
@@ -0,0 +1,46 @@
+package com.charitybox.repository;
+
+import com.charitybox.model.Currency;
+
+import java.util.Map;
+
+/**
+ * One event of the financial report together with the summed amounts, in minor units, of its non-empty
+ * boxes.
+ */
+public class EventBoxAmounts {
+    private final Long eventId;
+    private final String name;
+    private final Currency accountCurrency;
+    private final long accountBalance;
+    private final Map<Currency, Long> boxAmounts;
+
+    public EventBoxAmounts(Long eventId, String name, Currency accountCurrency, long accountBalance,
+                           Map<Currency, Long> boxAmounts) {
+        this.eventId = eventId;
+        this.name = name;
+        this.accountCurrency = accountCurrency;
+        this.accountBalance = accountBalance;
+        this.boxAmounts = boxAmounts;
+    }
+
+    public Long getEventId() {
+        return eventId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Currency getAccountCurrency() {
+        return accountCurrency;
+    }
+
+    public long getAccountBalance() {
+        return accountBalance;
+    }
+
+    public Map<Currency, Long> getBoxAmounts() {
+        return boxAmounts;
+    }
+}
@@ -0,0 +1,17 @@
+package com.charitybox.repository;
+
+import com.charitybox.model.ExchangeRateSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+public interface ExchangeRateSnapshotRepository extends JpaRepository<ExchangeRateSnapshot, Long> {
+
+    boolean existsByEffectiveDate(LocalDate effectiveDate);
+
+    // NBP does not publish tables on weekends and holidays, so the applicable table is the latest one on or before the date
+    Optional<ExchangeRateSnapshot> findFirstByEffectiveDateLessThanEqualOrderByEffectiveDateDesc(LocalDate date);
+
+    Optional<ExchangeRateSnapshot> findFirstByOrderByEffectiveDateDesc();
+}
@@ -0,0 +1,23 @@
+package com.charitybox.repository;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Financial report including the money that has not been emptied from the boxes yet.
+ */
+public interface FundraisingEventReportRepository {
+
+    /**
+     * Returns every event in id order with the amounts of its boxes summed per currency, all read by one
+     * grouped query, so the balances and box amounts are consistent with each other.
+     */
+    List<EventBoxAmounts> findAllWithBoxAmounts();
+
+    /**
+     * Passes every event in id order to {@code action} while reading them from a database cursor, fetching
+     * {@code fetchSize} rows at a time. With {@code withBoxAmounts} the events carry the same box amounts
+     * as {@link #findAllWithBoxAmounts()}, otherwise their box amounts are empty.
+     */
+    void forEachEvent(boolean withBoxAmounts, int fetchSize, Consumer<EventBoxAmounts> action);
+}
@@ -0,0 +1,87 @@
+package com.charitybox.repository;
+
+import com.charitybox.model.Currency;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.function.Consumer;
+
+class FundraisingEventReportRepositoryImpl implements FundraisingEventReportRepository {
+    // empty boxes and zero amounts are skipped before grouping; an event without box money gets one row with a null currency
+    private static final String REPORT_SQL =
+            "SELECT e.id, e.name, e.account_currency, e.account_balance_minor, a.currency, SUM(a.amount_minor) AS box_amount "
+                    + "FROM fundraising_event e "
+                    + "LEFT JOIN collection_box b ON b.fundraising_event_id = e.id AND NOT b.is_empty "
+                    + "LEFT JOIN collection_box_amounts a ON a.collection_box_id = b.id AND a.amount_minor <> 0 "
+                    + "GROUP BY e.id, e.name, e.account_currency, e.account_balance_minor, a.currency "
+                    + "ORDER BY e.id";
+    private static final String EVENTS_SQL =
+            "SELECT e.id, e.name, e.account_currency, e.account_balance_minor, NULL AS currency, NULL AS box_amount "
+                    + "FROM fundraising_event e ORDER BY e.id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    FundraisingEventReportRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<EventBoxAmounts> findAllWithBoxAmounts() {
+        List<EventBoxAmounts> events = new ArrayList<>();
+        forEachEvent(true, 0, events::add);
+        return events;
+    }
+
+    @Override
+    public void forEachEvent(boolean withBoxAmounts, int fetchSize, Consumer<EventBoxAmounts> action) {
+        EventCollector collector = new EventCollector(action);
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(withBoxAmounts ? REPORT_SQL : EVENTS_SQL,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            return statement;
+        }, collector);
+        collector.finish();
+    }
+
+    /**
+     * Folds the rows of one event, which are adjacent because of the ordering, into one {@link EventBoxAmounts}
+     * and passes it on as soon as the next event starts.
+     */
+    private static final class EventCollector implements RowCallbackHandler {
+        private final Consumer<EventBoxAmounts> action;
+        private EventBoxAmounts current;
+
+        EventCollector(Consumer<EventBoxAmounts> action) {
+            this.action = action;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            long eventId = rs.getLong("id");
+            if (current == null || current.getEventId() != eventId) {
+                finish();
+                current = new EventBoxAmounts(eventId, rs.getString("name"),
+                        Currency.valueOf(rs.getString("account_currency")), rs.getLong("account_balance_minor"),
+                        new EnumMap<>(Currency.class));
+            }
+            String currency = rs.getString("currency");
+            if (currency != null) {
+                current.getBoxAmounts().put(Currency.valueOf(currency), rs.getLong("box_amount"));
+            }
+        }
+
+        void finish() {
+            if (current != null) {
+                action.accept(current);
+                current = null;
+            }
+        }
+    }
+}
@@ -1,7 +1,24 @@
 package com.charitybox.repository;
 
+import com.charitybox.model.Currency;
 import com.charitybox.model.FundraisingEvent;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface FundraisingEventRepository extends JpaRepository<FundraisingEvent, Long> {
-}
\ No newline at end of file
+import java.util.Optional;
+
+public interface FundraisingEventRepository extends JpaRepository<FundraisingEvent, Long>, FundraisingEventReportRepository {
+
+    @Query("SELECT e.accountCurrency FROM FundraisingEvent e WHERE e.id = :id")
+    Optional<Currency> findAccountCurrencyById(@Param("id") Long id);
+
+    /**
+     * Adds an amount in minor units to the balance in the database itself, so concurrent credits to one event are never lost,
+     * also when they come from different application nodes.
+     */
+    @Modifying
+    @Query(value = "UPDATE fundraising_event SET account_balance_minor = account_balance_minor + :amount WHERE id = :id", nativeQuery = true)
+    int creditBalance(@Param("id") Long id, @Param("amount") long minorUnits);
+}
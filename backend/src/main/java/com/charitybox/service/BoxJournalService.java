@@ -0,0 +1,124 @@
+package com.charitybox.service;
+
+import com.charitybox.dto.BoxJournalEntryDto;
+import com.charitybox.model.BoxSnapshot;
+import com.charitybox.model.Currency;
+import com.charitybox.model.MinorUnits;
+import com.charitybox.repository.BoxJournalRepository;
+import com.charitybox.repository.BoxSnapshotRepository;
+import com.charitybox.repository.CollectionBoxRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Reads the box journal and keeps per-box snapshots of it, from which the current amounts can be rebuilt.
+ */
+@Service
+public class BoxJournalService {
+    private static final Logger log = LoggerFactory.getLogger(BoxJournalService.class);
+
+    private final BoxJournalRepository boxJournalRepository;
+    private final BoxSnapshotRepository boxSnapshotRepository;
+    private final CollectionBoxRepository collectionBoxRepository;
+    private final OperationLog operationLog;
+    private final TransactionTemplate transactionTemplate;
+
+    // journal entries up to this id were looked at by an earlier run; 0 after a restart
+    private volatile long scannedUpToEntryId;
+
+    public BoxJournalService(BoxJournalRepository boxJournalRepository,
+                             BoxSnapshotRepository boxSnapshotRepository,
+                             CollectionBoxRepository collectionBoxRepository,
+                             OperationLog operationLog,
+                             TransactionTemplate transactionTemplate) {
+        this.boxJournalRepository = boxJournalRepository;
+        this.boxSnapshotRepository = boxSnapshotRepository;
+        this.collectionBoxRepository = collectionBoxRepository;
+        this.operationLog = operationLog;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    public List<BoxJournalEntryDto> getJournal(Long boxId) {
+        return boxJournalRepository.findByBoxIdOrderByIdAsc(boxId).stream()
+                .map(entry -> new BoxJournalEntryDto(
+                        entry.getId(),
+                        entry.getEntryType(),
+                        entry.getEventId(),
+                        entry.getCurrency(),
+                        MinorUnits.toDecimal(entry.getAmountMinor()),
+                        entry.getCreatedAt()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Snapshots every existing box with journal entries newer than its last snapshot, one box per
+     * transaction, and drops the snapshots of deleted boxes. Only the entries added since the previous
+     * run are read; an entry whose transaction committed after that run had already passed its id is
+     * picked up with the next change of its box.
+     */
+    public int snapshotChangedBoxes() {
+        long upToEntryId = boxJournalRepository.findLastId();
+        Set<Long> boxIds = new LinkedHashSet<>(
+                boxJournalRepository.findBoxIdsChangedSinceSnapshot(scannedUpToEntryId, upToEntryId));
+        boxIds.addAll(boxSnapshotRepository.findBoxIdsOfDeletedBoxes());
+        for (Long boxId : boxIds) {
+            transactionTemplate.executeWithoutResult(status -> snapshot(boxId));
+        }
+        scannedUpToEntryId = upToEntryId;
+        return boxIds.size();
+    }
+
+    /**
+     * Must run in a transaction. Locking the amount rows first means no deposit into the box is in
+     * flight, so every journal entry up to the box's last id is already committed and counted.
+     */
+    void snapshot(Long boxId) {
+        Map<Currency, Long> amounts = collectionBoxRepository.lockAmounts(boxId);
+        if (amounts.isEmpty()) {
+            // the box was deleted; its history stays in the journal
+            boxSnapshotRepository.deleteById(boxId);
+            return;
+        }
+        long lastEntryId = boxJournalRepository.findLastIdByBoxId(boxId);
+        boxSnapshotRepository.save(new BoxSnapshot(boxId, lastEntryId, amounts, Instant.now()));
+    }
+
+    /**
+     * Recomputes the amounts of a box from its last snapshot and the journal entries after it, and
+     * writes them back and logs them if they differ. Returns the rebuilt amounts.
+     */
+    public Map<Currency, Long> rebuild(Long boxId) {
+        return transactionTemplate.execute(status -> {
+            Map<Currency, Long> current = collectionBoxRepository.lockAmounts(boxId);
+            if (current.isEmpty()) {
+                throw new EntityNotFoundException("Box not found: " + boxId);
+            }
+            BoxSnapshot snapshot = boxSnapshotRepository.findById(boxId).orElse(null);
+            Map<Currency, Long> rebuilt = new EnumMap<>(Currency.class);
+            for (Currency currency : current.keySet()) {
+                rebuilt.put(currency, snapshot != null ? snapshot.getAmounts().getOrDefault(currency, 0L) : 0L);
+            }
+            long afterId = snapshot != null ? snapshot.getLastEntryId() : 0;
+            for (Object[] row : boxJournalRepository.sumByCurrencyAfter(boxId, afterId)) {
+                rebuilt.merge((Currency) row[0], ((Number) row[1]).longValue(), MinorUnits::add);
+            }
+            if (!rebuilt.equals(current)) {
+                log.warn("Amounts of box {} did not match its journal and were rebuilt: {} -> {}", boxId, current, rebuilt);
+                collectionBoxRepository.overwriteAmounts(boxId, rebuilt);
+                operationLog.record(LoggedOperation.amountsRebuilt(boxId, rebuilt));
+            }
+            return rebuilt;
+        });
+    }
+}
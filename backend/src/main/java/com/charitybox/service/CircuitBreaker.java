@@ -0,0 +1,53 @@
+package com.charitybox.service;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Minimal consecutive-failure circuit breaker. After {@code failureThreshold} failed calls in a row the
+ * circuit opens and calls are rejected for {@code openDuration}; after that a single trial call is let
+ * through, and its outcome closes or re-opens the circuit.
+ */
+class CircuitBreaker {
+    private final int failureThreshold;
+    private final Duration openDuration;
+
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicBoolean trialInProgress = new AtomicBoolean();
+    private volatile long openUntilNanos;
+    private volatile boolean open;
+
+    CircuitBreaker(int failureThreshold, Duration openDuration) {
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+    }
+
+    boolean allowRequest() {
+        if (!open) {
+            return true;
+        }
+        if (System.nanoTime() - openUntilNanos < 0) {
+            return false;
+        }
+        return trialInProgress.compareAndSet(false, true);
+    }
+
+    void recordSuccess() {
+        consecutiveFailures.set(0);
+        open = false;
+        trialInProgress.set(false);
+    }
+
+    void recordFailure() {
+        if (consecutiveFailures.incrementAndGet() >= failureThreshold || open) {
+            openUntilNanos = System.nanoTime() + openDuration.toNanos();
+            open = true;
+        }
+        trialInProgress.set(false);
+    }
+
+    boolean isOpen() {
+        return open;
+    }
+}
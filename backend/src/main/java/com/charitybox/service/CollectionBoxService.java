@@ -1,89 +1,277 @@
 package com.charitybox.service;
 
+import com.charitybox.config.BoxListingProperties;
+import com.charitybox.config.BoxProvisioningProperties;
+import com.charitybox.dto.CollectionBoxBatchDto;
 import com.charitybox.dto.CollectionBoxDto;
+import com.charitybox.dto.CollectionBoxPageDto;
+import com.charitybox.dto.DepositRequest;
+import com.charitybox.dto.DepositResultDto;
+import com.charitybox.dto.IdRangeDto;
 import com.charitybox.model.CollectionBox;
 import com.charitybox.model.Currency;
-import com.charitybox.model.FundraisingEvent;
+import com.charitybox.model.JournalEntryType;
+import com.charitybox.model.MinorUnits;
+import com.charitybox.repository.BoxStatus;
 import com.charitybox.repository.CollectionBoxRepository;
+import com.charitybox.repository.FundraisingEventRepository;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
 public class CollectionBoxService {
     private final CollectionBoxRepository collectionBoxRepository;
+    private final FundraisingEventRepository fundraisingEventRepository;
     private final CurrencyConversionService currencyConversionService;
+    private final DepositAccumulator depositAccumulator;
+    private final OperationLog operationLog;
+    private final BoxListingProperties listingProperties;
+    private final FinancialReportView financialReportView;
+    private final BoxProvisioningProperties provisioningProperties;
+    private final TransactionTemplate transactionTemplate;
 
-    public CollectionBoxService (CollectionBoxRepository collectionBoxRepository, CurrencyConversionService currencyConversionService){
+    public CollectionBoxService (CollectionBoxRepository collectionBoxRepository,
+                                 FundraisingEventRepository fundraisingEventRepository,
+                                 CurrencyConversionService currencyConversionService,
+                                 DepositAccumulator depositAccumulator,
+                                 OperationLog operationLog,
+                                 BoxListingProperties listingProperties,
+                                 FinancialReportView financialReportView,
+                                 BoxProvisioningProperties provisioningProperties,
+                                 TransactionTemplate transactionTemplate){
         this.collectionBoxRepository = collectionBoxRepository;
+        this.fundraisingEventRepository = fundraisingEventRepository;
         this.currencyConversionService = currencyConversionService;
+        this.depositAccumulator = depositAccumulator;
+        this.operationLog = operationLog;
+        this.listingProperties = listingProperties;
+        this.financialReportView = financialReportView;
+        this.provisioningProperties = provisioningProperties;
+        this.transactionTemplate = transactionTemplate;
     }
 
+    @Transactional
     public CollectionBox createBox(CollectionBox box){
-        return collectionBoxRepository.save(box);
+        CollectionBox saved = collectionBoxRepository.save(box);
+        operationLog.record(LoggedOperation.boxCreated(saved.getId(), saved.getCollectedAmounts()));
+        return saved;
+    }
+
+    /**
+     * Registers {@code count} empty boxes at once, assigned to {@code eventId} right away unless it is null.
+     * The ids are reserved from the box sequence in whole blocks and each range of consecutive ids is
+     * written by two set-based inserts, so the cost barely depends on the number of boxes.
+     */
+    @Transactional
+    public CollectionBoxBatchDto createBoxes(Integer count, Long eventId) {
+        if (count == null || count < 1 || count > provisioningProperties.getMaxBoxes()) {
+            throw new IllegalArgumentException("Number of boxes must be between 1 and " + provisioningProperties.getMaxBoxes());
+        }
+        if (eventId != null && !fundraisingEventRepository.existsById(eventId)) {
+            throw new EntityNotFoundException("Event not found: " + eventId);
+        }
+        List<IdRangeDto> ranges = collectionBoxRepository.allocateIds(count);
+        for (IdRangeDto range : ranges) {
+            collectionBoxRepository.insertEmptyBoxes(range.getFirstId(), range.getLastId(), eventId);
+            operationLog.record(LoggedOperation.boxesCreated(range.getFirstId(), range.getLastId(), eventId));
+        }
+        return new CollectionBoxBatchDto(count, eventId, ranges);
     }
 
     public List<CollectionBoxDto> listBoxes() {
-        return collectionBoxRepository.findAll().stream()
-                .map(box -> new CollectionBoxDto(
-                        box.getId(),
-                        box.getFundraisingEvent() != null,
-                        box.getCollectedAmounts().values().stream().allMatch(amount -> amount.compareTo(BigDecimal.ZERO) == 0)
-                ))
-                .collect(Collectors.toList());
+        return collectionBoxRepository.findAllSummaries();
+    }
+
+    /**
+     * One page of boxes with an id greater than {@code after}, in id order. Paging by the last seen id
+     * instead of an offset keeps every page equally cheap, however deep into the listing it is.
+     */
+    public CollectionBoxPageDto listBoxes(Long after, Integer size, Boolean assigned, Boolean empty, Long eventId) {
+        int pageSize = size != null ? size : listingProperties.getPageSize();
+        if (pageSize < 1 || pageSize > listingProperties.getMaxPageSize()) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + listingProperties.getMaxPageSize());
+        }
+        // one extra row tells whether there is a next page
+        List<CollectionBoxDto> boxes = collectionBoxRepository.findPage(after, assigned, empty, eventId, pageSize + 1);
+        if (boxes.size() <= pageSize) {
+            return new CollectionBoxPageDto(boxes, null);
+        }
+        List<CollectionBoxDto> page = boxes.subList(0, pageSize);
+        return new CollectionBoxPageDto(page, page.get(pageSize - 1).getId());
     }
 
+    @Transactional
     public void deleteBox(Long id) {
-        CollectionBox box = collectionBoxRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("CollectionBox not found: " + id));
-        // Empty box first
-        for (Currency currency : box.getCollectedAmounts().keySet()) {
-            box.getCollectedAmounts().put(currency, BigDecimal.ZERO);
+        if (collectionBoxRepository.findStatusById(id).isEmpty()) {
+            throw new EntityNotFoundException("CollectionBox not found: " + id);
         }
-        collectionBoxRepository.save(box);
+        // Empty box first, so the money it held is journaled as discarded
+        Map<Currency, Long> amounts = collectionBoxRepository.lockAmounts(id);
+        collectionBoxRepository.withdrawAmounts(id, amounts, JournalEntryType.DISCARD, null);
         collectionBoxRepository.deleteById(id);
+        operationLog.record(LoggedOperation.boxDeleted(id));
+        depositAccumulator.discard(id);
     }
 
-    public void addMoney(Long boxId, String currencyStr, BigDecimal amount) {
-        Currency currency;
+    private static Currency parseCurrency(String currencyStr) {
         try {
-            currency = Currency.valueOf(currencyStr);
+            return Currency.valueOf(currencyStr);
         } catch (IllegalArgumentException | NullPointerException ex) {
             throw new IllegalArgumentException("Unsupported currency: " + currencyStr);
         }
+    }
 
-        if (amount == null || amount.compareTo(BigDecimal.ZERO) < 0) {
+    private static long toMinorUnits(BigDecimal amount) {
+        if (amount == null || amount.signum() < 0) {
             throw new IllegalArgumentException("Amount must be higher or equal to 0");
         }
-        CollectionBox box = collectionBoxRepository.findById(boxId)
-                .orElseThrow(() -> new EntityNotFoundException("Box not found: " + boxId));
-        if (box.getFundraisingEvent() == null) {
-            throw new IllegalStateException("Box is not assigned to any fundraising event. Adding money will prevent assigning box: "+ boxId + " to an event.");
+        return MinorUnits.of(amount);
+    }
+
+    private static String notAssignedMessage(Long boxId) {
+        return "Box is not assigned to any fundraising event. Adding money will prevent assigning box: " + boxId + " to an event.";
+    }
+
+    /**
+     * Deposits are written as SQL increments of the stored amount, so concurrent deposits into the same
+     * box do not need to lock it and cannot overwrite each other. In write-behind mode a deposit into a
+     * box already known to be assigned only touches in-memory counters. Amounts are converted to minor
+     * units here, so more than two decimal places are rejected.
+     */
+    public void addMoney(Long boxId, String currencyStr, BigDecimal amount) {
+        Currency currency = parseCurrency(currencyStr);
+        long minorUnits = toMinorUnits(amount);
+        if (!depositAccumulator.isKnownAssigned(boxId)) {
+            long drops;
+            do {
+                drops = depositAccumulator.getDrops();
+                BoxStatus status = collectionBoxRepository.findStatusById(boxId)
+                        .orElseThrow(() -> new EntityNotFoundException("Box not found: " + boxId));
+                if (!status.isAssigned()) {
+                    throw new IllegalStateException(notAssignedMessage(boxId));
+                }
+            } while (depositAccumulator.isEnabled() && !depositAccumulator.markAssigned(boxId, drops));
+        }
+        LoggedOperation deposit = LoggedOperation.deposited(boxId, currency, minorUnits);
+        if (depositAccumulator.isEnabled()) {
+            operationLog.record(deposit, () -> depositAccumulator.add(boxId, currency, minorUnits));
+        } else {
+            operationLog.record(deposit, () -> {
+                // the box may have been deleted since its status was read
+                if (!collectionBoxRepository.incrementAmount(boxId, currency, minorUnits)) {
+                    throw new EntityNotFoundException("Box not found: " + boxId);
+                }
+            });
         }
-        box.getCollectedAmounts().merge(currency, amount, BigDecimal::add);
-        collectionBoxRepository.save(box);
     }
 
+    /**
+     * Applies many deposits in one transaction. Every item is validated on its own and reported in the
+     * result at the same index; valid deposits are summed per box and currency and written as one batch
+     * of SQL increments.
+     */
+    @Transactional
+    public List<DepositResultDto> addMoneyBulk(List<DepositRequest> deposits) {
+        DepositResultDto[] results = new DepositResultDto[deposits.size()];
+        Currency[] currencies = new Currency[deposits.size()];
+        long[] minorUnits = new long[deposits.size()];
+        Map<Long, List<Integer>> validByBox = new LinkedHashMap<>();
+        for (int i = 0; i < deposits.size(); i++) {
+            DepositRequest deposit = deposits.get(i);
+            if (deposit == null || deposit.getBoxId() == null) {
+                results[i] = DepositResultDto.failed(i, null, "Box id is required");
+                continue;
+            }
+            try {
+                currencies[i] = parseCurrency(deposit.getCurrency());
+                minorUnits[i] = toMinorUnits(deposit.getAmount());
+                validByBox.computeIfAbsent(deposit.getBoxId(), id -> new ArrayList<>()).add(i);
+            } catch (IllegalArgumentException ex) {
+                results[i] = DepositResultDto.failed(i, deposit.getBoxId(), ex.getMessage());
+            }
+        }
+        if (validByBox.isEmpty()) {
+            return Arrays.asList(results);
+        }
+
+        Map<Long, BoxStatus> statuses = collectionBoxRepository.findStatusByIdIn(validByBox.keySet()).stream()
+                .collect(Collectors.toMap(BoxStatus::getId, Function.identity()));
+        Map<Long, Map<Currency, Long>> amountsByBox = new LinkedHashMap<>();
+        for (Map.Entry<Long, List<Integer>> entry : validByBox.entrySet()) {
+            Long boxId = entry.getKey();
+            BoxStatus status = statuses.get(boxId);
+            String error = status == null ? "Box not found: " + boxId
+                    : !status.isAssigned() ? notAssignedMessage(boxId)
+                    : null;
+            for (int i : entry.getValue()) {
+                if (error != null) {
+                    results[i] = DepositResultDto.failed(i, boxId, error);
+                } else {
+                    amountsByBox.computeIfAbsent(boxId, id -> new EnumMap<>(Currency.class))
+                            .merge(currencies[i], minorUnits[i], MinorUnits::add);
+                    results[i] = DepositResultDto.succeeded(i, boxId);
+                }
+            }
+        }
+        if (!amountsByBox.isEmpty()) {
+            // a box deleted since its status was read gets none of its deposits
+            for (Long boxId : collectionBoxRepository.incrementAmounts(amountsByBox)) {
+                amountsByBox.remove(boxId);
+                for (int i : validByBox.get(boxId)) {
+                    results[i] = DepositResultDto.failed(i, boxId, "Box not found: " + boxId);
+                }
+            }
+            if (!amountsByBox.isEmpty()) {
+                operationLog.record(LoggedOperation.deposited(amountsByBox));
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Moves the money of one box to its event's account in a single transaction. Only the rows of this
+     * box are locked while they are read and zeroed; the event is credited with an atomic increment at
+     * the very end, so boxes of the same event can be emptied in parallel.
+     * <p>
+     * The exchange rates are resolved before the transaction starts, so a slow NBP request does not hold
+     * a pooled connection. If they cannot be resolved, a box holding only the event currency is still
+     * emptied and any other box fails inside the transaction as before.
+     */
     public void emptyBox(Long boxId) {
-        CollectionBox box = collectionBoxRepository.findById(boxId)
+        Supplier<RateSnapshot> rates = currencyConversionService.prefetchSnapshot();
+        transactionTemplate.executeWithoutResult(status -> emptyBox(boxId, rates));
+    }
+
+    private void emptyBox(Long boxId, Supplier<RateSnapshot> rates) {
+        BoxStatus status = collectionBoxRepository.findStatusById(boxId)
                 .orElseThrow(() -> new EntityNotFoundException("Box not found: " + boxId));
-        if (box.getFundraisingEvent() == null) {
+        if (!status.isAssigned()) {
             throw new IllegalStateException("Box is not assigned to any fundraising event.");
         }
-        FundraisingEvent event = box.getFundraisingEvent();
-        Currency eventCurrency = event.getAccountCurrency();
+        Currency eventCurrency = fundraisingEventRepository.findAccountCurrencyById(status.getEventId())
+                .orElseThrow(() -> new EntityNotFoundException("Event not found: " + status.getEventId()));
 
-        BigDecimal total = BigDecimal.ZERO;
-        for (Map.Entry<Currency, BigDecimal> entry : box.getCollectedAmounts().entrySet()) {
-            BigDecimal converted = currencyConversionService.convert(entry.getValue(), entry.getKey(), eventCurrency);
-            total = total.add(converted);
-            box.getCollectedAmounts().put(entry.getKey(), BigDecimal.ZERO);
+        depositAccumulator.flush(boxId);
+        Map<Currency, Long> amounts = collectionBoxRepository.lockAmounts(boxId);
+        long total = currencyConversionService.convertAll(amounts, eventCurrency, rates);
+        collectionBoxRepository.withdrawAmounts(boxId, amounts, JournalEntryType.TRANSFER, status.getEventId());
+        if (total != 0) {
+            fundraisingEventRepository.creditBalance(status.getEventId(), total);
+            financialReportView.credited(status.getEventId(), total);
         }
-        event.setAccountBalance(event.getAccountBalance().add(total));
-        collectionBoxRepository.save(box);
+        operationLog.record(LoggedOperation.boxEmptied(boxId, status.getEventId(), amounts, total));
     }
 }
@@ -1,31 +1,158 @@
 package com.charitybox.service;
 
+import com.charitybox.config.NbpProperties;
 import com.charitybox.dto.NbpTableDto;
+import com.charitybox.dto.RateCacheStatsDto;
 import com.charitybox.model.Currency;
+import com.charitybox.model.MinorUnits;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
 
 @Service
 public class CurrencyConversionService {
+    private static final Logger log = LoggerFactory.getLogger(CurrencyConversionService.class);
+
+    private static final Duration REFRESH_STORE_ALLOWANCE = Duration.ofSeconds(1);
+
     private final RestTemplate restTemplate;
-    private static final String NBP_URL = "https://api.nbp.pl/api/exchangerates/tables/A?format=json";
+    private final NbpAsyncClient nbpAsyncClient;
+    private final NbpProperties properties;
+    private final ExchangeRateHistoryService exchangeRateHistoryService;
+    private final CircuitBreaker circuitBreaker;
+
+    private final AtomicReference<RateSnapshot> snapshot = new AtomicReference<>();
+    private final AtomicReference<CompletableFuture<RateSnapshot>> inFlightRefresh = new AtomicReference<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder refreshFailures = new LongAdder();
 
-    public CurrencyConversionService(RestTemplate restTemplate) {
+    public CurrencyConversionService(RestTemplate restTemplate,
+                                     NbpAsyncClient nbpAsyncClient,
+                                     NbpProperties properties,
+                                     ExchangeRateHistoryService exchangeRateHistoryService) {
         this.restTemplate = restTemplate;
+        this.nbpAsyncClient = nbpAsyncClient;
+        this.properties = properties;
+        this.exchangeRateHistoryService = exchangeRateHistoryService;
+        this.circuitBreaker = new CircuitBreaker(properties.getCircuitFailureThreshold(), properties.getCircuitOpenDuration());
     }
 
+    /**
+     * Fetches the current table from NBP and caches it. Concurrent callers share a single request.
+     */
     public Map<Currency, BigDecimal> fetchRatesToPLN() {
-        NbpTableDto[] tables = restTemplate.getForObject(NBP_URL, NbpTableDto[].class);
+        return refreshRates().getRatesToPLN();
+    }
+
+    private NbpTableDto fetchTable() {
+        if (!circuitBreaker.allowRequest()) {
+            throw new RestClientException("NBP circuit breaker is open");
+        }
+        try {
+            NbpTableDto table = fetchTableWithRetries();
+            circuitBreaker.recordSuccess();
+            return table;
+        } catch (RestClientException ex) {
+            circuitBreaker.recordFailure();
+            throw ex;
+        }
+    }
+
+    private NbpTableDto fetchTableWithRetries() {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                NbpTableDto[] tables = restTemplate.getForObject(properties.getUrl(), NbpTableDto[].class);
+                return tables != null && tables.length > 0 ? tables[0] : null;
+            } catch (HttpClientErrorException ex) {
+                // a 4xx answer will not change by asking again
+                throw ex;
+            } catch (RestClientException ex) {
+                if (attempt >= properties.getMaxRetries()) {
+                    throw ex;
+                }
+                sleepBeforeRetry(attempt);
+            }
+        }
+    }
+
+    /**
+     * Same as {@link #fetchTable()}, without blocking: retries are scheduled after the backoff delay
+     * instead of sleeping, so no thread waits for NBP.
+     */
+    private CompletableFuture<NbpTableDto> fetchTableAsync() {
+        if (!circuitBreaker.allowRequest()) {
+            return CompletableFuture.failedFuture(new RestClientException("NBP circuit breaker is open"));
+        }
+        return fetchTableWithRetriesAsync(0).whenComplete((table, ex) -> {
+            if (ex == null) {
+                circuitBreaker.recordSuccess();
+            } else if (unwrap(ex) instanceof RestClientException) {
+                circuitBreaker.recordFailure();
+            }
+        });
+    }
+
+    private CompletableFuture<NbpTableDto> fetchTableWithRetriesAsync(int attempt) {
+        // started inside the chain, so that an exception thrown by the client (e.g. for a malformed URL)
+        // fails the future instead of escaping and leaving the shared refresh incomplete
+        return CompletableFuture.completedFuture(attempt)
+                .thenCompose(ignored -> nbpAsyncClient.fetchTable())
+                .exceptionallyCompose(ex -> {
+                    Throwable cause = unwrap(ex);
+                    // a 4xx answer will not change by asking again
+                    if (!(cause instanceof RestClientException) || cause instanceof HttpClientErrorException
+                            || attempt >= properties.getMaxRetries()) {
+                        return CompletableFuture.failedFuture(cause);
+                    }
+                    Executor afterBackoff = CompletableFuture.delayedExecutor(retryDelayMillis(attempt), TimeUnit.MILLISECONDS);
+                    return CompletableFuture.supplyAsync(() -> attempt + 1, afterBackoff)
+                            .thenCompose(this::fetchTableWithRetriesAsync);
+                });
+    }
+
+    private long retryDelayMillis(int attempt) {
+        long maxDelay = properties.getRetryBackoff().toMillis() << attempt;
+        return maxDelay > 0 ? ThreadLocalRandom.current().nextLong(maxDelay + 1) : 0;
+    }
+
+    private void sleepBeforeRetry(int attempt) {
+        try {
+            Thread.sleep(retryDelayMillis(attempt));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RestClientException("Interrupted while waiting to retry the NBP request", ex);
+        }
+    }
+
+    private static Map<Currency, BigDecimal> toRates(NbpTableDto table) {
         Map<Currency, BigDecimal> rates = new HashMap<>();
         rates.put(Currency.PLN, BigDecimal.ONE);
 
-        if (tables != null && tables.length > 0) {
-            for (var rate : tables[0].getRates()) {
+        if (table != null) {
+            for (var rate : table.getRates()) {
                 try {
                     Currency currency = Currency.valueOf(rate.getCode());
                     rates.put(currency, rate.getMid());
@@ -37,15 +164,272 @@ public class CurrencyConversionService {
         return rates;
     }
 
+    /**
+     * Returns the cached snapshot while it is within its TTL; only an expired or missing snapshot
+     * makes the caller wait for NBP. If NBP cannot be reached, the latest table stored by this process is
+     * used instead.
+     */
+    public RateSnapshot currentSnapshot() {
+        RateSnapshot current = snapshot.get();
+        if (current != null && !current.isExpired(properties.getCacheTtl(), Instant.now())) {
+            hits.increment();
+            return current;
+        }
+        misses.increment();
+        try {
+            return refreshCoalesced(true);
+        } catch (RestClientException ex) {
+            return offlineSnapshot(ex);
+        }
+    }
+
+    /**
+     * Resolves the current snapshot now, for callers that convert later while holding database locks, so that
+     * no lock is held while waiting for NBP. If it cannot be resolved, the returned supplier tries again when
+     * a conversion actually needs rates, so amounts already in the target currency can still be handled.
+     */
+    public Supplier<RateSnapshot> prefetchSnapshot() {
+        try {
+            RateSnapshot rates = currentSnapshot();
+            return () -> rates;
+        } catch (RestClientException ex) {
+            return this::currentSnapshot;
+        }
+    }
+
+    /**
+     * Same as {@link #currentSnapshot()}, but an expired or missing snapshot is fetched without blocking
+     * the caller, which gets a future to compose with its other work.
+     */
+    public CompletableFuture<RateSnapshot> currentSnapshotAsync() {
+        RateSnapshot current = snapshot.get();
+        if (current != null && !current.isExpired(properties.getCacheTtl(), Instant.now())) {
+            hits.increment();
+            return CompletableFuture.completedFuture(current);
+        }
+        misses.increment();
+        return refreshCoalescedAsync(true).exceptionally(ex -> {
+            if (unwrap(ex) instanceof RestClientException cause) {
+                return offlineSnapshot(cause);
+            }
+            throw ex instanceof CompletionException completion ? completion : new CompletionException(ex);
+        });
+    }
+
+    private RateSnapshot offlineSnapshot(RestClientException ex) {
+        RateSnapshot stored = exchangeRateHistoryService.findLatest().orElseThrow(() -> ex);
+        // Serve the stored table for one TTL instead of retrying NBP on every conversion
+        RateSnapshot offline = new RateSnapshot(stored.getRatesToPLN(), stored.getEffectiveDate(), Instant.now());
+        snapshot.set(offline);
+        return offline;
+    }
+
+    public RateSnapshot refreshRates() {
+        return refreshCoalesced(false);
+    }
+
+    /**
+     * Fetches the current table from NBP without blocking the caller. Shares the fetch with
+     * {@link #refreshRates()} and {@link #currentSnapshot()} callers that arrive while it is running.
+     */
+    public CompletableFuture<RateSnapshot> refreshRatesAsync() {
+        return refreshCoalescedAsync(false);
+    }
+
+    /**
+     * Makes the first caller fetch the table and every caller that arrives while the fetch is running
+     * wait for its result, so an expired snapshot causes one NBP request instead of one per thread.
+     */
+    private RateSnapshot refreshCoalesced(boolean reuseFreshSnapshot) {
+        CompletableFuture<RateSnapshot> ownRefresh = new CompletableFuture<>();
+        CompletableFuture<RateSnapshot> inFlight = inFlightRefresh.compareAndExchange(null, ownRefresh);
+        if (inFlight != null) {
+            return awaitRefresh(inFlight);
+        }
+        try {
+            RateSnapshot current = snapshot.get();
+            // another leader may have finished between our cache check and taking the lead
+            RateSnapshot result = reuseFreshSnapshot && current != null
+                    && !current.isExpired(properties.getCacheTtl(), Instant.now())
+                    ? current
+                    : fetchAndStore();
+            ownRefresh.complete(result);
+            return result;
+        } catch (RuntimeException ex) {
+            ownRefresh.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlightRefresh.compareAndSet(ownRefresh, null);
+        }
+    }
+
+    private CompletableFuture<RateSnapshot> refreshCoalescedAsync(boolean reuseFreshSnapshot) {
+        CompletableFuture<RateSnapshot> ownRefresh = new CompletableFuture<>();
+        CompletableFuture<RateSnapshot> inFlight = inFlightRefresh.compareAndExchange(null, ownRefresh);
+        if (inFlight != null) {
+            // a copy, so that a caller cancelling its future does not fail the shared refresh
+            return inFlight.copy();
+        }
+        RateSnapshot current = snapshot.get();
+        CompletableFuture<RateSnapshot> result = reuseFreshSnapshot && current != null
+                && !current.isExpired(properties.getCacheTtl(), Instant.now())
+                ? CompletableFuture.completedFuture(current)
+                : fetchTableAsync()
+                        // the shared refresh is released even if the client never answers
+                        .orTimeout(maxRefreshDuration().toMillis(), TimeUnit.MILLISECONDS)
+                        .whenComplete((table, ex) -> {
+                            if (ex != null) refreshFailures.increment();
+                        })
+                        .thenApply(this::store);
+        result.whenComplete((fresh, ex) -> {
+            if (ex == null) {
+                ownRefresh.complete(fresh);
+            } else if (unwrap(ex) instanceof TimeoutException) {
+                ownRefresh.completeExceptionally(new RestClientException("Timed out waiting for the NBP refresh"));
+            } else {
+                ownRefresh.completeExceptionally(unwrap(ex));
+            }
+            inFlightRefresh.compareAndSet(ownRefresh, null);
+        });
+        return ownRefresh.copy();
+    }
+
+    private static Throwable unwrap(Throwable ex) {
+        return ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+    }
+
+    /**
+     * Waits for a refresh started by another caller, but not longer than a refresh can take with all its
+     * timeouts and retries, so that a refresh which never completes cannot block its followers forever.
+     */
+    private RateSnapshot awaitRefresh(CompletableFuture<RateSnapshot> inFlight) {
+        try {
+            return inFlight.get(maxRefreshDuration().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new RestClientException("NBP refresh failed", ex.getCause());
+        } catch (TimeoutException ex) {
+            throw new RestClientException("Timed out waiting for the NBP refresh of another caller");
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RestClientException("Interrupted while waiting for the NBP refresh", ex);
+        }
+    }
+
+    private Duration maxRefreshDuration() {
+        int maxRetries = properties.getMaxRetries();
+        // every attempt may use both timeouts; the backoffs add up to at most retryBackoff * (2^maxRetries - 1)
+        return properties.getConnectTimeout().plus(properties.getReadTimeout()).multipliedBy(maxRetries + 1)
+                .plus(properties.getRetryBackoff().multipliedBy((1L << maxRetries) - 1))
+                // storing the fetched table in the history
+                .plus(REFRESH_STORE_ALLOWANCE);
+    }
+
+    private RateSnapshot fetchAndStore() {
+        NbpTableDto table;
+        try {
+            table = fetchTable();
+        } catch (RuntimeException ex) {
+            refreshFailures.increment();
+            throw ex;
+        }
+        return store(table);
+    }
+
+    private RateSnapshot store(NbpTableDto table) {
+        Instant now = Instant.now();
+        Map<Currency, BigDecimal> rates = toRates(table);
+        LocalDate effectiveDate = table != null && table.getEffectiveDate() != null
+                ? LocalDate.parse(table.getEffectiveDate())
+                : null;
+        RateSnapshot fresh = new RateSnapshot(rates, effectiveDate, now);
+        snapshot.set(fresh);
+        refreshes.increment();
+        // the history is best effort; failing to store it must not fail the fetch that already succeeded
+        try {
+            exchangeRateHistoryService.record(effectiveDate, table != null ? table.getNo() : null, rates, now);
+        } catch (RuntimeException ex) {
+            log.warn("Storing NBP table {} in the rate history failed: {}", effectiveDate, ex.getMessage());
+        }
+        return fresh;
+    }
+
+    public RateCacheStatsDto getCacheStats() {
+        RateSnapshot current = snapshot.get();
+        return new RateCacheStatsDto(
+                hits.sum(),
+                misses.sum(),
+                refreshes.sum(),
+                refreshFailures.sum(),
+                current != null ? current.getFetchedAt() : null);
+    }
+
     public BigDecimal convert(BigDecimal amount, Currency from, Currency to) {
-        Map<Currency, BigDecimal> rates = fetchRatesToPLN();
         if (from == to) return amount;
-        BigDecimal fromRate = rates.getOrDefault(from, null);
-        BigDecimal toRate = rates.getOrDefault(to, null);
-        if (fromRate == null || toRate == null) {
+        BigDecimal crossRate = currentSnapshot().crossRate(from, to);
+        if (crossRate == null) {
             throw new IllegalArgumentException("No currency exchange rate: " + from + " or " + to);
         }
-        BigDecimal amountInPLN = amount.multiply(fromRate);
-        return amountInPLN.divide(toRate, 2, RoundingMode.HALF_UP);
+        return amount.multiply(crossRate).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Converts a set of amounts in minor units, in different currencies, into one total in minor units of
+     * the target currency, using a single rate snapshot for all of them. The snapshot is only looked up
+     * when there is something to convert.
+     */
+    public long convertAll(Map<Currency, Long> amounts, Currency to) {
+        return convertAll(amounts, to, this::currentSnapshot);
+    }
+
+    /**
+     * Same as {@link #convertAll(Map, Currency)}, but a missing or expired snapshot is fetched without
+     * blocking the caller. Completes at once when there is nothing to convert.
+     */
+    public CompletableFuture<Long> convertAllAsync(Map<Currency, Long> amounts, Currency to) {
+        boolean needsRates = amounts.entrySet().stream()
+                .anyMatch(entry -> entry.getKey() != to && entry.getValue() != 0);
+        if (!needsRates) {
+            return CompletableFuture.completedFuture(convertAll(amounts, to, () -> null));
+        }
+        return currentSnapshotAsync().thenApply(rates -> convertAll(amounts, to, () -> rates));
+    }
+
+    /**
+     * Same as {@link #convertAll(Map, Currency)}, with the rates taken from {@code snapshotSource} when a
+     * conversion is needed, so several calls can share one snapshot.
+     */
+    long convertAll(Map<Currency, Long> amounts, Currency to, Supplier<RateSnapshot> snapshotSource) {
+        long total = 0;
+        // converted amounts are summed exactly and rounded once, so only they need BigDecimal
+        BigDecimal converted = null;
+        RateSnapshot rates = null;
+        for (Map.Entry<Currency, Long> entry : amounts.entrySet()) {
+            long amount = entry.getValue();
+            if (amount == 0) continue;
+            if (entry.getKey() == to) {
+                total = MinorUnits.add(total, amount);
+                continue;
+            }
+            if (rates == null) rates = snapshotSource.get();
+            BigDecimal crossRate = rates.crossRate(entry.getKey(), to);
+            if (crossRate == null) {
+                throw new IllegalArgumentException("No currency exchange rate: " + entry.getKey() + " or " + to);
+            }
+            BigDecimal product = BigDecimal.valueOf(amount).multiply(crossRate);
+            converted = converted == null ? product : converted.add(product);
+        }
+        if (converted == null) {
+            return total;
+        }
+        long rounded;
+        try {
+            rounded = converted.setScale(0, RoundingMode.HALF_UP).longValueExact();
+        } catch (ArithmeticException ex) {
+            throw new IllegalStateException("Converted amount is out of range: " + converted);
+        }
+        return MinorUnits.add(total, rounded);
     }
 }
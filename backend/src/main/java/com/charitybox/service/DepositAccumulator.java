@@ -0,0 +1,316 @@
+package com.charitybox.service;
+
+import com.charitybox.config.DepositProperties;
+import com.charitybox.model.Currency;
+import com.charitybox.repository.BoxStatus;
+import com.charitybox.repository.CollectionBoxRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Write-behind buffer for single deposits. Deposits are added to striped counters per box and currency,
+ * in minor units, and written to {@code collection_box_amounts} as batched SQL increments either
+ * periodically or when an operation needs the exact amounts of a box.
+ * <p>
+ * The pending amounts live in this JVM only, so the mode is meant for a single application node.
+ */
+@Component
+public class DepositAccumulator {
+    private static final Currency[] CURRENCIES = Currency.values();
+    // a power of two, so a thread's stripe is a mask of its hashed id
+    private static final int STRIPES = Math.min(16, Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1));
+
+    private final CollectionBoxRepository collectionBoxRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+
+    private final Map<Long, PendingBox> pending = new ConcurrentHashMap<>();
+    // Boxes only ever go from unassigned to assigned, so an assigned box stays valid until it is deleted
+    private final Set<Long> assignedBoxes = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    // bumped before a box is dropped, so markAssigned can tell that a drop raced with its status check
+    private final AtomicLong drops = new AtomicLong();
+
+    public DepositAccumulator(CollectionBoxRepository collectionBoxRepository,
+                              TransactionTemplate transactionTemplate,
+                              DepositProperties properties) {
+        this.collectionBoxRepository = collectionBoxRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = properties.isWriteBehind();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isKnownAssigned(Long boxId) {
+        return assignedBoxes.contains(boxId);
+    }
+
+    /**
+     * The number of boxes dropped so far; read it before checking the status of a box that is then
+     * passed to {@link #markAssigned(Long, long)}.
+     */
+    public long getDrops() {
+        return drops.get();
+    }
+
+    /**
+     * Remembers the box as assigned, unless a box was dropped since {@code dropsBefore} was read; the
+     * dropped box may be this one, so the caller has to check its status again.
+     */
+    public boolean markAssigned(Long boxId, long dropsBefore) {
+        assignedBoxes.add(boxId);
+        if (drops.get() != dropsBefore) {
+            assignedBoxes.remove(boxId);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Adds a deposit into a box known to be assigned. Throws {@link EntityNotFoundException} and keeps
+     * nothing if the box was dropped meanwhile, so a deposit into a deleted box is never acknowledged.
+     */
+    public void add(Long boxId, Currency currency, long minorUnits) {
+        PendingBox box;
+        do {
+            box = pending.computeIfAbsent(boxId, id -> new PendingBox());
+            // retried if a flush retired the drained box before this deposit was counted
+        } while (!box.add(currency, minorUnits));
+        // drop() forgets the box before its pending amounts, so a deposit that still sees it assigned is
+        // either dropped together with the box or written with it
+        if (!assignedBoxes.contains(boxId)) {
+            box.add(currency, -minorUnits);
+            throw new EntityNotFoundException("Box not found: " + boxId);
+        }
+    }
+
+    /**
+     * Writes the pending deposits of one box in the caller's transaction. If that transaction rolls back,
+     * the amounts become pending again.
+     */
+    public void flush(Long boxId) {
+        if (pending.containsKey(boxId)) {
+            write(List.of(boxId));
+        }
+    }
+
+    /**
+     * Writes the pending deposits of the given boxes in the caller's transaction, like {@link #flush(Long)}.
+     */
+    public void flush(Collection<Long> boxIds) {
+        List<Long> withDeposits = boxIds.stream().filter(pending::containsKey).toList();
+        if (!withDeposits.isEmpty()) {
+            write(withDeposits);
+        }
+    }
+
+    /**
+     * Writes the pending deposits of every box in one transaction of batched increments.
+     */
+    public void flushAll() {
+        if (!pending.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> write(List.copyOf(pending.keySet())));
+        }
+    }
+
+    /**
+     * Drops everything known about a deleted box, including deposits that were not written yet, once the
+     * caller's transaction commits; if it rolls back, the box and its pending deposits stay.
+     */
+    public void discard(Long boxId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            drop(boxId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                drop(boxId);
+            }
+        });
+    }
+
+    private void drop(Long boxId) {
+        drops.incrementAndGet();
+        assignedBoxes.remove(boxId);
+        pending.remove(boxId);
+    }
+
+    private void write(Collection<Long> boxIds) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Pending deposits can only be written inside a transaction");
+        }
+        Map<Long, long[]> taken = take(boxIds);
+        if (taken.isEmpty()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    giveBack(taken);
+                }
+            }
+        });
+
+        // a box deleted meanwhile has no rows to add to; its deposits are dropped together with it
+        Set<Long> existing = collectionBoxRepository.findStatusByIdIn(taken.keySet()).stream()
+                .map(BoxStatus::getId)
+                .collect(Collectors.toSet());
+        Map<Long, Map<Currency, Long>> amountsByBox = new HashMap<>();
+        taken.forEach((boxId, deltas) -> {
+            if (!existing.contains(boxId)) {
+                drop(boxId);
+                return;
+            }
+            Map<Currency, Long> amounts = new EnumMap<>(Currency.class);
+            for (Currency currency : CURRENCIES) {
+                long delta = deltas[currency.ordinal()];
+                if (delta != 0) {
+                    amounts.put(currency, delta);
+                }
+            }
+            amountsByBox.put(boxId, amounts);
+        });
+        if (!amountsByBox.isEmpty()) {
+            collectionBoxRepository.incrementAmounts(amountsByBox).forEach(this::drop);
+        }
+    }
+
+    private Map<Long, long[]> take(Collection<Long> boxIds) {
+        Map<Long, long[]> taken = new HashMap<>();
+        writeLock.lock();
+        try {
+            for (Long boxId : boxIds) {
+                PendingBox box = pending.get(boxId);
+                if (box == null) continue;
+                long[] deltas = box.take();
+                if (deltas != null) {
+                    taken.put(boxId, deltas);
+                } else {
+                    // nothing was deposited since the last write, so the box no longer needs an entry
+                    PendingBox successor = box.retire();
+                    if (successor == null) {
+                        pending.remove(boxId, box);
+                    } else {
+                        pending.replace(boxId, box, successor);
+                    }
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        return taken;
+    }
+
+    private void giveBack(Map<Long, long[]> taken) {
+        writeLock.lock();
+        try {
+            // the drained box may have been removed meanwhile; a new one holds the amounts just as well
+            taken.forEach((boxId, deltas) -> pending.computeIfAbsent(boxId, id -> new PendingBox()).giveBack(deltas));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // the number of boxes with an entry, for tests
+    int pendingBoxes() {
+        return pending.size();
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        if (enabled) {
+            flushAll();
+        }
+    }
+
+    /**
+     * Counters are never reset, because a reset can lose an add that runs at the same time. Instead each
+     * box remembers how much of every counter has already been written; {@code written} is indexed by
+     * currency ordinal and only touched under the write lock.
+     * <p>
+     * Each currency is counted in a fixed set of stripes, picked by thread, so threads depositing into
+     * the same box rarely update the same counter. Unlike a {@code LongAdder}, whose cells are created
+     * lazily and may be missed by a concurrent sum, every stripe exists from the start and is updated
+     * with a single atomic add, which the removal below relies on.
+     * <p>
+     * A box with nothing left to write is retired and removed from the map, still under the write lock.
+     * Retiring adds a marker to every counter and takes the values from before as the final ones, so a
+     * deposit whose add returns a marked value knows it was not counted and moves to a new box. Deposits
+     * that came in after the last write but before the marker are carried over to a successor box.
+     */
+    private static final class PendingBox {
+        // added to every counter of a retired box; far above any amount a counter reaches
+        private static final long RETIRED = 1L << 62;
+
+        private final AtomicLongArray deposited = new AtomicLongArray(STRIPES * CURRENCIES.length);
+        private final long[] written;
+
+        PendingBox() {
+            this(new long[CURRENCIES.length]);
+        }
+
+        private PendingBox(long[] written) {
+            this.written = written;
+        }
+
+        // false if the box was retired before the deposit was counted
+        boolean add(Currency currency, long minorUnits) {
+            int stripe = (int) ((Thread.currentThread().threadId() * 0x9E3779B97F4A7C15L) >>> 32) & (STRIPES - 1);
+            return (deposited.getAndAdd(stripe * CURRENCIES.length + currency.ordinal(), minorUnits) & RETIRED) == 0;
+        }
+
+        long[] take() {
+            long[] deltas = new long[written.length];
+            boolean any = false;
+            for (int i = 0; i < deltas.length; i++) {
+                long total = 0;
+                for (int stripe = 0; stripe < STRIPES; stripe++) {
+                    total += deposited.get(stripe * CURRENCIES.length + i);
+                }
+                deltas[i] = total - written[i];
+                written[i] = total;
+                any |= deltas[i] != 0;
+            }
+            return any ? deltas : null;
+        }
+
+        // the box to replace this one with, holding what was deposited but not written, or null if nothing was
+        PendingBox retire() {
+            long[] successorWritten = written.clone();
+            boolean any = false;
+            for (int i = 0; i < deposited.length(); i++) {
+                successorWritten[i % CURRENCIES.length] -= deposited.getAndAdd(i, RETIRED);
+            }
+            for (long unwritten : successorWritten) {
+                any |= unwritten != 0;
+            }
+            return any ? new PendingBox(successorWritten) : null;
+        }
+
+        void giveBack(long[] deltas) {
+            for (int i = 0; i < deltas.length; i++) {
+                written[i] -= deltas[i];
+            }
+        }
+    }
+}
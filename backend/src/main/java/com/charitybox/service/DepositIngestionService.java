@@ -0,0 +1,107 @@
+package com.charitybox.service;
+
+import com.charitybox.config.DepositProperties;
+import com.charitybox.dto.DepositRequest;
+import com.charitybox.dto.DepositResultDto;
+import com.charitybox.dto.IngestProgressDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Applies a newline-delimited JSON stream of deposits in fixed-size chunks, each chunk in its own
+ * transaction, and writes one NDJSON progress line per chunk. Only one chunk is held in memory at a time.
+ * A chunk that fails as a whole, e.g. because the database is unavailable, is rolled back and reported as
+ * failed deposit by deposit, and the stream goes on with the next chunk.
+ */
+@Service
+public class DepositIngestionService {
+    private static final Logger log = LoggerFactory.getLogger(DepositIngestionService.class);
+
+    private final CollectionBoxService collectionBoxService;
+    private final ObjectMapper objectMapper;
+    private final DepositProperties properties;
+
+    public DepositIngestionService(CollectionBoxService collectionBoxService,
+                                   ObjectMapper objectMapper,
+                                   DepositProperties properties) {
+        this.collectionBoxService = collectionBoxService;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+    }
+
+    public void ingest(InputStream input, OutputStream output) throws IOException {
+        ObjectReader reader = objectMapper.readerFor(DepositRequest.class);
+        int chunkSize = properties.getIngestChunkSize();
+        List<DepositRequest> chunk = new ArrayList<>(chunkSize);
+        Counters counters = new Counters();
+        try (MappingIterator<DepositRequest> deposits = reader.readValues(input)) {
+            while (deposits.hasNextValue()) {
+                chunk.add(deposits.nextValue());
+                if (chunk.size() == chunkSize) {
+                    applyChunk(chunk, counters, output);
+                }
+            }
+        } catch (JsonProcessingException ex) {
+            // chunks applied so far stay committed; the caller can resume after the reported position
+            applyChunk(chunk, counters, output);
+            writeLine(output, new IngestProgressDto(counters.processed, counters.succeeded, counters.failed, null, true,
+                    "Malformed deposit after " + counters.processed + " deposits: " + ex.getOriginalMessage()));
+            return;
+        }
+        applyChunk(chunk, counters, output);
+        writeLine(output, new IngestProgressDto(counters.processed, counters.succeeded, counters.failed, null, true, null));
+    }
+
+    private void applyChunk(List<DepositRequest> chunk, Counters counters, OutputStream output) throws IOException {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        long offset = counters.processed;
+        List<DepositResultDto> results;
+        try {
+            results = collectionBoxService.addMoneyBulk(chunk);
+        } catch (RuntimeException ex) {
+            log.warn("Deposits {} to {} of an ingested stream were not applied", offset, offset + chunk.size() - 1, ex);
+            results = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                results.add(DepositResultDto.failed(i, chunk.get(i).getBoxId(), "Not applied: " + ex.getMessage()));
+            }
+        }
+        List<DepositResultDto> failures = new ArrayList<>();
+        for (DepositResultDto result : results) {
+            if (result.isSuccess()) {
+                counters.succeeded++;
+            } else {
+                counters.failed++;
+                failures.add(new DepositResultDto(
+                        (int) (offset + result.getIndex()), result.getBoxId(), false, result.getError()));
+            }
+        }
+        counters.processed += chunk.size();
+        chunk.clear();
+        writeLine(output, new IngestProgressDto(counters.processed, counters.succeeded, counters.failed, failures, false, null));
+    }
+
+    private void writeLine(OutputStream output, IngestProgressDto progress) throws IOException {
+        output.write(objectMapper.writeValueAsBytes(progress));
+        output.write('\n');
+        output.flush();
+    }
+
+    private static class Counters {
+        long processed;
+        long succeeded;
+        long failed;
+    }
+}
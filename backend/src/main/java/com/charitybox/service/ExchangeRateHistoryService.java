@@ -0,0 +1,65 @@
+package com.charitybox.service;
+
+import com.charitybox.dto.ExchangeRateSnapshotDto;
+import com.charitybox.model.Currency;
+import com.charitybox.model.ExchangeRateSnapshot;
+import com.charitybox.repository.ExchangeRateSnapshotRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Keeps every NBP table A that was fetched, indexed by its effective date, so that the table used on a
+ * past date can be looked up and so that conversions still work while NBP is unreachable.
+ * <p>
+ * The tables are stored in the application database, which is in memory by default and not covered by
+ * the operation log, so the fallback only has the tables fetched since the application started.
+ */
+@Service
+public class ExchangeRateHistoryService {
+    private final ExchangeRateSnapshotRepository exchangeRateSnapshotRepository;
+
+    public ExchangeRateHistoryService(ExchangeRateSnapshotRepository exchangeRateSnapshotRepository) {
+        this.exchangeRateSnapshotRepository = exchangeRateSnapshotRepository;
+    }
+
+    /**
+     * Stores the table unless one with the same effective date is stored already. Runs in a transaction of
+     * its own, so a failed insert, e.g. of a table another request stored at the same moment, leaves the
+     * caller's transaction alone.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void record(LocalDate effectiveDate, String tableNo, Map<Currency, BigDecimal> ratesToPLN, Instant fetchedAt) {
+        if (effectiveDate == null || exchangeRateSnapshotRepository.existsByEffectiveDate(effectiveDate)) {
+            return;
+        }
+        ExchangeRateSnapshot entity = new ExchangeRateSnapshot();
+        entity.setEffectiveDate(effectiveDate);
+        entity.setTableNo(tableNo);
+        entity.setFetchedAt(fetchedAt);
+        entity.getRatesToPLN().putAll(ratesToPLN);
+        exchangeRateSnapshotRepository.save(entity);
+    }
+
+    public Optional<RateSnapshot> findLatest() {
+        return exchangeRateSnapshotRepository.findFirstByOrderByEffectiveDateDesc()
+                .map(ExchangeRateHistoryService::toSnapshot);
+    }
+
+    public ExchangeRateSnapshotDto getApplicable(LocalDate date) {
+        return exchangeRateSnapshotRepository.findFirstByEffectiveDateLessThanEqualOrderByEffectiveDateDesc(date)
+                .map(entity -> new ExchangeRateSnapshotDto(entity.getEffectiveDate(), entity.getTableNo(), entity.getRatesToPLN()))
+                .orElseThrow(() -> new EntityNotFoundException("No exchange rates stored for: " + date));
+    }
+
+    private static RateSnapshot toSnapshot(ExchangeRateSnapshot entity) {
+        return new RateSnapshot(entity.getRatesToPLN(), entity.getEffectiveDate(), entity.getFetchedAt());
+    }
+}
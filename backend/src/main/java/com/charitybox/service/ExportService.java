@@ -0,0 +1,139 @@
+package com.charitybox.service;
+
+import com.charitybox.config.ExportProperties;
+import com.charitybox.model.Currency;
+import com.charitybox.repository.CollectionBoxRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes the financial report and the box inventory as CSV or NDJSON while the rows are still being read
+ * from a database cursor. Only the row being written is held in memory, and the header goes out before
+ * the first row is read.
+ * <p>
+ * Each export runs in one read-only transaction, which keeps it a single consistent read and lets drivers
+ * that only honour the fetch size inside a transaction use a real cursor.
+ */
+@Service
+public class ExportService {
+    private static final Currency[] CURRENCIES = Currency.values();
+
+    private final FundraisingEventService fundraisingEventService;
+    private final CollectionBoxRepository collectionBoxRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ExportProperties properties;
+
+    public ExportService(FundraisingEventService fundraisingEventService,
+                         CollectionBoxRepository collectionBoxRepository,
+                         ObjectMapper objectMapper,
+                         PlatformTransactionManager transactionManager,
+                         ExportProperties properties) {
+        this.fundraisingEventService = fundraisingEventService;
+        this.collectionBoxRepository = collectionBoxRepository;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.properties = properties;
+    }
+
+    public void exportFinancialReport(ExportFormat format, boolean includeBoxes, OutputStream output) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        if (format == ExportFormat.CSV) {
+            writer.write("name,accountBalance,accountCurrency");
+            if (includeBoxes) {
+                for (Currency currency : CURRENCIES) {
+                    writer.write(",box" + currency);
+                }
+                writer.write(",boxTotal");
+            }
+            writer.write('\n');
+        }
+        writer.flush();
+        export(() -> fundraisingEventService.streamFinancialReport(includeBoxes, properties.getFetchSize(), event -> {
+            if (format == ExportFormat.NDJSON) {
+                writeJsonLine(writer, event);
+                return;
+            }
+            StringBuilder line = new StringBuilder()
+                    .append(csv(event.getName())).append(',')
+                    .append(event.getAccountBalance().toPlainString()).append(',')
+                    .append(event.getAccountCurrency());
+            if (includeBoxes) {
+                for (Currency currency : CURRENCIES) {
+                    BigDecimal amount = event.getBoxAmounts().get(currency);
+                    line.append(',').append(amount != null ? amount.toPlainString() : "0.00");
+                }
+                line.append(',').append(event.getBoxTotal().toPlainString());
+            }
+            writeLine(writer, line);
+        }));
+        writer.flush();
+    }
+
+    public void exportBoxes(ExportFormat format, OutputStream output) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        if (format == ExportFormat.CSV) {
+            writer.write("id,assigned,empty\n");
+        }
+        writer.flush();
+        export(() -> collectionBoxRepository.forEachBox(properties.getFetchSize(), box -> {
+            if (format == ExportFormat.NDJSON) {
+                writeJsonLine(writer, box);
+            } else {
+                writeLine(writer, new StringBuilder()
+                        .append(box.getId()).append(',')
+                        .append(box.isAssigned()).append(',')
+                        .append(box.isEmpty()));
+            }
+        }));
+        writer.flush();
+    }
+
+    private void export(Runnable rows) throws IOException {
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> rows.run());
+        } catch (UncheckedIOException ex) {
+            // usually the client went away; the cursor is closed together with the transaction
+            throw ex.getCause();
+        }
+    }
+
+    private void writeJsonLine(Writer writer, Object row) {
+        try {
+            writer.write(objectMapper.writeValueAsString(row));
+            writer.write('\n');
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static void writeLine(Writer writer, CharSequence line) {
+        try {
+            writer.append(line).append('\n');
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
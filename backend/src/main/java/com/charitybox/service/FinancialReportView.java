@@ -0,0 +1,164 @@
+package com.charitybox.service;
+
+import com.charitybox.dto.FundraisingEventReportDto;
+import com.charitybox.model.Currency;
+import com.charitybox.model.MinorUnits;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Read-model of the financial report: name, balance and currency of every event, kept in memory and
+ * updated when an event is created or credited. The rendered report is cached until the next change,
+ * so polling it costs nothing as long as no money moves.
+ * <p>
+ * Changes made inside a transaction are applied once it commits. The view is loaded from the database
+ * at startup by {@link OperationLogReplayer} and reloaded every {@code reports.refresh-interval}, so
+ * events created or credited by another application node show up after at most one interval.
+ */
+@Component
+public class FinancialReportView {
+    private static final String LOAD_SQL =
+            "SELECT id, name, account_currency, account_balance_minor FROM fundraising_event";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Map<Long, Row> rows = new ConcurrentSkipListMap<>();
+    private volatile List<FundraisingEventReportDto> report;
+    // guarded by this; counts the changes applied, so a reload can tell it raced with one
+    private long changes;
+    // guarded by this; changes whose transaction is completing, so the database may hold them before the view
+    private int completing;
+
+    public FinancialReportView(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Replaces the view with the events currently in the database. The rendered report is kept if nothing
+     * differs, and the view is left as it is if a change of this node was applied or committing while
+     * reading, since the read may predate the change or already hold it; the next reload picks both up.
+     */
+    public void load() {
+        long changesBefore;
+        synchronized (this) {
+            changesBefore = changes;
+        }
+        // read outside the lock, so that no thread ever holds the monitor while waiting for the database
+        Map<Long, Row> loaded = new HashMap<>();
+        jdbcTemplate.query(LOAD_SQL, rs -> {
+            loaded.put(rs.getLong("id"), new Row(rs.getString("name"),
+                    Currency.valueOf(rs.getString("account_currency")), rs.getLong("account_balance_minor")));
+        });
+        synchronized (this) {
+            if (changes != changesBefore || completing > 0 || rows.equals(loaded)) {
+                return;
+            }
+            apply(() -> {
+                rows.clear();
+                rows.putAll(loaded);
+            });
+        }
+    }
+
+    public List<FundraisingEventReportDto> getReport() {
+        List<FundraisingEventReportDto> current = report;
+        return current != null ? current : render();
+    }
+
+    public void eventCreated(Long eventId, String name, Currency currency, long balance) {
+        afterCommit(() -> rows.put(eventId, new Row(name, currency, balance)));
+    }
+
+    public void credited(Long eventId, long minorUnits) {
+        afterCommit(() -> rows.computeIfPresent(eventId,
+                (id, row) -> new Row(row.name, row.currency, MinorUnits.add(row.balance, minorUnits))));
+    }
+
+    private void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(change);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private boolean counted;
+
+            // runs before the commit, so a reload reading the committed change already sees it counted
+            @Override
+            public void beforeCompletion() {
+                synchronized (FinancialReportView.this) {
+                    completing++;
+                    counted = true;
+                }
+            }
+
+            @Override
+            public void afterCommit() {
+                apply(change);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                synchronized (FinancialReportView.this) {
+                    if (counted) {
+                        completing--;
+                    }
+                }
+            }
+        });
+    }
+
+    private synchronized void apply(Runnable change) {
+        change.run();
+        changes++;
+        report = null;
+    }
+
+    // rendering under the lock means a change can never be overwritten by a report rendered before it
+    private synchronized List<FundraisingEventReportDto> render() {
+        if (report == null) {
+            List<FundraisingEventReportDto> rendered = new ArrayList<>(rows.size());
+            rows.values().forEach(row -> rendered.add(
+                    new FundraisingEventReportDto(row.name, MinorUnits.toDecimal(row.balance), row.currency)));
+            report = Collections.unmodifiableList(rendered);
+        }
+        return report;
+    }
+
+    private static final class Row {
+        private final String name;
+        private final Currency currency;
+        private final long balance;
+
+        Row(String name, Currency currency, long balance) {
+            this.name = name;
+            this.currency = currency;
+            this.balance = balance;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Row other)) {
+                return false;
+            }
+            return balance == other.balance && Objects.equals(name, other.name) && currency == other.currency;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(name, currency, balance);
+        }
+    }
+}
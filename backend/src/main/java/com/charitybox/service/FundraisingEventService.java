@@ -1,18 +1,35 @@
 package com.charitybox.service;
 
+import com.charitybox.config.BoxProvisioningProperties;
 import com.charitybox.config.FundraisingDefaultsProperties;
+import com.charitybox.dto.AssignBoxesRequest;
+import com.charitybox.dto.BoxAssignmentDto;
+import com.charitybox.dto.BoxRejectionDto;
+import com.charitybox.dto.EventSettlementDto;
 import com.charitybox.dto.FundraisingEventDto;
 import com.charitybox.dto.FundraisingEventReportDto;
-import com.charitybox.model.CollectionBox;
 import com.charitybox.model.Currency;
 import com.charitybox.model.FundraisingEvent;
+import com.charitybox.model.MinorUnits;
+import com.charitybox.repository.BoxStatus;
 import com.charitybox.repository.CollectionBoxRepository;
+import com.charitybox.repository.EventBoxAmounts;
 import com.charitybox.repository.FundraisingEventRepository;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
@@ -20,17 +37,36 @@ public class FundraisingEventService {
     private final FundraisingEventRepository fundraisingEventRepository;
     private final CollectionBoxRepository collectionBoxRepository;
     private final FundraisingDefaultsProperties defaults;
+    private final DepositAccumulator depositAccumulator;
+    private final OperationLog operationLog;
+    private final FinancialReportView financialReportView;
+    private final CurrencyConversionService currencyConversionService;
+    private final BoxProvisioningProperties provisioningProperties;
+    private final TransactionTemplate transactionTemplate;
 
     public FundraisingEventService(FundraisingEventRepository fundraisingEventRepository,
                                    CollectionBoxRepository collectionBoxRepository,
-                                   FundraisingDefaultsProperties defaults){
+                                   FundraisingDefaultsProperties defaults,
+                                   DepositAccumulator depositAccumulator,
+                                   OperationLog operationLog,
+                                   FinancialReportView financialReportView,
+                                   CurrencyConversionService currencyConversionService,
+                                   BoxProvisioningProperties provisioningProperties,
+                                   TransactionTemplate transactionTemplate){
         this.fundraisingEventRepository = fundraisingEventRepository;
         this.collectionBoxRepository = collectionBoxRepository;
         this.defaults = defaults;
+        this.depositAccumulator = depositAccumulator;
+        this.operationLog = operationLog;
+        this.financialReportView = financialReportView;
+        this.currencyConversionService = currencyConversionService;
+        this.provisioningProperties = provisioningProperties;
+        this.transactionTemplate = transactionTemplate;
 
     }
 
 
+    @Transactional
     public FundraisingEvent createEvent(FundraisingEventDto dto) {
         String currencyStr = dto.getAccountCurrency();
         Currency currency;
@@ -50,37 +86,197 @@ public class FundraisingEventService {
 
         FundraisingEvent event = new FundraisingEvent();
         event.setName(dto.getName());
-        event.setAccountBalance(dto.getAccountBalance() != null ? dto.getAccountBalance() : defaults.getDefaultBalance());
+        event.setAccountBalance(MinorUnits.of(dto.getAccountBalance() != null ? dto.getAccountBalance() : defaults.getDefaultBalance()));
         event.setAccountCurrency(currency);
-        return fundraisingEventRepository.save(event);
+        FundraisingEvent saved = fundraisingEventRepository.save(event);
+        operationLog.record(LoggedOperation.eventCreated(
+                saved.getId(), saved.getName(), saved.getAccountCurrency(), saved.getAccountBalance()));
+        financialReportView.eventCreated(saved.getId(), saved.getName(), saved.getAccountCurrency(), saved.getAccountBalance());
+        return saved;
     }
 
 
+    @Transactional
     public void assignCollectionBox(Long eventId, Long boxId) {
-        FundraisingEvent event = fundraisingEventRepository.findById(eventId)
-                .orElseThrow(() -> new EntityNotFoundException("Event not found: " + eventId));
-        CollectionBox box = collectionBoxRepository.findById(boxId)
+        if (!fundraisingEventRepository.existsById(eventId)) {
+            throw new EntityNotFoundException("Event not found: " + eventId);
+        }
+        BoxStatus status = collectionBoxRepository.findStatusById(boxId)
                 .orElseThrow(() -> new EntityNotFoundException("Box not found: " + boxId));
 
-        boolean isEmpty = box.getCollectedAmounts().values().stream()
-                .allMatch(amount -> amount.compareTo(BigDecimal.ZERO) == 0);
-
-        if (!isEmpty) {
+        // write-behind deposits are only accepted into assigned boxes, which assignIfEmpty rejects anyway,
+        // so none can be pending for a box that passes the emptiness check
+        if (!status.isEmpty() || collectionBoxRepository.assignIfEmpty(boxId, eventId) == 0) {
             throw new IllegalStateException("Box " + boxId + " is not empty and cannot be assigned.");
         }
+        operationLog.record(LoggedOperation.boxAssigned(boxId, eventId));
+    }
+
+    /**
+     * Assigns a whole set of boxes, given as a list of ids or as an id range, with one status query and one
+     * update. Boxes that do not exist, are assigned already or hold money are left as they are and reported
+     * with the reason.
+     */
+    @Transactional
+    public BoxAssignmentDto assignCollectionBoxes(Long eventId, AssignBoxesRequest request) {
+        SortedSet<Long> boxIds = requestedBoxIds(request);
+        if (!fundraisingEventRepository.existsById(eventId)) {
+            throw new EntityNotFoundException("Event not found: " + eventId);
+        }
+        // write-behind deposits are only pending for assigned boxes, which are rejected anyway, so there is
+        // nothing to flush before the emptiness check
+        Map<Long, BoxStatus> statuses = collectionBoxRepository.lockStatuses(boxIds).stream()
+                .collect(Collectors.toMap(BoxStatus::getId, Function.identity()));
+        List<Long> eligible = new ArrayList<>();
+        List<BoxRejectionDto> rejected = new ArrayList<>();
+        for (Long boxId : boxIds) {
+            BoxStatus status = statuses.get(boxId);
+            String reason = status == null ? "Box not found: " + boxId
+                    : status.isAssigned() ? "Box " + boxId + " is already assigned to a fundraising event."
+                    : !status.isEmpty() ? "Box " + boxId + " is not empty and cannot be assigned."
+                    : null;
+            if (reason == null) {
+                eligible.add(boxId);
+            } else {
+                rejected.add(new BoxRejectionDto(boxId, reason));
+            }
+        }
+        if (!eligible.isEmpty()) {
+            collectionBoxRepository.assignBoxes(eligible, eventId);
+            operationLog.record(LoggedOperation.boxesAssigned(eventId, eligible));
+        }
+        return new BoxAssignmentDto(eligible.size(), rejected);
+    }
+
+    // sorted, so the box rows are always locked in id order
+    private SortedSet<Long> requestedBoxIds(AssignBoxesRequest request) {
+        List<Long> listed = request.getBoxIds();
+        boolean isList = listed != null && !listed.isEmpty();
+        boolean isRange = request.getFirstId() != null || request.getLastId() != null;
+        if (isList == isRange) {
+            throw new IllegalArgumentException("Either boxIds or firstId and lastId must be given");
+        }
+        if (isRange && (request.getFirstId() == null || request.getLastId() == null
+                || request.getFirstId() > request.getLastId())) {
+            throw new IllegalArgumentException("Box id range must have a firstId not greater than its lastId");
+        }
+        long count = isList ? listed.size() : rangeSize(request.getFirstId(), request.getLastId());
+        if (count > provisioningProperties.getMaxBoxes()) {
+            throw new IllegalArgumentException("At most " + provisioningProperties.getMaxBoxes() + " boxes can be assigned at once");
+        }
+        SortedSet<Long> boxIds = new TreeSet<>();
+        if (isList) {
+            for (Long boxId : listed) {
+                if (boxId == null) {
+                    throw new IllegalArgumentException("Box id is required");
+                }
+                boxIds.add(boxId);
+            }
+        } else {
+            for (long i = 0; i < count; i++) {
+                boxIds.add(request.getFirstId() + i);
+            }
+        }
+        return boxIds;
+    }
+
+    // Long.MAX_VALUE when the range has more ids than a long can count
+    private static long rangeSize(long firstId, long lastId) {
+        try {
+            return Math.addExact(Math.subtractExact(lastId, firstId), 1);
+        } catch (ArithmeticException ex) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Empties every box of an event in one transaction. The amount rows of all its boxes are locked by one
+     * query, the totals per currency are converted with one rate snapshot and credited once, and the boxes
+     * are zeroed by set-based statements, so the cost hardly depends on the number of boxes.
+     * <p>
+     * The exchange rates are resolved before the transaction starts, so no amount row stays locked while
+     * waiting for NBP.
+     */
+    public EventSettlementDto settleEvent(Long eventId) {
+        Supplier<RateSnapshot> rates = currencyConversionService.prefetchSnapshot();
+        return transactionTemplate.execute(status -> settleEvent(eventId, rates));
+    }
+
+    private EventSettlementDto settleEvent(Long eventId, Supplier<RateSnapshot> rates) {
+        Currency eventCurrency = fundraisingEventRepository.findAccountCurrencyById(eventId)
+                .orElseThrow(() -> new EntityNotFoundException("Event not found: " + eventId));
+        // pending write-behind deposits are part of what the boxes hold; only the boxes of this event are
+        // flushed, so that concurrent settlements never hold rows the other one has to lock
+        if (depositAccumulator.isEnabled()) {
+            depositAccumulator.flush(collectionBoxRepository.findIdsByEventId(eventId));
+        }
+
+        Map<Long, Map<Currency, Long>> amountsByBox = collectionBoxRepository.lockEventAmounts(eventId);
+        Map<Currency, Long> totals = new EnumMap<>(Currency.class);
+        amountsByBox.values().forEach(amounts -> amounts.forEach((currency, amount) -> totals.merge(currency, amount, MinorUnits::add)));
+        long credit = currencyConversionService.convertAll(totals, eventCurrency, rates);
+
+        collectionBoxRepository.emptyLockedBoxes(amountsByBox.keySet(), eventId);
+        if (credit != 0) {
+            fundraisingEventRepository.creditBalance(eventId, credit);
+            financialReportView.credited(eventId, credit);
+        }
+        operationLog.record(LoggedOperation.eventSettled(eventId, amountsByBox, credit));
 
-        box.setFundraisingEvent(event);
-        collectionBoxRepository.save(box);
+        Map<Currency, BigDecimal> collected = new EnumMap<>(Currency.class);
+        totals.forEach((currency, amount) -> collected.put(currency, MinorUnits.toDecimal(amount)));
+        return new EventSettlementDto(amountsByBox.size(), collected, MinorUnits.toDecimal(credit), eventCurrency);
     }
 
     public List<FundraisingEventReportDto> getFinancialReport() {
-        return fundraisingEventRepository.findAll().stream()
-                .map(event -> new FundraisingEventReportDto(
-                        event.getName(),
-                        event.getAccountBalance(),
-                        event.getAccountCurrency()
-                        ))
+        return financialReportView.getReport();
+    }
+
+    /**
+     * The financial report with the money still in the assigned boxes of each event, read by one grouped
+     * query and converted to the event currencies with a single rate snapshot, fetched only if needed.
+     */
+    public List<FundraisingEventReportDto> getFinancialReportWithBoxes() {
+        Supplier<RateSnapshot> rates = sharedRates();
+        return fundraisingEventRepository.findAllWithBoxAmounts().stream()
+                .map(event -> toReportEntry(event, true, rates))
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Passes the financial report to {@code action} one event at a time, straight from a database cursor,
+     * for exports of any size.
+     */
+    public void streamFinancialReport(boolean includeBoxes, int fetchSize, Consumer<FundraisingEventReportDto> action) {
+        Supplier<RateSnapshot> rates = sharedRates();
+        fundraisingEventRepository.forEachEvent(includeBoxes, fetchSize,
+                event -> action.accept(toReportEntry(event, includeBoxes, rates)));
+    }
+
+    private Supplier<RateSnapshot> sharedRates() {
+        RateSnapshot[] rates = new RateSnapshot[1];
+        return () -> {
+            if (rates[0] == null) {
+                rates[0] = currencyConversionService.currentSnapshot();
+            }
+            return rates[0];
+        };
+    }
+
+    private FundraisingEventReportDto toReportEntry(EventBoxAmounts event, boolean includeBoxes, Supplier<RateSnapshot> rates) {
+        if (!includeBoxes) {
+            return new FundraisingEventReportDto(
+                    event.getName(), MinorUnits.toDecimal(event.getAccountBalance()), event.getAccountCurrency());
+        }
+        Map<Currency, BigDecimal> boxAmounts = new EnumMap<>(Currency.class);
+        event.getBoxAmounts().forEach((currency, amount) -> boxAmounts.put(currency, MinorUnits.toDecimal(amount)));
+        long boxTotal = currencyConversionService.convertAll(event.getBoxAmounts(), event.getAccountCurrency(), rates);
+        return new FundraisingEventReportDto(
+                event.getName(),
+                MinorUnits.toDecimal(event.getAccountBalance()),
+                event.getAccountCurrency(),
+                boxAmounts,
+                MinorUnits.toDecimal(boxTotal));
+    }
+
 }
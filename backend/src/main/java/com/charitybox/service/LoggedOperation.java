@@ -0,0 +1,221 @@
+package com.charitybox.service;
+
+import com.charitybox.model.Currency;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One state change as written to the {@link OperationLog}. Operations carry their effects rather than
+ * their inputs, e.g. the generated id of a new box or the credit an emptied box produced, so replaying
+ * them does not depend on id generators or exchange rates at replay time. All amounts are in minor units.
+ */
+public final class LoggedOperation {
+
+    public enum Type {
+        EVENT_CREATED,
+        BOX_CREATED,
+        BOX_ASSIGNED,
+        BOX_DELETED,
+        DEPOSITED,
+        BOX_EMPTIED,
+        // an earlier operation whose transaction rolled back; it is skipped on replay
+        ABORTED,
+        // types are written by ordinal, so new ones are only ever added at the end
+        EVENT_SETTLED,
+        BOXES_CREATED,
+        BOXES_ASSIGNED,
+        AMOUNTS_REBUILT
+    }
+
+    private static final Currency[] CURRENCIES = Currency.values();
+    private static final Type[] TYPES = Type.values();
+
+    private final Type type;
+    private final long id;
+    private final Long eventId;
+    private final String name;
+    private final Currency currency;
+    private final long amount;
+    private final long firstId;
+    private final long lastId;
+    private final List<Long> boxIds;
+    private final Map<Long, Map<Currency, Long>> amounts;
+
+    private LoggedOperation(Type type, long id, Long eventId, String name, Currency currency, long amount,
+                            Map<Long, Map<Currency, Long>> amounts) {
+        this(type, id, eventId, name, currency, amount, 0, 0, List.of(), amounts);
+    }
+
+    private LoggedOperation(Type type, long id, Long eventId, String name, Currency currency, long amount,
+                            long firstId, long lastId, List<Long> boxIds, Map<Long, Map<Currency, Long>> amounts) {
+        this.type = type;
+        this.id = id;
+        this.eventId = eventId;
+        this.name = name;
+        this.currency = currency;
+        this.amount = amount;
+        this.firstId = firstId;
+        this.lastId = lastId;
+        this.boxIds = boxIds;
+        this.amounts = amounts;
+    }
+
+    public static LoggedOperation eventCreated(long eventId, String name, Currency currency, long balance) {
+        return new LoggedOperation(Type.EVENT_CREATED, eventId, eventId, name, currency, balance, Map.of());
+    }
+
+    public static LoggedOperation boxCreated(long boxId, Map<Currency, Long> amounts) {
+        return new LoggedOperation(Type.BOX_CREATED, boxId, null, null, null, 0, Map.of(boxId, amounts));
+    }
+
+    public static LoggedOperation boxAssigned(long boxId, long eventId) {
+        return new LoggedOperation(Type.BOX_ASSIGNED, boxId, eventId, null, null, 0, Map.of());
+    }
+
+    public static LoggedOperation boxDeleted(long boxId) {
+        return new LoggedOperation(Type.BOX_DELETED, boxId, null, null, null, 0, Map.of());
+    }
+
+    public static LoggedOperation deposited(long boxId, Currency currency, long amount) {
+        return deposited(Map.of(boxId, Map.of(currency, amount)));
+    }
+
+    public static LoggedOperation deposited(Map<Long, Map<Currency, Long>> amountsByBox) {
+        return new LoggedOperation(Type.DEPOSITED, 0, null, null, null, 0, amountsByBox);
+    }
+
+    /**
+     * The box gave away exactly {@code withdrawn}, which the event received as {@code credit} in its own currency.
+     */
+    public static LoggedOperation boxEmptied(long boxId, long eventId, Map<Currency, Long> withdrawn, long credit) {
+        return new LoggedOperation(Type.BOX_EMPTIED, boxId, eventId, null, null, credit, Map.of(boxId, withdrawn));
+    }
+
+    /**
+     * Every box of the event gave away exactly its entry of {@code withdrawnByBox}; the event received all of
+     * it as one {@code credit} in its own currency.
+     */
+    public static LoggedOperation eventSettled(long eventId, Map<Long, Map<Currency, Long>> withdrawnByBox, long credit) {
+        return new LoggedOperation(Type.EVENT_SETTLED, eventId, eventId, null, null, credit, withdrawnByBox);
+    }
+
+    /**
+     * Empty boxes with every id from {@code firstId} to {@code lastId} were registered at once, assigned to
+     * {@code eventId} unless it is null.
+     */
+    public static LoggedOperation boxesCreated(long firstId, long lastId, Long eventId) {
+        return new LoggedOperation(Type.BOXES_CREATED, 0, eventId, null, null, 0, firstId, lastId, List.of(), Map.of());
+    }
+
+    /**
+     * All of {@code boxIds} were assigned to the event at once.
+     */
+    public static LoggedOperation boxesAssigned(long eventId, Collection<Long> boxIds) {
+        return new LoggedOperation(Type.BOXES_ASSIGNED, 0, eventId, null, null, 0, 0, 0, List.copyOf(boxIds), Map.of());
+    }
+
+    /**
+     * The amounts of the box were found to differ from its journal and were set to {@code amounts}.
+     */
+    public static LoggedOperation amountsRebuilt(long boxId, Map<Currency, Long> amounts) {
+        return new LoggedOperation(Type.AMOUNTS_REBUILT, boxId, null, null, null, 0, Map.of(boxId, amounts));
+    }
+
+    static LoggedOperation aborted(long position) {
+        return new LoggedOperation(Type.ABORTED, position, null, null, null, 0, Map.of());
+    }
+
+    public Type getType() { return type; }
+    /** The box, event or (for {@link Type#ABORTED}) log position the operation is about. */
+    public long getId() { return id; }
+    /** The event the operation is about, or null if there is none, e.g. for boxes created unassigned. */
+    public Long getEventId() { return eventId; }
+    /** The first id of a {@link Type#BOXES_CREATED} range. */
+    public long getFirstId() { return firstId; }
+    /** The last id of a {@link Type#BOXES_CREATED} range. */
+    public long getLastId() { return lastId; }
+    /** The boxes of a {@link Type#BOXES_ASSIGNED} operation, in the order they were assigned. */
+    public List<Long> getBoxIds() { return boxIds; }
+    public String getName() { return name; }
+    public Currency getCurrency() { return currency; }
+    public long getAmount() { return amount; }
+    public Map<Long, Map<Currency, Long>> getAmounts() { return amounts; }
+
+    public Map<Currency, Long> getBoxAmounts() {
+        return amounts.getOrDefault(id, Map.of());
+    }
+
+    void writeTo(DataOutput out) throws IOException {
+        out.writeByte(type.ordinal());
+        out.writeLong(id);
+        out.writeBoolean(eventId != null);
+        if (eventId != null) {
+            out.writeLong(eventId);
+        }
+        out.writeBoolean(name != null);
+        if (name != null) {
+            out.writeUTF(name);
+        }
+        out.writeByte(currency != null ? currency.ordinal() : -1);
+        out.writeLong(amount);
+        boolean range = type == Type.BOXES_CREATED;
+        out.writeBoolean(range);
+        if (range) {
+            out.writeLong(firstId);
+            out.writeLong(lastId);
+        }
+        out.writeInt(boxIds.size());
+        for (Long boxId : boxIds) {
+            out.writeLong(boxId);
+        }
+        out.writeInt(amounts.size());
+        for (Map.Entry<Long, Map<Currency, Long>> box : amounts.entrySet()) {
+            out.writeLong(box.getKey());
+            out.writeByte(box.getValue().size());
+            for (Map.Entry<Currency, Long> entry : box.getValue().entrySet()) {
+                out.writeByte(entry.getKey().ordinal());
+                out.writeLong(entry.getValue());
+            }
+        }
+    }
+
+    static LoggedOperation readFrom(DataInput in) throws IOException {
+        Type type = TYPES[in.readByte()];
+        long id = in.readLong();
+        Long eventId = in.readBoolean() ? in.readLong() : null;
+        String name = in.readBoolean() ? in.readUTF() : null;
+        byte currencyOrdinal = in.readByte();
+        Currency currency = currencyOrdinal >= 0 ? CURRENCIES[currencyOrdinal] : null;
+        long amount = in.readLong();
+        boolean range = in.readBoolean();
+        long firstId = range ? in.readLong() : 0;
+        long lastId = range ? in.readLong() : 0;
+        int assigned = in.readInt();
+        List<Long> boxIds = assigned == 0 ? List.of() : new ArrayList<>(assigned);
+        for (int i = 0; i < assigned; i++) {
+            boxIds.add(in.readLong());
+        }
+        int boxes = in.readInt();
+        Map<Long, Map<Currency, Long>> amounts = boxes == 0 ? Map.of() : new LinkedHashMap<>();
+        for (int i = 0; i < boxes; i++) {
+            long boxId = in.readLong();
+            int entries = in.readByte();
+            Map<Currency, Long> boxAmounts = new EnumMap<>(Currency.class);
+            for (int j = 0; j < entries; j++) {
+                boxAmounts.put(CURRENCIES[in.readByte()], in.readLong());
+            }
+            amounts.put(boxId, Collections.unmodifiableMap(boxAmounts));
+        }
+        return new LoggedOperation(type, id, eventId, name, currency, amount, firstId, lastId,
+                Collections.unmodifiableList(boxIds), amounts);
+    }
+}
@@ -0,0 +1,86 @@
+package com.charitybox.service;
+
+import com.charitybox.config.NbpProperties;
+import com.charitybox.dto.NbpTableDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientException;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Fetches NBP table A with the JDK {@link HttpClient} without blocking the calling thread. The response
+ * is parsed into the same {@link NbpTableDto} as the {@code RestTemplate} path, and failures are reported
+ * with the same {@link RestClientException} subtypes, so callers can handle both paths alike.
+ */
+@Component
+public class NbpAsyncClient {
+    private final ObjectMapper objectMapper;
+    private final NbpProperties properties;
+    private final HttpClient httpClient;
+
+    public NbpAsyncClient(ObjectMapper objectMapper, NbpProperties properties) {
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(properties.getConnectTimeout())
+                .build();
+    }
+
+    /**
+     * Starts the request and returns at once; the future completes with the first table of the response,
+     * or {@code null} if NBP sent none.
+     */
+    public CompletableFuture<NbpTableDto> fetchTable() {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(properties.getUrl()))
+                .timeout(properties.getReadTimeout())
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .handle((response, ex) -> {
+                    if (ex != null) {
+                        throw toRestClientException(ex);
+                    }
+                    return readTable(response);
+                });
+    }
+
+    private NbpTableDto readTable(HttpResponse<byte[]> response) {
+        HttpStatusCode status = HttpStatusCode.valueOf(response.statusCode());
+        if (status.is4xxClientError()) {
+            throw HttpClientErrorException.create(status, "NBP request failed", null, response.body(), StandardCharsets.UTF_8);
+        }
+        if (status.isError()) {
+            throw HttpServerErrorException.create(status, "NBP request failed", null, response.body(), StandardCharsets.UTF_8);
+        }
+        if (response.body().length == 0) {
+            return null;
+        }
+        try {
+            NbpTableDto[] tables = objectMapper.readValue(response.body(), NbpTableDto[].class);
+            return tables != null && tables.length > 0 ? tables[0] : null;
+        } catch (IOException ex) {
+            throw new RestClientException("Cannot read the NBP table", ex);
+        }
+    }
+
+    private static RestClientException toRestClientException(Throwable ex) {
+        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+        if (cause instanceof IOException io) {
+            return new ResourceAccessException("I/O error on NBP request: " + io.getMessage(), io);
+        }
+        return new RestClientException("NBP request failed", cause);
+    }
+}
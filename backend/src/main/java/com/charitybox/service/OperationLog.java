@@ -0,0 +1,376 @@
+package com.charitybox.service;
+
+import com.charitybox.config.DurabilityProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of every state change, kept in a memory-mapped file so that the in-memory database
+ * can be rebuilt from it on startup. Operations are appended while their transaction still holds its
+ * row locks, so the log order matches the order in which the changes were applied; a caller only
+ * returns once its operation is on disk. Callers waiting at the same time share one {@code force}
+ * of the file (group commit).
+ * <p>
+ * File layout: an 8 byte header (magic, version), then records of {@code [length][crc32c][payload]}.
+ * A zero length marks the end of the log; a record with a bad checksum is treated as a torn write
+ * and ends the log as well. The file is mapped in segments of {@code durability.log-segment-size}, so
+ * positions are {@code long} and the log is not limited to the 2 GB of one mapping. A record never spans
+ * two segments: when it does not fit into the rest of a segment, a length of {@code -1} there says that
+ * the log continues at the start of the next one.
+ */
+@Component
+public class OperationLog {
+    private static final Logger log = LoggerFactory.getLogger(OperationLog.class);
+
+    private static final int MAGIC = 0x43424F4C;
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 8;
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final int NEXT_SEGMENT = -1;
+    private static final byte[] ZEROS = new byte[64 * 1024];
+
+    private final boolean enabled;
+    private final Path file;
+    private final long growSize;
+    private final long segmentSize;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition synced = lock.newCondition();
+    private FileChannel channel;
+    // mapping of segment i starts at i * segmentSize; only the last one is ever extended
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    // end of the last appended record; everything before syncedPosition is on disk
+    private long position;
+    private long syncedPosition;
+    private boolean syncing;
+
+    public OperationLog(DurabilityProperties properties) {
+        this.enabled = properties.isEnabled();
+        this.file = Path.of(properties.getLogFile());
+        this.segmentSize = properties.getLogSegmentSize().toBytes();
+        this.growSize = Math.min(properties.getLogGrowSize().toBytes(), segmentSize);
+        if (segmentSize > Integer.MAX_VALUE || segmentSize < HEADER_SIZE + RECORD_HEADER_SIZE + 4) {
+            throw new IllegalArgumentException("Operation log segment size must be between 20 bytes and 2 GB");
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    void open() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = Math.max(channel.size(), growSize);
+        for (long start = 0; start < size; start += segmentSize) {
+            segments.add(map(segments.size(), Math.min(segmentSize, size - start)));
+        }
+        MappedByteBuffer first = segments.get(0);
+        if (first.getInt(0) == 0) {
+            first.putInt(0, MAGIC);
+            first.putInt(4, VERSION);
+            first.force(0, HEADER_SIZE);
+        } else if (first.getInt(0) != MAGIC || first.getInt(4) != VERSION) {
+            throw new IllegalStateException("Not an operation log of this version: " + file);
+        }
+        position = scan(null);
+        syncedPosition = position;
+        clearTail();
+        log.info("Opened operation log {} with {} bytes of operations", file, position - HEADER_SIZE);
+    }
+
+    /**
+     * Logs an operation of the current transaction. It is appended right away and forced to disk after
+     * the commit; if the transaction rolls back, an abort marker makes replay skip it.
+     */
+    public void record(LoggedOperation operation) {
+        if (!enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Operations can only be logged inside a transaction");
+        }
+        long end = append(operation);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                sync(end);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    sync(append(LoggedOperation.aborted(end)));
+                }
+            }
+        });
+    }
+
+    /**
+     * Logs an operation that runs outside a transaction: it is appended before {@code apply} runs and
+     * marked as aborted if {@code apply} fails.
+     */
+    public void record(LoggedOperation operation, Runnable apply) {
+        if (!enabled) {
+            apply.run();
+            return;
+        }
+        long end = append(operation);
+        try {
+            apply.run();
+        } catch (RuntimeException ex) {
+            sync(append(LoggedOperation.aborted(end)));
+            throw ex;
+        }
+        sync(end);
+    }
+
+    /**
+     * Passes every logged operation that was not aborted to {@code consumer}, in log order.
+     */
+    public void replay(Consumer<LoggedOperation> consumer) {
+        if (!enabled) {
+            return;
+        }
+        Set<Long> aborted = new HashSet<>();
+        scan((end, operation) -> {
+            if (operation.getType() == LoggedOperation.Type.ABORTED) {
+                aborted.add(operation.getId());
+            }
+        });
+        scan((end, operation) -> {
+            if (operation.getType() != LoggedOperation.Type.ABORTED && !aborted.contains(end)) {
+                consumer.accept(operation);
+            }
+        });
+    }
+
+    private long append(LoggedOperation operation) {
+        byte[] payload = encode(operation);
+        int recordSize = RECORD_HEADER_SIZE + payload.length;
+        // keep room for the zero length that terminates the log
+        if ((long) HEADER_SIZE + recordSize + 4 > segmentSize) {
+            throw new IllegalStateException("Operation of " + payload.length + " bytes does not fit into one log segment");
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        lock.lock();
+        try {
+            if (offsetOf(position) + recordSize + 4 > segmentSize) {
+                segments.get(segmentOf(position)).putInt(offsetOf(position), NEXT_SEGMENT);
+                position = (segmentOf(position) + 1) * segmentSize;
+            }
+            MappedByteBuffer segment = ensureCapacity(recordSize);
+            int offset = offsetOf(position);
+            segment.putInt(offset + 4, (int) crc.getValue());
+            segment.put(offset + RECORD_HEADER_SIZE, payload);
+            segment.putInt(offset, payload.length);
+            position += recordSize;
+            return position;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int segmentOf(long logPosition) {
+        return (int) (logPosition / segmentSize);
+    }
+
+    private int offsetOf(long logPosition) {
+        return (int) (logPosition % segmentSize);
+    }
+
+    /**
+     * Returns once everything up to {@code end} is on disk. One waiting caller forces all records appended
+     * so far while the others wait for it, so concurrent operations share a single disk write.
+     */
+    private void sync(long end) {
+        lock.lock();
+        try {
+            while (syncedPosition < end) {
+                if (syncing) {
+                    synced.awaitUninterruptibly();
+                    continue;
+                }
+                syncing = true;
+                long from = syncedPosition;
+                long to = position;
+                List<MappedByteBuffer> targets = List.copyOf(segments);
+                lock.unlock();
+                boolean forced = false;
+                try {
+                    force(targets, from, to);
+                    forced = true;
+                } finally {
+                    lock.lock();
+                    syncing = false;
+                    if (forced) {
+                        syncedPosition = to;
+                    }
+                    synced.signalAll();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void force(List<MappedByteBuffer> targets, long from, long to) {
+        while (from < to) {
+            int index = segmentOf(from);
+            int offset = offsetOf(from);
+            // a segment ended by NEXT_SEGMENT may be mapped only up to that marker
+            long length = Math.min(to - from, targets.get(index).capacity() - offset);
+            if (length > 0) {
+                targets.get(index).force(offset, (int) length);
+            }
+            from = (index + 1) * segmentSize;
+        }
+    }
+
+    /**
+     * Maps or extends the segment at {@link #position} so that a record of {@code recordSize} bytes and the
+     * terminating zero length fit, and returns it.
+     */
+    private MappedByteBuffer ensureCapacity(int recordSize) {
+        int index = segmentOf(position);
+        long needed = (long) offsetOf(position) + recordSize + 4;
+        try {
+            if (index == segments.size()) {
+                segments.add(map(index, Math.min(segmentSize, Math.max(growSize, needed))));
+            } else if (needed > segments.get(index).capacity()) {
+                long capacity = Math.min(segmentSize, Math.max(segments.get(index).capacity() + growSize, needed));
+                segments.set(index, map(index, capacity));
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return segments.get(index);
+    }
+
+    private MappedByteBuffer map(int index, long capacity) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_WRITE, index * segmentSize, capacity);
+    }
+
+    /**
+     * Walks the records from the start of the log and returns the position after the last valid one.
+     */
+    private long scan(RecordVisitor visitor) {
+        long end = HEADER_SIZE;
+        CRC32C crc = new CRC32C();
+        while (segmentOf(end) < segments.size()) {
+            MappedByteBuffer segment = segments.get(segmentOf(end));
+            int offset = offsetOf(end);
+            if (offset + 4 > segment.capacity()) {
+                break;
+            }
+            int length = segment.getInt(offset);
+            if (length == NEXT_SEGMENT) {
+                end = (segmentOf(end) + 1) * segmentSize;
+                continue;
+            }
+            if (length <= 0 || (long) offset + RECORD_HEADER_SIZE + length > segment.capacity()) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            segment.get(offset + RECORD_HEADER_SIZE, payload);
+            crc.reset();
+            crc.update(payload);
+            if ((int) crc.getValue() != segment.getInt(offset + 4)) {
+                log.warn("Operation log {} ends with a torn record at {}; it is ignored", file, end);
+                break;
+            }
+            end += RECORD_HEADER_SIZE + length;
+            if (visitor != null) {
+                visitor.visit(end, decode(payload));
+            }
+        }
+        return end;
+    }
+
+    /**
+     * Zeroes whatever a torn write left after the last valid record, so it can never be read as part of
+     * a record appended later. The tail is compared and cleared in blocks, and only forced if it was dirty.
+     */
+    private void clearTail() {
+        byte[] block = new byte[ZEROS.length];
+        for (int index = segmentOf(position); index < segments.size(); index++) {
+            MappedByteBuffer segment = segments.get(index);
+            int from = index == segmentOf(position) ? offsetOf(position) : 0;
+            int dirtyFrom = -1;
+            for (int offset = from; offset < segment.capacity(); offset += block.length) {
+                int length = Math.min(block.length, segment.capacity() - offset);
+                segment.get(offset, block, 0, length);
+                if (Arrays.mismatch(block, 0, length, ZEROS, 0, length) >= 0) {
+                    segment.put(offset, ZEROS, 0, length);
+                    if (dirtyFrom < 0) dirtyFrom = offset;
+                }
+            }
+            if (dirtyFrom >= 0) {
+                segment.force(dirtyFrom, segment.capacity() - dirtyFrom);
+            }
+        }
+    }
+
+    private static byte[] encode(LoggedOperation operation) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            operation.writeTo(out);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static LoggedOperation decode(byte[] payload) {
+        try {
+            return LoggedOperation.readFrom(new DataInputStream(new ByteArrayInputStream(payload)));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        if (channel != null) {
+            sync(position);
+            channel.close();
+        }
+    }
+
+    private interface RecordVisitor {
+        void visit(long end, LoggedOperation operation);
+    }
+}
@@ -0,0 +1,194 @@
+package com.charitybox.service;
+
+import com.charitybox.model.CollectionBox;
+import com.charitybox.model.Currency;
+import com.charitybox.model.JournalEntryType;
+import com.charitybox.model.MinorUnits;
+import com.charitybox.repository.BoxStatus;
+import com.charitybox.repository.CollectionBoxRepository;
+import com.charitybox.repository.FundraisingEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Rebuilds the in-memory database from the {@link OperationLog} once all beans exist, before the
+ * application takes requests. Boxes and events are inserted with their logged ids and the id sequences
+ * are moved past them afterwards. Runs of deposits are replayed as one summed increment per box, so the
+ * box journal gets one entry per run instead of one per original deposit.
+ * <p>
+ * The {@link FinancialReportView} is loaded afterwards, also when there is no log to replay.
+ */
+@Component
+public class OperationLogReplayer implements SmartInitializingSingleton {
+    private static final Logger log = LoggerFactory.getLogger(OperationLogReplayer.class);
+
+    private static final int OPERATIONS_PER_TRANSACTION = 1000;
+    // Hibernate's default allocation size; a pooled sequence hands out the ids just below its value
+    private static final int ID_ALLOCATION_SIZE = 50;
+
+    private static final String INSERT_EVENT_SQL =
+            "INSERT INTO fundraising_event (id, name, account_currency, account_balance_minor) VALUES (?, ?, ?, ?)";
+    private static final String INSERT_BOX_SQL =
+            "INSERT INTO collection_box (id, fundraising_event_id, is_empty) VALUES (?, NULL, ?)";
+    private static final String INSERT_AMOUNT_SQL =
+            "INSERT INTO collection_box_amounts (collection_box_id, currency, amount_minor) VALUES (?, ?, ?)";
+    private static final String ASSIGN_BOX_SQL =
+            "UPDATE collection_box SET fundraising_event_id = ? WHERE id = ?";
+    private static final String DELETE_AMOUNTS_SQL =
+            "DELETE FROM collection_box_amounts WHERE collection_box_id = ?";
+    private static final String DELETE_BOX_SQL =
+            "DELETE FROM collection_box WHERE id = ?";
+
+    private final OperationLog operationLog;
+    private final CollectionBoxRepository collectionBoxRepository;
+    private final FundraisingEventRepository fundraisingEventRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final FinancialReportView financialReportView;
+
+    // highest ids ever logged, including those of boxes deleted since, so that no id is handed out twice
+    private long maxBoxId;
+    private long maxEventId;
+    // consecutive deposits commute, so they are summed and written as one batch before the next other operation
+    private final Map<Long, Map<Currency, Long>> pendingDeposits = new HashMap<>();
+
+    public OperationLogReplayer(OperationLog operationLog,
+                                CollectionBoxRepository collectionBoxRepository,
+                                FundraisingEventRepository fundraisingEventRepository,
+                                JdbcTemplate jdbcTemplate,
+                                TransactionTemplate transactionTemplate,
+                                FinancialReportView financialReportView) {
+        this.operationLog = operationLog;
+        this.collectionBoxRepository = collectionBoxRepository;
+        this.fundraisingEventRepository = fundraisingEventRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.financialReportView = financialReportView;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (operationLog.isEnabled()) {
+            replay();
+        }
+        financialReportView.load();
+    }
+
+    private void replay() {
+        long start = System.nanoTime();
+        List<LoggedOperation> batch = new ArrayList<>(OPERATIONS_PER_TRANSACTION);
+        int[] replayed = {0};
+        operationLog.replay(operation -> {
+            batch.add(operation);
+            if (batch.size() == OPERATIONS_PER_TRANSACTION) {
+                replayed[0] += applyAll(batch);
+            }
+        });
+        replayed[0] += applyAll(batch);
+        transactionTemplate.executeWithoutResult(status -> {
+            restartSequence(CollectionBox.ID_SEQUENCE, CollectionBox.ID_ALLOCATION_SIZE, maxBoxId);
+            restartSequence("fundraising_event_seq", ID_ALLOCATION_SIZE, maxEventId);
+        });
+        log.info("Replayed {} logged operations in {} ms", replayed[0], (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private int applyAll(List<LoggedOperation> batch) {
+        int size = batch.size();
+        if (size > 0) {
+            transactionTemplate.executeWithoutResult(status -> {
+                batch.forEach(this::apply);
+                writeDeposits();
+            });
+            batch.clear();
+        }
+        return size;
+    }
+
+    void apply(LoggedOperation operation) {
+        if (operation.getType() == LoggedOperation.Type.DEPOSITED) {
+            operation.getAmounts().forEach((boxId, amounts) -> {
+                Map<Currency, Long> pending = pendingDeposits.computeIfAbsent(boxId, id -> new EnumMap<>(Currency.class));
+                amounts.forEach((currency, amount) -> pending.merge(currency, amount, MinorUnits::add));
+            });
+            return;
+        }
+        writeDeposits();
+        switch (operation.getType()) {
+            case EVENT_CREATED -> {
+                jdbcTemplate.update(INSERT_EVENT_SQL, operation.getId(), operation.getName(),
+                        operation.getCurrency().name(), operation.getAmount());
+                maxEventId = Math.max(maxEventId, operation.getId());
+            }
+            case BOX_CREATED -> {
+                maxBoxId = Math.max(maxBoxId, operation.getId());
+                jdbcTemplate.update(INSERT_BOX_SQL, operation.getId(),
+                        operation.getBoxAmounts().values().stream().allMatch(amount -> amount == 0));
+                List<Object[]> rows = new ArrayList<>();
+                operation.getBoxAmounts().forEach((currency, amount) ->
+                        rows.add(new Object[]{operation.getId(), currency.name(), amount}));
+                jdbcTemplate.batchUpdate(INSERT_AMOUNT_SQL, rows);
+            }
+            case BOXES_CREATED -> {
+                maxBoxId = Math.max(maxBoxId, operation.getLastId());
+                collectionBoxRepository.insertEmptyBoxes(operation.getFirstId(), operation.getLastId(), operation.getEventId());
+            }
+            case BOXES_ASSIGNED -> collectionBoxRepository.assignBoxes(operation.getBoxIds(), operation.getEventId());
+            case BOX_ASSIGNED -> jdbcTemplate.update(ASSIGN_BOX_SQL, operation.getEventId(), operation.getId());
+            case BOX_DELETED -> {
+                Map<Currency, Long> amounts = collectionBoxRepository.lockAmounts(operation.getId());
+                collectionBoxRepository.withdrawAmounts(operation.getId(), amounts, JournalEntryType.DISCARD, null);
+                jdbcTemplate.update(DELETE_AMOUNTS_SQL, operation.getId());
+                jdbcTemplate.update(DELETE_BOX_SQL, operation.getId());
+            }
+            case BOX_EMPTIED -> {
+                collectionBoxRepository.withdrawAmounts(operation.getId(), operation.getBoxAmounts(),
+                        JournalEntryType.TRANSFER, operation.getEventId());
+                if (operation.getAmount() != 0) {
+                    fundraisingEventRepository.creditBalance(operation.getEventId(), operation.getAmount());
+                }
+            }
+            case EVENT_SETTLED -> {
+                operation.getAmounts().forEach((boxId, amounts) -> collectionBoxRepository.withdrawAmounts(
+                        boxId, amounts, JournalEntryType.TRANSFER, operation.getEventId()));
+                if (operation.getAmount() != 0) {
+                    fundraisingEventRepository.creditBalance(operation.getEventId(), operation.getAmount());
+                }
+            }
+            case AMOUNTS_REBUILT -> collectionBoxRepository.overwriteAmounts(operation.getId(), operation.getBoxAmounts());
+            case DEPOSITED, ABORTED -> { }
+        }
+    }
+
+    private void writeDeposits() {
+        if (pendingDeposits.isEmpty()) {
+            return;
+        }
+        // write-behind deposits into a box deleted before they were flushed were dropped; drop them again
+        Set<Long> existing = collectionBoxRepository.findStatusByIdIn(pendingDeposits.keySet()).stream()
+                .map(BoxStatus::getId)
+                .collect(Collectors.toSet());
+        pendingDeposits.keySet().retainAll(existing);
+        if (!pendingDeposits.isEmpty()) {
+            collectionBoxRepository.incrementAmounts(pendingDeposits);
+        }
+        pendingDeposits.clear();
+    }
+
+    private void restartSequence(String sequence, int allocationSize, long maxId) {
+        if (maxId > 0) {
+            jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + (maxId + allocationSize));
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.charitybox.service;
+
+import com.charitybox.model.Currency;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Immutable set of exchange rates to PLN taken from a single NBP table.
+ * <p>
+ * All cross rates are computed once when the snapshot is built and stored in a matrix indexed by
+ * {@link Currency#ordinal()}, so a conversion is a single lookup and multiplication.
+ */
+public final class RateSnapshot {
+    private static final Currency[] CURRENCIES = Currency.values();
+
+    private final Map<Currency, BigDecimal> ratesToPLN;
+    private final BigDecimal[][] crossRates;
+    private final LocalDate effectiveDate;
+    private final Instant fetchedAt;
+
+    public RateSnapshot(Map<Currency, BigDecimal> ratesToPLN, Instant fetchedAt) {
+        this(ratesToPLN, null, fetchedAt);
+    }
+
+    public RateSnapshot(Map<Currency, BigDecimal> ratesToPLN, LocalDate effectiveDate, Instant fetchedAt) {
+        Map<Currency, BigDecimal> copy = new EnumMap<>(Currency.class);
+        copy.putAll(ratesToPLN);
+        this.ratesToPLN = Collections.unmodifiableMap(copy);
+        this.crossRates = buildCrossRates(copy);
+        this.effectiveDate = effectiveDate;
+        this.fetchedAt = fetchedAt;
+    }
+
+    private static BigDecimal[][] buildCrossRates(Map<Currency, BigDecimal> ratesToPLN) {
+        BigDecimal[][] matrix = new BigDecimal[CURRENCIES.length][CURRENCIES.length];
+        for (Currency from : CURRENCIES) {
+            matrix[from.ordinal()][from.ordinal()] = BigDecimal.ONE;
+            BigDecimal fromRate = ratesToPLN.get(from);
+            if (fromRate == null) continue;
+            for (Currency to : CURRENCIES) {
+                BigDecimal toRate = ratesToPLN.get(to);
+                if (from != to && toRate != null) {
+                    matrix[from.ordinal()][to.ordinal()] = fromRate.divide(toRate, MathContext.DECIMAL128);
+                }
+            }
+        }
+        return matrix;
+    }
+
+    public BigDecimal rateToPLN(Currency currency) {
+        return ratesToPLN.get(currency);
+    }
+
+    /**
+     * Returns how many units of {@code to} one unit of {@code from} is worth, or {@code null} when
+     * the table has no rate for either currency.
+     */
+    public BigDecimal crossRate(Currency from, Currency to) {
+        return crossRates[from.ordinal()][to.ordinal()];
+    }
+
+    public Map<Currency, BigDecimal> getRatesToPLN() {
+        return ratesToPLN;
+    }
+
+    /**
+     * Effective date of the NBP table the rates come from, or {@code null} when NBP did not report one.
+     */
+    public LocalDate getEffectiveDate() {
+        return effectiveDate;
+    }
+
+    public Instant getFetchedAt() {
+        return fetchedAt;
+    }
+
+    public boolean isExpired(Duration ttl, Instant now) {
+        return !fetchedAt.plus(ttl).isAfter(now);
+    }
+}
@@ -0,0 +1,85 @@
+package com.charitybox.benchmark;
+
+import com.charitybox.config.NbpProperties;
+import com.charitybox.config.NbpStubServer;
+import com.charitybox.config.RestTemplateConfig;
+import com.charitybox.model.Currency;
+import com.charitybox.service.CurrencyConversionService;
+import com.charitybox.service.ExchangeRateHistoryService;
+import com.charitybox.service.NbpAsyncClient;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Conversions that need a fresh NBP table, next to other work of the same request, against the NBP stub
+ * with an artificial latency. The blocking path waits for NBP before the other work starts; the
+ * asynchronous path starts the fetch, does the other work meanwhile and joins at the end.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class AsyncRateFetchBenchmark {
+
+    private static final Duration LATENCY = Duration.ofMillis(100);
+    private static final Duration OTHER_WORK = Duration.ofMillis(100);
+    private static final int OPERATIONS = 30;
+    private static final Map<Currency, Long> AMOUNTS = Map.of(Currency.EUR, 10_000L, Currency.PLN, 500L);
+
+    private static void otherWork() {
+        try {
+            Thread.sleep(OTHER_WORK.toMillis());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void report(String name, LongSupplier operation, long expected) {
+        operation.getAsLong();
+        long start = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            assertEquals(expected, operation.getAsLong());
+        }
+        double millis = (System.nanoTime() - start) / 1e6 / OPERATIONS;
+        System.out.printf("%-22s %6.1f ms/op%n", name, millis);
+    }
+
+    @Test
+    void blockingVersusComposedConversion() {
+        NbpStubServer stubServer = new NbpStubServer(0, LATENCY);
+        stubServer.start();
+        try {
+            NbpProperties properties = new NbpProperties();
+            properties.setUrl(stubServer.tableUrl());
+            // every conversion needs a new table
+            properties.setCacheTtl(Duration.ZERO);
+            CurrencyConversionService service = new CurrencyConversionService(
+                    new RestTemplateConfig().restTemplate(properties),
+                    new NbpAsyncClient(new ObjectMapper(), properties),
+                    properties,
+                    mock(ExchangeRateHistoryService.class));
+            // 100.00 EUR at the stub's 4.2651 plus 5.00 PLN
+            long expected = 43_151L;
+
+            report("blocking:", () -> {
+                long total = service.convertAll(AMOUNTS, Currency.PLN);
+                otherWork();
+                return total;
+            }, expected);
+            report("composed (async):", () -> {
+                CompletableFuture<Long> total = service.convertAllAsync(AMOUNTS, Currency.PLN);
+                otherWork();
+                return total.join();
+            }, expected);
+        } finally {
+            stubServer.stop();
+        }
+    }
+}
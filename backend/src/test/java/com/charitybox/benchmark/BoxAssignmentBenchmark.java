@@ -0,0 +1,79 @@
+package com.charitybox.benchmark;
+
+import com.charitybox.dto.AssignBoxesRequest;
+import com.charitybox.dto.BoxAssignmentDto;
+import com.charitybox.dto.CollectionBoxBatchDto;
+import com.charitybox.dto.FundraisingEventDto;
+import com.charitybox.dto.IdRangeDto;
+import com.charitybox.model.FundraisingEvent;
+import com.charitybox.service.CollectionBoxService;
+import com.charitybox.service.FundraisingEventService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Assigning a crate of boxes with one {@code PUT /api/events/{eventId}/assign-box/{boxId}} per box against
+ * one bulk assignment of an id range. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "nbp.background-refresh=false")
+class BoxAssignmentBenchmark {
+
+    private static final int BOXES = 10_000;
+
+    @Autowired
+    private CollectionBoxService collectionBoxService;
+
+    @Autowired
+    private FundraisingEventService fundraisingEventService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private FundraisingEvent event(String name) {
+        FundraisingEventDto dto = new FundraisingEventDto();
+        dto.setName(name);
+        return fundraisingEventService.createEvent(dto);
+    }
+
+    private AssignBoxesRequest range(IdRangeDto ids) {
+        AssignBoxesRequest request = new AssignBoxesRequest();
+        request.setFirstId(ids.getFirstId());
+        request.setLastId(ids.getLastId());
+        return request;
+    }
+
+    @Test
+    void bulkAssignmentAgainstOneBoxPerRequest() {
+        FundraisingEvent oneByOne = event("Assigned box by box");
+        FundraisingEvent bulk = event("Assigned at once");
+        IdRangeDto singleIds = collectionBoxService.createBoxes(BOXES, null).getIds().get(0);
+        IdRangeDto bulkIds = collectionBoxService.createBoxes(BOXES, null).getIds().get(0);
+        CollectionBoxBatchDto warmUp = collectionBoxService.createBoxes(1_000, null);
+        fundraisingEventService.assignCollectionBoxes(bulk.getId(), range(warmUp.getIds().get(0)));
+
+        long start = System.nanoTime();
+        for (long boxId = singleIds.getFirstId(); boxId <= singleIds.getLastId(); boxId++) {
+            fundraisingEventService.assignCollectionBox(oneByOne.getId(), boxId);
+        }
+        double singleMillis = (System.nanoTime() - start) / 1e6;
+
+        start = System.nanoTime();
+        BoxAssignmentDto assignment = fundraisingEventService.assignCollectionBoxes(bulk.getId(), range(bulkIds));
+        double bulkMillis = (System.nanoTime() - start) / 1e6;
+
+        System.out.printf("assign %d boxes one by one: %8.1f ms%n", BOXES, singleMillis);
+        System.out.printf("assign %d boxes at once:    %8.1f ms%n", BOXES, bulkMillis);
+
+        assertEquals(BOXES, assignment.getAssigned());
+        assertEquals(BOXES, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM collection_box WHERE fundraising_event_id = ?", Long.class, oneByOne.getId()));
+        // assigning the same range again rejects every box
+        assertEquals(BOXES, fundraisingEventService.assignCollectionBoxes(oneByOne.getId(), range(bulkIds)).getRejected().size());
+    }
+}
@@ -0,0 +1,78 @@
+package com.charitybox.benchmark;
+
+import com.charitybox.dto.CollectionBoxDto;
+import com.charitybox.model.CollectionBox;
+import com.charitybox.model.Currency;
+import com.charitybox.repository.CollectionBoxRepository;
+import com.charitybox.service.CollectionBoxService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Listing many boxes by loading every entity against the single projection query behind
+ * {@code GET /api/boxes}, and the cost of one page of {@code GET /api/boxes/page} at the start, middle
+ * and end of the listing. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "nbp.background-refresh=false")
+class BoxListingBenchmark {
+
+    private static final int BOXES = 20_000;
+    private static final int ROUNDS = 20;
+
+    @Autowired
+    private CollectionBoxService collectionBoxService;
+
+    @Autowired
+    private CollectionBoxRepository collectionBoxRepository;
+
+    private List<CollectionBoxDto> listByLoadingEntities() {
+        return collectionBoxRepository.findAll().stream()
+                .map(box -> new CollectionBoxDto(
+                        box.getId(),
+                        box.getFundraisingEvent() != null,
+                        box.getCollectedAmounts().values().stream().allMatch(amount -> amount == 0)))
+                .toList();
+    }
+
+    private static double millisPerListing(Supplier<?> listing) {
+        listing.get();
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            listing.get();
+        }
+        return (System.nanoTime() - start) / 1e6 / ROUNDS;
+    }
+
+    @Test
+    void projectionAgainstEntityLoading() {
+        List<CollectionBox> boxes = new ArrayList<>();
+        for (int i = 0; i < BOXES; i++) {
+            CollectionBox box = new CollectionBox();
+            if (i % 10 == 0) {
+                box.getCollectedAmounts().put(Currency.EUR, 500L);
+            }
+            boxes.add(box);
+        }
+        collectionBoxRepository.saveAll(boxes);
+
+        assertEquals(listByLoadingEntities().size(), collectionBoxService.listBoxes().size());
+        System.out.printf("list %d boxes, loading entities: %8.1f ms%n", BOXES, millisPerListing(this::listByLoadingEntities));
+        System.out.printf("list %d boxes, projection:       %8.1f ms%n", BOXES, millisPerListing(collectionBoxService::listBoxes));
+
+        long firstId = boxes.get(0).getId();
+        for (int position : new int[]{0, BOXES / 2, BOXES - 100}) {
+            long after = firstId + position - 1;
+            System.out.printf("page of 100 after box %6d:      %8.3f ms%n", position,
+                    millisPerListing(() -> collectionBoxService.listBoxes(after, 100, null, false, null)));
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.charitybox.benchmark;
+
+import com.charitybox.dto.FundraisingEventDto;
+import com.charitybox.dto.FundraisingEventReportDto;
+import com.charitybox.model.Currency;
+import com.charitybox.model.FundraisingEvent;
+import com.charitybox.service.FundraisingEventService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The financial report including un-emptied box money, over thousands of events and a million
+ * box-currency rows. Boxes are inserted directly with JDBC to keep the setup short; every box holds the
+ * same amounts, so the expected totals are known. Uses the NBP stub rates. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {"nbp.background-refresh=false", "spring.profiles.active=nbp-stub"})
+class BoxMoneyReportBenchmark {
+
+    private static final int EVENTS = 5_000;
+    private static final int BOXES = 250_000;
+    private static final long FIRST_BOX_ID = 10_000_000L;
+    private static final int ROUNDS = 10;
+
+    @Autowired
+    private FundraisingEventService fundraisingEventService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void reportWithBoxMoneyOverAMillionAmountRows() {
+        List<Long> eventIds = new ArrayList<>();
+        for (int i = 0; i < EVENTS; i++) {
+            FundraisingEventDto dto = new FundraisingEventDto();
+            dto.setName("Event " + i);
+            dto.setAccountCurrency(Currency.values()[i % Currency.values().length].name());
+            FundraisingEvent event = fundraisingEventService.createEvent(dto);
+            eventIds.add(event.getId());
+        }
+        List<Object[]> boxes = new ArrayList<>();
+        List<Object[]> amounts = new ArrayList<>();
+        for (int i = 0; i < BOXES; i++) {
+            long boxId = FIRST_BOX_ID + i;
+            boxes.add(new Object[]{boxId, eventIds.get(i % EVENTS)});
+            for (Currency currency : Currency.values()) {
+                amounts.add(new Object[]{boxId, currency.name(), 100L});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO collection_box (id, fundraising_event_id, is_empty) VALUES (?, ?, FALSE)", boxes);
+        jdbcTemplate.batchUpdate("INSERT INTO collection_box_amounts (collection_box_id, currency, amount_minor) VALUES (?, ?, ?)", amounts);
+
+        List<FundraisingEventReportDto> report = fundraisingEventService.getFinancialReportWithBoxes();
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            report = fundraisingEventService.getFinancialReportWithBoxes();
+        }
+        double millis = (System.nanoTime() - start) / 1e6 / ROUNDS;
+        System.out.printf("report of %d events, %d box-currency rows: %8.1f ms%n", EVENTS, amounts.size(), millis);
+
+        assertEquals(EVENTS, report.size());
+        BigDecimal perEvent = new BigDecimal(BOXES / EVENTS).setScale(2);
+        for (FundraisingEventReportDto event : report) {
+            assertEquals(Currency.values().length, event.getBoxAmounts().size());
+            assertEquals(perEvent, event.getBoxAmounts().get(event.getAccountCurrency()));
+        }
+    }
+}
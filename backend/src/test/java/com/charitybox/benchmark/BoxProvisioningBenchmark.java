@@ -0,0 +1,64 @@
+package com.charitybox.benchmark;
+
+import com.charitybox.dto.CollectionBoxBatchDto;
+import com.charitybox.dto.FundraisingEventDto;
+import com.charitybox.model.CollectionBox;
+import com.charitybox.model.FundraisingEvent;
+import com.charitybox.service.CollectionBoxService;
+import com.charitybox.service.FundraisingEventService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Registering boxes one {@code POST /api/boxes} at a time against one bulk registration of 100k boxes
+ * assigned to an event. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "nbp.background-refresh=false")
+class BoxProvisioningBenchmark {
+
+    private static final int SINGLE_BOXES = 5_000;
+    private static final int BULK_BOXES = 100_000;
+
+    @Autowired
+    private CollectionBoxService collectionBoxService;
+
+    @Autowired
+    private FundraisingEventService fundraisingEventService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void bulkRegistrationAgainstOneBoxPerRequest() {
+        FundraisingEventDto dto = new FundraisingEventDto();
+        dto.setName("Campaign");
+        FundraisingEvent event = fundraisingEventService.createEvent(dto);
+        collectionBoxService.createBoxes(1_000, null);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < SINGLE_BOXES; i++) {
+            collectionBoxService.createBox(new CollectionBox());
+        }
+        double singleMillis = (System.nanoTime() - start) / 1e6;
+
+        start = System.nanoTime();
+        CollectionBoxBatchDto batch = collectionBoxService.createBoxes(BULK_BOXES, event.getId());
+        double bulkMillis = (System.nanoTime() - start) / 1e6;
+
+        System.out.printf("%d boxes one by one: %8.1f ms (%,.0f boxes/s)%n",
+                SINGLE_BOXES, singleMillis, SINGLE_BOXES / singleMillis * 1000);
+        System.out.printf("%d boxes in bulk:   %8.1f ms (%,.0f boxes/s), %d id range(s)%n",
+                BULK_BOXES, bulkMillis, BULK_BOXES / bulkMillis * 1000, batch.getIds().size());
+
+        assertEquals(BULK_BOXES, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM collection_box WHERE fundraising_event_id = ? AND is_empty", Long.class, event.getId()));
+        assertEquals(1_000L + SINGLE_BOXES + BULK_BOXES, jdbcTemplate.queryForObject(
+                "SELECT COUNT(DISTINCT id) FROM collection_box", Long.class));
+    }
+}
@@ -0,0 +1,99 @@
+package com.charitybox.benchmark;
+
+import com.charitybox.config.NbpProperties;
+import com.charitybox.dto.NbpRateDto;
+import com.charitybox.dto.NbpTableDto;
+import com.charitybox.model.Currency;
+import com.charitybox.service.CurrencyConversionService;
+import com.charitybox.service.ExchangeRateHistoryService;
+import com.charitybox.service.NbpAsyncClient;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Per-conversion cost of the previous implementation (rate map built per call, multiply into PLN,
+ * divide by the target rate) against the cached cross-rate matrix. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class CurrencyConversionBenchmark {
+
+    private static final int WARMUP = 200_000;
+    private static final int ITERATIONS = 2_000_000;
+    private static final Currency[] CURRENCIES = Currency.values();
+
+    private final Map<Currency, BigDecimal> nbpRates = Map.of(
+            Currency.PLN, BigDecimal.ONE,
+            Currency.EUR, new BigDecimal("4.2651"),
+            Currency.USD, new BigDecimal("3.9120"),
+            Currency.GBP, new BigDecimal("4.9813"));
+
+    private BigDecimal legacyConvert(BigDecimal amount, Currency from, Currency to) {
+        Map<Currency, BigDecimal> rates = new HashMap<>(nbpRates);
+        if (from == to) return amount;
+        BigDecimal fromRate = rates.getOrDefault(from, null);
+        BigDecimal toRate = rates.getOrDefault(to, null);
+        BigDecimal amountInPLN = amount.multiply(fromRate);
+        return amountInPLN.divide(toRate, 2, RoundingMode.HALF_UP);
+    }
+
+    private CurrencyConversionService matrixService() {
+        RestTemplate restTemplate = mock(RestTemplate.class);
+        NbpTableDto table = new NbpTableDto();
+        table.setRates(nbpRates.entrySet().stream()
+                .filter(entry -> entry.getKey() != Currency.PLN)
+                .map(entry -> {
+                    NbpRateDto rate = new NbpRateDto();
+                    rate.setCode(entry.getKey().name());
+                    rate.setMid(entry.getValue());
+                    return rate;
+                })
+                .toList());
+        when(restTemplate.getForObject(anyString(), eq(NbpTableDto[].class))).thenReturn(new NbpTableDto[]{table});
+        return new CurrencyConversionService(restTemplate, mock(NbpAsyncClient.class), new NbpProperties(), mock(ExchangeRateHistoryService.class));
+    }
+
+    private interface Conversion {
+        BigDecimal apply(BigDecimal amount, Currency from, Currency to);
+    }
+
+    private static double nanosPerOp(Conversion conversion, int iterations) {
+        BigDecimal amount = new BigDecimal("123.45");
+        BigDecimal sink = BigDecimal.ZERO;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            Currency from = CURRENCIES[i & 3];
+            Currency to = CURRENCIES[(i >> 2) & 3];
+            sink = conversion.apply(amount, from, to);
+        }
+        long elapsed = System.nanoTime() - start;
+        if (sink == null) throw new IllegalStateException();
+        return (double) elapsed / iterations;
+    }
+
+    @Test
+    void crossRateMatrixVersusPerCallRateMap() {
+        CurrencyConversionService service = matrixService();
+        assertEquals(legacyConvert(new BigDecimal("123.45"), Currency.EUR, Currency.USD),
+                service.convert(new BigDecimal("123.45"), Currency.EUR, Currency.USD));
+
+        nanosPerOp(this::legacyConvert, WARMUP);
+        nanosPerOp(service::convert, WARMUP);
+        double legacy = nanosPerOp(this::legacyConvert, ITERATIONS);
+        double matrix = nanosPerOp(service::convert, ITERATIONS);
+
+        System.out.printf("convert, per-call rate map + divide: %.1f ns/op%n", legacy);
+        System.out.printf("convert, cross-rate matrix:          %.1f ns/op%n", matrix);
+    }
+}
@@ -0,0 +1,83 @@
+package com.charitybox.benchmark;
+
+import com.charitybox.dto.DepositRequest;
+import com.charitybox.dto.DepositResultDto;
+import com.charitybox.dto.FundraisingEventDto;
+import com.charitybox.model.CollectionBox;
+import com.charitybox.model.FundraisingEvent;
+import com.charitybox.service.CollectionBoxService;
+import com.charitybox.service.FundraisingEventService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Deposits per second through single addMoney calls versus addMoneyBulk, against the in-memory database.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "nbp.background-refresh=false")
+class DepositThroughputBenchmark {
+
+    private static final int BOXES = 200;
+    private static final int DEPOSITS = 20_000;
+    private static final String[] CURRENCIES = {"PLN", "EUR", "USD", "GBP"};
+
+    @Autowired
+    private CollectionBoxService collectionBoxService;
+
+    @Autowired
+    private FundraisingEventService fundraisingEventService;
+
+    private List<Long> assignedBoxes() {
+        FundraisingEventDto dto = new FundraisingEventDto();
+        dto.setName("Benchmark");
+        FundraisingEvent event = fundraisingEventService.createEvent(dto);
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < BOXES; i++) {
+            CollectionBox box = collectionBoxService.createBox(new CollectionBox());
+            fundraisingEventService.assignCollectionBox(event.getId(), box.getId());
+            ids.add(box.getId());
+        }
+        return ids;
+    }
+
+    private static List<DepositRequest> deposits(List<Long> boxIds) {
+        List<DepositRequest> deposits = new ArrayList<>(DEPOSITS);
+        for (int i = 0; i < DEPOSITS; i++) {
+            DepositRequest deposit = new DepositRequest();
+            deposit.setBoxId(boxIds.get(i % boxIds.size()));
+            deposit.setCurrency(CURRENCIES[i % CURRENCIES.length]);
+            deposit.setAmount(new BigDecimal("1.25"));
+            deposits.add(deposit);
+        }
+        return deposits;
+    }
+
+    @Test
+    void singleDepositsVersusBulk() {
+        List<DepositRequest> single = deposits(assignedBoxes());
+        List<DepositRequest> bulk = deposits(assignedBoxes());
+
+        long start = System.nanoTime();
+        for (DepositRequest deposit : single) {
+            collectionBoxService.addMoney(deposit.getBoxId(), deposit.getCurrency(), deposit.getAmount());
+        }
+        double singleSeconds = (System.nanoTime() - start) / 1e9;
+
+        start = System.nanoTime();
+        List<DepositResultDto> results = collectionBoxService.addMoneyBulk(bulk);
+        double bulkSeconds = (System.nanoTime() - start) / 1e9;
+
+        assertTrue(results.stream().allMatch(DepositResultDto::isSuccess));
+        System.out.printf("addMoney, one call per deposit: %,.0f deposits/s%n", DEPOSITS / singleSeconds);
+        System.out.printf("addMoneyBulk, one batch:        %,.0f deposits/s%n", DEPOSITS / bulkSeconds);
+    }
+}
@@ -0,0 +1,127 @@
+package com.charitybox.benchmark;
+
+import com.charitybox.Main;
+import com.charitybox.dto.FundraisingEventDto;
+import com.charitybox.model.CollectionBox;
+import com.charitybox.model.FundraisingEvent;
+import com.charitybox.repository.CollectionBoxRepository;
+import com.charitybox.repository.FundraisingEventRepository;
+import com.charitybox.service.CollectionBoxService;
+import com.charitybox.service.FundraisingEventService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Concurrent deposits, emptyings and a deletion with the operation log enabled, followed by a restart
+ * on a fresh in-memory database: the replayed state must equal the state before the restart. The run
+ * also prints the deposit throughput with every deposit forced to disk.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class DurableRestartBenchmark {
+
+    private static final int THREADS = 16;
+    private static final int DEPOSITS_PER_THREAD = 1_000;
+    private static final int BOXES = 32;
+    private static final BigDecimal AMOUNT = new BigDecimal("0.25");
+
+    @TempDir
+    Path dir;
+
+    private ConfigurableApplicationContext start(String database) {
+        return new SpringApplicationBuilder(Main.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1",
+                        "--nbp.background-refresh=false",
+                        "--durability.enabled=true",
+                        "--durability.log-file=" + dir.resolve("operations.log"));
+    }
+
+    @Test
+    void replayedStateMatchesStateBeforeRestart() throws Exception {
+        Map<Long, Map<?, Long>> boxesBefore;
+        long balanceBefore;
+        Long eventId;
+        try (ConfigurableApplicationContext context = start("before")) {
+            CollectionBoxService collectionBoxService = context.getBean(CollectionBoxService.class);
+            FundraisingEventService fundraisingEventService = context.getBean(FundraisingEventService.class);
+            FundraisingEventDto dto = new FundraisingEventDto();
+            dto.setName("Durable event");
+            dto.setAccountCurrency("PLN");
+            FundraisingEvent event = fundraisingEventService.createEvent(dto);
+            eventId = event.getId();
+            List<Long> boxIds = new ArrayList<>();
+            for (int i = 0; i < BOXES; i++) {
+                CollectionBox box = collectionBoxService.createBox(new CollectionBox());
+                fundraisingEventService.assignCollectionBox(eventId, box.getId());
+                boxIds.add(box.getId());
+            }
+
+            ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+            CountDownLatch go = new CountDownLatch(1);
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                workers.add(executor.submit(() -> {
+                    go.await();
+                    for (int i = 0; i < DEPOSITS_PER_THREAD; i++) {
+                        collectionBoxService.addMoney(boxIds.get((thread + i) % BOXES), "PLN", AMOUNT);
+                        // empty boxes while deposits into them are still running
+                        if (thread == 0 && i % 100 == 0) {
+                            collectionBoxService.emptyBox(boxIds.get(i % BOXES));
+                        }
+                    }
+                    return null;
+                }));
+            }
+            long begin = System.nanoTime();
+            go.countDown();
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+            double seconds = (System.nanoTime() - begin) / 1e9;
+            executor.shutdown();
+            collectionBoxService.deleteBox(boxIds.get(BOXES - 1));
+            System.out.printf("%d threads, operation log enabled: %,.0f deposits/s%n",
+                    THREADS, THREADS * DEPOSITS_PER_THREAD / seconds);
+
+            boxesBefore = amountsOfAllBoxes(context);
+            balanceBefore = context.getBean(FundraisingEventRepository.class).findById(eventId).orElseThrow().getAccountBalance();
+        }
+
+        try (ConfigurableApplicationContext context = start("after")) {
+            assertEquals(boxesBefore, amountsOfAllBoxes(context));
+            assertEquals(balanceBefore, context.getBean(FundraisingEventRepository.class).findById(eventId).orElseThrow().getAccountBalance());
+            assertTrue(balanceBefore > 0);
+
+            CollectionBox box = context.getBean(CollectionBoxService.class).createBox(new CollectionBox());
+            assertTrue(box.getId() > BOXES, "new box id " + box.getId() + " must not reuse a logged one");
+        }
+    }
+
+    private static Map<Long, Map<?, Long>> amountsOfAllBoxes(ConfigurableApplicationContext context) {
+        Map<Long, Map<?, Long>> amounts = new TreeMap<>();
+        for (CollectionBox box : context.getBean(CollectionBoxRepository.class).findAll()) {
+            amounts.put(box.getId(), new TreeMap<>(box.getCollectedAmounts()));
+        }
+        return amounts;
+    }
+}
@@ -0,0 +1,95 @@
+package com.charitybox.benchmark;
+
+import com.charitybox.dto.EventSettlementDto;
+import com.charitybox.dto.FundraisingEventDto;
+import com.charitybox.model.Currency;
+import com.charitybox.model.FundraisingEvent;
+import com.charitybox.repository.FundraisingEventRepository;
+import com.charitybox.service.CollectionBoxService;
+import com.charitybox.service.FundraisingEventService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Emptying all boxes of an event with one settlement against one {@code POST /api/boxes/{id}/empty} per
+ * box. Boxes are inserted directly with JDBC, each holding 10.00 PLN and 1.00 EUR; the NBP stub rates are
+ * used for the conversion. One event is settled first so that the measured settlement runs warm. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {"nbp.background-refresh=false", "spring.profiles.active=nbp-stub"})
+class EventSettlementBenchmark {
+
+    private static final int BOXES = 5_000;
+
+    @Autowired
+    private FundraisingEventService fundraisingEventService;
+
+    @Autowired
+    private CollectionBoxService collectionBoxService;
+
+    @Autowired
+    private FundraisingEventRepository fundraisingEventRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private List<Long> eventWithBoxes(String name, long firstBoxId) {
+        FundraisingEventDto dto = new FundraisingEventDto();
+        dto.setName(name);
+        dto.setAccountCurrency("PLN");
+        FundraisingEvent event = fundraisingEventService.createEvent(dto);
+        List<Long> boxIds = new ArrayList<>();
+        List<Object[]> boxes = new ArrayList<>();
+        List<Object[]> amounts = new ArrayList<>();
+        for (int i = 0; i < BOXES; i++) {
+            long boxId = firstBoxId + i;
+            boxIds.add(boxId);
+            boxes.add(new Object[]{boxId, event.getId()});
+            for (Currency currency : Currency.values()) {
+                long amount = currency == Currency.PLN ? 1_000L : currency == Currency.EUR ? 100L : 0L;
+                amounts.add(new Object[]{boxId, currency.name(), amount});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO collection_box (id, fundraising_event_id, is_empty) VALUES (?, ?, FALSE)", boxes);
+        jdbcTemplate.batchUpdate("INSERT INTO collection_box_amounts (collection_box_id, currency, amount_minor) VALUES (?, ?, ?)", amounts);
+        boxIds.add(0, event.getId());
+        return boxIds;
+    }
+
+    @Test
+    void settlementAgainstEmptyingEveryBox() {
+        List<Long> perBox = eventWithBoxes("Emptied box by box", 10_000_000L);
+        List<Long> warmUp = eventWithBoxes("Settled first", 20_000_000L);
+        List<Long> settled = eventWithBoxes("Settled at once", 30_000_000L);
+
+        long start = System.nanoTime();
+        for (Long boxId : perBox.subList(1, perBox.size())) {
+            collectionBoxService.emptyBox(boxId);
+        }
+        double perBoxMillis = (System.nanoTime() - start) / 1e6;
+
+        fundraisingEventService.settleEvent(warmUp.get(0));
+        start = System.nanoTime();
+        EventSettlementDto settlement = fundraisingEventService.settleEvent(settled.get(0));
+        double settleMillis = (System.nanoTime() - start) / 1e6;
+
+        System.out.printf("empty %d boxes one by one: %8.1f ms%n", BOXES, perBoxMillis);
+        System.out.printf("settle %d boxes at once:   %8.1f ms%n", BOXES, settleMillis);
+
+        assertEquals(BOXES, settlement.getBoxesEmptied());
+        long perBoxBalance = fundraisingEventRepository.findById(perBox.get(0)).orElseThrow().getAccountBalance();
+        long settledBalance = fundraisingEventRepository.findById(settled.get(0)).orElseThrow().getAccountBalance();
+        // one rounding per box against one rounding in total
+        assertEquals(perBoxBalance, settledBalance, BOXES);
+        assertEquals(0L, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM collection_box WHERE fundraising_event_id = ? AND NOT is_empty", Long.class, settled.get(0)));
+    }
+}
@@ -0,0 +1,91 @@
+package com.charitybox.benchmark;
+
+import com.charitybox.service.CollectionBoxService;
+import com.charitybox.service.ExportFormat;
+import com.charitybox.service.ExportService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Exporting a large box inventory: time to the first exported row and in total, against building the
+ * full list behind {@code GET /api/boxes}. Boxes are inserted directly with JDBC to keep the setup short.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "nbp.background-refresh=false")
+class ExportBenchmark {
+
+    private static final int BOXES = 500_000;
+    private static final long FIRST_BOX_ID = 10_000_000L;
+    private static final String HEADER = "id,assigned,empty\n";
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private CollectionBoxService collectionBoxService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Counts exported lines and remembers when the first one after the header arrived.
+     */
+    private static final class TimingOutputStream extends OutputStream {
+        private final long start = System.nanoTime();
+        private long bytes;
+        private long lines;
+        private long firstRowNanos = -1;
+
+        @Override
+        public void write(int b) {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+            if (firstRowNanos < 0 && bytes > HEADER.length()) {
+                firstRowNanos = System.nanoTime() - start;
+            }
+            for (int i = off; i < off + len; i++) {
+                if (b[i] == '\n') lines++;
+            }
+        }
+    }
+
+    @Test
+    void streamedExportAgainstBuildingTheList() throws Exception {
+        List<Object[]> boxes = new ArrayList<>();
+        for (int i = 0; i < BOXES; i++) {
+            boxes.add(new Object[]{FIRST_BOX_ID + i});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO collection_box (id, fundraising_event_id, is_empty) VALUES (?, NULL, TRUE)", boxes);
+        boxes = null;
+
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            int listed = collectionBoxService.listBoxes().size();
+            double listMillis = (System.nanoTime() - start) / 1e6;
+
+            TimingOutputStream output = new TimingOutputStream();
+            start = System.nanoTime();
+            exportService.exportBoxes(ExportFormat.CSV, output);
+            double exportMillis = (System.nanoTime() - start) / 1e6;
+
+            assertEquals(BOXES, listed);
+            assertEquals(BOXES + 1, output.lines);
+            System.out.printf("%d boxes: list built in %8.1f ms; export first row after %8.1f ms, done in %8.1f ms%n",
+                    BOXES, listMillis, output.firstRowNanos / 1e6, exportMillis);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.charitybox.benchmark;
+
+import com.charitybox.dto.FundraisingEventDto;
+import com.charitybox.dto.FundraisingEventReportDto;
+import com.charitybox.model.CollectionBox;
+import com.charitybox.model.FundraisingEvent;
+import com.charitybox.model.MinorUnits;
+import com.charitybox.repository.FundraisingEventRepository;
+import com.charitybox.service.CollectionBoxService;
+import com.charitybox.service.FundraisingEventService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Polling {@code GET /api/events/financial-report} with many events: the report built from every loaded
+ * event against the read-model, both while nothing changes and right after a box was emptied.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "nbp.background-refresh=false")
+class FinancialReportBenchmark {
+
+    private static final int EVENTS = 10_000;
+    private static final int ROUNDS = 20;
+
+    @Autowired
+    private FundraisingEventService fundraisingEventService;
+
+    @Autowired
+    private CollectionBoxService collectionBoxService;
+
+    @Autowired
+    private FundraisingEventRepository fundraisingEventRepository;
+
+    private List<FundraisingEventReportDto> reportByLoadingEvents() {
+        return fundraisingEventRepository.findAll().stream()
+                .map(event -> new FundraisingEventReportDto(
+                        event.getName(), MinorUnits.toDecimal(event.getAccountBalance()), event.getAccountCurrency()))
+                .toList();
+    }
+
+    private static double millisPerReport(Supplier<?> report) {
+        report.get();
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            report.get();
+        }
+        return (System.nanoTime() - start) / 1e6 / ROUNDS;
+    }
+
+    @Test
+    void readModelAgainstLoadingEvents() {
+        List<FundraisingEvent> events = new ArrayList<>();
+        for (int i = 0; i < EVENTS; i++) {
+            FundraisingEventDto dto = new FundraisingEventDto();
+            dto.setName("Event " + i);
+            dto.setAccountCurrency("PLN");
+            events.add(fundraisingEventService.createEvent(dto));
+        }
+        CollectionBox box = collectionBoxService.createBox(new CollectionBox());
+        Long eventId = events.get(EVENTS / 2).getId();
+        fundraisingEventService.assignCollectionBox(eventId, box.getId());
+
+        System.out.printf("report of %d events, loading events: %8.3f ms%n", EVENTS, millisPerReport(this::reportByLoadingEvents));
+        System.out.printf("report of %d events, read-model:     %8.3f ms%n", EVENTS,
+                millisPerReport(fundraisingEventService::getFinancialReport));
+        System.out.printf("report of %d events, after a credit: %8.3f ms%n", EVENTS, millisPerReport(() -> {
+            collectionBoxService.addMoney(box.getId(), "PLN", new BigDecimal("1.00"));
+            collectionBoxService.emptyBox(box.getId());
+            return fundraisingEventService.getFinancialReport();
+        }));
+
+        List<FundraisingEventReportDto> expected = reportByLoadingEvents();
+        List<FundraisingEventReportDto> actual = fundraisingEventService.getFinancialReport();
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getName(), actual.get(i).getName());
+            assertEquals(expected.get(i).getAccountBalance(), actual.get(i).getAccountBalance());
+        }
+    }
+}
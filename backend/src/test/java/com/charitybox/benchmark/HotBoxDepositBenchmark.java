@@ -0,0 +1,100 @@
+package com.charitybox.benchmark;
+
+import com.charitybox.dto.FundraisingEventDto;
+import com.charitybox.model.CollectionBox;
+import com.charitybox.model.Currency;
+import com.charitybox.model.FundraisingEvent;
+import com.charitybox.model.MinorUnits;
+import com.charitybox.repository.CollectionBoxRepository;
+import com.charitybox.service.CollectionBoxService;
+import com.charitybox.service.DepositAccumulator;
+import com.charitybox.service.FundraisingEventService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Many threads depositing into the same few boxes at once. Every deposit must be reflected in the
+ * final amounts; the run also prints the throughput reached under that contention.
+ * {@link WriteBehindHotBoxDepositBenchmark} repeats it with write-behind deposits.
+ * The default build checks the exact totals on a smaller scale in {@code CollectionBoxRepositoryTest}.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "nbp.background-refresh=false")
+class HotBoxDepositBenchmark {
+
+    private static final int THREADS = 16;
+    private static final int DEPOSITS_PER_THREAD = 2_000;
+    private static final int HOT_BOXES = 2;
+    private static final BigDecimal AMOUNT = new BigDecimal("0.01");
+
+    @Autowired
+    private CollectionBoxService collectionBoxService;
+
+    @Autowired
+    private FundraisingEventService fundraisingEventService;
+
+    @Autowired
+    private CollectionBoxRepository collectionBoxRepository;
+
+    @Autowired
+    private DepositAccumulator depositAccumulator;
+
+    @Test
+    void concurrentDepositsIntoHotBoxesAreNotLost() throws Exception {
+        FundraisingEventDto dto = new FundraisingEventDto();
+        dto.setName("Hot boxes");
+        FundraisingEvent event = fundraisingEventService.createEvent(dto);
+        List<Long> boxIds = new ArrayList<>();
+        for (int i = 0; i < HOT_BOXES; i++) {
+            CollectionBox box = collectionBoxService.createBox(new CollectionBox());
+            fundraisingEventService.assignCollectionBox(event.getId(), box.getId());
+            boxIds.add(box.getId());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            Long boxId = boxIds.get(t % HOT_BOXES);
+            workers.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < DEPOSITS_PER_THREAD; i++) {
+                    collectionBoxService.addMoney(boxId, "PLN", AMOUNT);
+                }
+                return null;
+            }));
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        double seconds = (System.nanoTime() - begin) / 1e9;
+        executor.shutdown();
+        depositAccumulator.flushAll();
+
+        int deposits = THREADS * DEPOSITS_PER_THREAD;
+        System.out.printf("%d threads, %d hot boxes, write-behind %s: %,.0f deposits/s%n",
+                THREADS, HOT_BOXES, depositAccumulator.isEnabled(), deposits / seconds);
+
+        long expectedPerBox = MinorUnits.of(AMOUNT) * deposits / HOT_BOXES;
+        for (Long boxId : boxIds) {
+            long collected = collectionBoxRepository.findById(boxId).orElseThrow()
+                    .getCollectedAmounts().get(Currency.PLN);
+            assertEquals(expectedPerBox, collected, "box " + boxId);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.charitybox.benchmark;
+
+import com.charitybox.model.Currency;
+import com.charitybox.model.MinorUnits;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Time and heap allocation of the hot money operations with {@link BigDecimal} amounts against
+ * {@code long} minor units: summing deposits of one box and the emptiness check run for every box in
+ * the listing. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class MoneyRepresentationBenchmark {
+
+    private static final int DEPOSITS = 1_000_000;
+    private static final int BOXES = 10_000;
+    private static final int ROUNDS = 20;
+    private static final Currency[] CURRENCIES = Currency.values();
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private final BigDecimal[] decimalDeposits = new BigDecimal[DEPOSITS];
+    private final long[] minorDeposits = new long[DEPOSITS];
+    private final List<Map<Currency, BigDecimal>> decimalBoxes = new ArrayList<>();
+    private final List<Map<Currency, Long>> minorBoxes = new ArrayList<>();
+
+    MoneyRepresentationBenchmark() {
+        for (int i = 0; i < DEPOSITS; i++) {
+            decimalDeposits[i] = BigDecimal.valueOf(100 + i % 9_900, 2);
+            minorDeposits[i] = MinorUnits.of(decimalDeposits[i]);
+        }
+        for (int i = 0; i < BOXES; i++) {
+            Map<Currency, BigDecimal> decimal = new EnumMap<>(Currency.class);
+            Map<Currency, Long> minor = new EnumMap<>(Currency.class);
+            for (Currency currency : CURRENCIES) {
+                // most boxes are empty, the rest hold money in their last currency only
+                long amount = i % 4 == 0 && currency == CURRENCIES[CURRENCIES.length - 1] ? 1_250 : 0;
+                decimal.put(currency, BigDecimal.valueOf(amount, 2));
+                minor.put(currency, amount);
+            }
+            decimalBoxes.add(decimal);
+            minorBoxes.add(minor);
+        }
+    }
+
+    private long sumDecimal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (BigDecimal deposit : decimalDeposits) {
+            total = total.add(deposit);
+        }
+        return MinorUnits.of(total);
+    }
+
+    private long sumMinor() {
+        long total = 0;
+        for (long deposit : minorDeposits) {
+            total = MinorUnits.add(total, deposit);
+        }
+        return total;
+    }
+
+    private long countEmptyDecimal() {
+        long empty = 0;
+        for (Map<Currency, BigDecimal> box : decimalBoxes) {
+            if (box.values().stream().allMatch(amount -> amount.compareTo(BigDecimal.ZERO) == 0)) empty++;
+        }
+        return empty;
+    }
+
+    private long countEmptyMinor() {
+        long empty = 0;
+        for (Map<Currency, Long> box : minorBoxes) {
+            if (box.values().stream().allMatch(amount -> amount == 0)) empty++;
+        }
+        return empty;
+    }
+
+    private static void report(String name, LongSupplier operation, int operationsPerRound) {
+        for (int i = 0; i < ROUNDS; i++) operation.getAsLong();
+        long allocatedBefore = THREADS.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) operation.getAsLong();
+        long elapsed = System.nanoTime() - start;
+        long allocated = THREADS.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        long operations = (long) ROUNDS * operationsPerRound;
+        System.out.printf("%-28s %7.2f ns/op %8.2f B/op%n", name, (double) elapsed / operations, (double) allocated / operations);
+    }
+
+    @Test
+    void bigDecimalVersusMinorUnits() {
+        assertEquals(sumDecimal(), sumMinor());
+        assertEquals(countEmptyDecimal(), countEmptyMinor());
+
+        report("sum deposits, BigDecimal:", this::sumDecimal, DEPOSITS);
+        report("sum deposits, minor units:", this::sumMinor, DEPOSITS);
+        report("emptiness check, BigDecimal:", this::countEmptyDecimal, BOXES);
+        report("emptiness check, minor units:", this::countEmptyMinor, BOXES);
+    }
+}
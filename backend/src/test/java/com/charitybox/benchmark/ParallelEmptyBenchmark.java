@@ -0,0 +1,78 @@
+package com.charitybox.benchmark;
+
+import com.charitybox.dto.FundraisingEventDto;
+import com.charitybox.model.CollectionBox;
+import com.charitybox.model.FundraisingEvent;
+import com.charitybox.model.MinorUnits;
+import com.charitybox.repository.FundraisingEventRepository;
+import com.charitybox.service.CollectionBoxService;
+import com.charitybox.service.FundraisingEventService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Many boxes of one event emptied in parallel. The event balance must end up with every credit;
+ * the run also prints how many boxes per second were emptied.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "nbp.background-refresh=false")
+class ParallelEmptyBenchmark {
+
+    private static final int THREADS = 16;
+    private static final int BOXES = 2_000;
+    private static final BigDecimal AMOUNT = new BigDecimal("10.00");
+
+    @Autowired
+    private CollectionBoxService collectionBoxService;
+
+    @Autowired
+    private FundraisingEventService fundraisingEventService;
+
+    @Autowired
+    private FundraisingEventRepository fundraisingEventRepository;
+
+    @Test
+    void boxesOfOneEventEmptiedInParallelCreditEverything() throws Exception {
+        FundraisingEventDto dto = new FundraisingEventDto();
+        dto.setName("Popular event");
+        dto.setAccountCurrency("PLN");
+        dto.setAccountBalance(BigDecimal.ZERO);
+        FundraisingEvent event = fundraisingEventService.createEvent(dto);
+        List<Long> boxIds = new ArrayList<>();
+        for (int i = 0; i < BOXES; i++) {
+            CollectionBox box = collectionBoxService.createBox(new CollectionBox());
+            fundraisingEventService.assignCollectionBox(event.getId(), box.getId());
+            collectionBoxService.addMoney(box.getId(), "PLN", AMOUNT);
+            boxIds.add(box.getId());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        long begin = System.nanoTime();
+        List<Future<?>> emptyings = new ArrayList<>();
+        for (Long boxId : boxIds) {
+            emptyings.add(executor.submit(() -> collectionBoxService.emptyBox(boxId)));
+        }
+        for (Future<?> emptying : emptyings) {
+            emptying.get();
+        }
+        double seconds = (System.nanoTime() - begin) / 1e9;
+        executor.shutdown();
+
+        System.out.printf("%d threads emptying %d boxes of one event: %,.0f boxes/s%n", THREADS, BOXES, BOXES / seconds);
+
+        long balance = fundraisingEventRepository.findById(event.getId()).orElseThrow().getAccountBalance();
+        assertEquals(MinorUnits.of(AMOUNT) * BOXES, balance);
+    }
+}
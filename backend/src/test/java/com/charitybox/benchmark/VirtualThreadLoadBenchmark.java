@@ -0,0 +1,137 @@
+package com.charitybox.benchmark;
+
+import com.charitybox.Main;
+import com.charitybox.dto.FundraisingEventDto;
+import com.charitybox.dto.IdRangeDto;
+import com.charitybox.model.FundraisingEvent;
+import com.charitybox.model.MinorUnits;
+import com.charitybox.repository.FundraisingEventRepository;
+import com.charitybox.service.CollectionBoxService;
+import com.charitybox.service.FundraisingEventService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.LongFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The application under high concurrency, once on Tomcat's platform threads and once on virtual threads.
+ * Each run sends {@value #REQUESTS} requests over HTTP with {@value #CONCURRENCY} in flight at a time:
+ * deposits, which only block on JDBC, and box emptyings that also wait for the NBP stub, which answers
+ * after 100 ms and whose rates are never cached in this benchmark. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class VirtualThreadLoadBenchmark {
+
+    private static final int REQUESTS = 4_000;
+    private static final int CONCURRENCY = 1_000;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static ConfigurableApplicationContext start(boolean virtualThreads) throws IOException {
+        return new SpringApplicationBuilder(Main.class)
+                .profiles("nbp-stub")
+                .run("--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:load-" + virtualThreads + ";DB_CLOSE_DELAY=-1",
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--nbp.background-refresh=false",
+                        "--nbp.cache-ttl=PT0S",
+                        "--nbp.stub.port=" + freePort(),
+                        "--nbp.stub.latency=PT0.1S");
+    }
+
+    /**
+     * Sends one request per box and prints throughput and latency percentiles; returns the number of
+     * responses that were not 2xx.
+     */
+    private int load(String name, IdRangeDto boxes, LongFunction<HttpRequest> request) throws Exception {
+        long[] latencies = new long[REQUESTS];
+        Semaphore inFlight = new Semaphore(CONCURRENCY);
+        List<Future<Integer>> responses = new ArrayList<>(REQUESTS);
+        long begin = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < REQUESTS; i++) {
+                int index = i;
+                HttpRequest httpRequest = request.apply(boxes.getFirstId() + i);
+                inFlight.acquire();
+                responses.add(executor.submit(() -> {
+                    try {
+                        long start = System.nanoTime();
+                        int status = client.send(httpRequest, HttpResponse.BodyHandlers.discarding()).statusCode();
+                        latencies[index] = System.nanoTime() - start;
+                        return status;
+                    } finally {
+                        inFlight.release();
+                    }
+                }));
+            }
+        }
+        double seconds = (System.nanoTime() - begin) / 1e9;
+        int failed = 0;
+        for (Future<Integer> response : responses) {
+            if (response.get() / 100 != 2) {
+                failed++;
+            }
+        }
+        Arrays.sort(latencies);
+        System.out.printf("%-28s %,7.0f req/s  p50 %6.0f ms  p99 %6.0f ms  failed %d%n", name, REQUESTS / seconds,
+                latencies[REQUESTS / 2] / 1e6, latencies[REQUESTS * 99 / 100] / 1e6, failed);
+        return failed;
+    }
+
+    private void run(boolean virtualThreads) throws Exception {
+        try (ConfigurableApplicationContext context = start(virtualThreads)) {
+            String base = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+            FundraisingEventDto dto = new FundraisingEventDto();
+            dto.setName("Load test");
+            FundraisingEvent event = context.getBean(FundraisingEventService.class).createEvent(dto);
+            IdRangeDto boxes = context.getBean(CollectionBoxService.class).createBoxes(REQUESTS, event.getId()).getIds().get(0);
+            String mode = virtualThreads ? "virtual" : "platform";
+
+            int failed = load(mode + ", deposits:", boxes, boxId -> HttpRequest.newBuilder(URI.create(base + "/api/boxes/" + boxId + "/add-money"))
+                    .header("Content-Type", "application/json")
+                    .PUT(HttpRequest.BodyPublishers.ofString("{\"currency\":\"EUR\",\"amount\":1.00}"))
+                    .build());
+            failed += load(mode + ", empty boxes (NBP):", boxes, boxId -> HttpRequest.newBuilder(URI.create(base + "/api/boxes/" + boxId + "/empty"))
+                    .POST(HttpRequest.BodyPublishers.noBody())
+                    .build());
+
+            assertEquals(0, failed);
+            long balance = context.getBean(FundraisingEventRepository.class).findById(event.getId()).orElseThrow().getAccountBalance();
+            // 1.00 EUR at the stub rate of 4.2651 PLN, rounded per box
+            assertEquals(MinorUnits.of(new BigDecimal("4.27")) * REQUESTS, balance);
+        }
+    }
+
+    @Test
+    void platformAgainstVirtualThreads() throws Exception {
+        run(false);
+        run(true);
+    }
+}
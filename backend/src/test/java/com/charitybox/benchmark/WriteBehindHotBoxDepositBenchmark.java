@@ -0,0 +1,13 @@
+package com.charitybox.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * {@link HotBoxDepositBenchmark} with deposits collected in memory and flushed in batches.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {"nbp.background-refresh=false", "deposits.write-behind=true"})
+class WriteBehindHotBoxDepositBenchmark extends HotBoxDepositBenchmark {
+}
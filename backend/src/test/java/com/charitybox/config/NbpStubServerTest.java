@@ -0,0 +1,57 @@
+package com.charitybox.config;
+
+import com.charitybox.dto.NbpTableDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NbpStubServerTest {
+
+    private NbpStubServer stubServer;
+
+    @BeforeEach
+    void setUp() {
+        stubServer = new NbpStubServer(0, Duration.ofMillis(300));
+        stubServer.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        stubServer.stop();
+    }
+
+    @Test
+    void pooledRestTemplate_shouldReadTableFromStub() {
+        // Arrange
+        RestTemplate restTemplate = new RestTemplateConfig().restTemplate(new NbpProperties());
+
+        // Act
+        NbpTableDto[] tables = restTemplate.getForObject(stubServer.tableUrl(), NbpTableDto[].class);
+
+        // Assert
+        assertNotNull(tables);
+        assertEquals(LocalDate.now().toString(), tables[0].getEffectiveDate());
+        assertEquals("EUR", tables[0].getRates().get(1).getCode());
+        assertEquals(new BigDecimal("4.2651"), tables[0].getRates().get(1).getMid());
+    }
+
+    @Test
+    void pooledRestTemplate_shouldGiveUpAfterReadTimeout() {
+        // Arrange
+        NbpProperties properties = new NbpProperties();
+        properties.setReadTimeout(Duration.ofMillis(50));
+        RestTemplate restTemplate = new RestTemplateConfig().restTemplate(properties);
+
+        // Act & Assert
+        assertThrows(ResourceAccessException.class, () ->
+                restTemplate.getForObject(stubServer.tableUrl(), NbpTableDto[].class));
+    }
+}
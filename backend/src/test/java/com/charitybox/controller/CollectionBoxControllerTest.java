@@ -1,10 +1,21 @@
 package com.charitybox.controller;
 
 import com.charitybox.dto.AddMoneyRequest;
+import com.charitybox.dto.BoxJournalEntryDto;
+import com.charitybox.dto.CollectionBoxBatchDto;
 import com.charitybox.dto.CollectionBoxDto;
+import com.charitybox.dto.CollectionBoxPageDto;
+import com.charitybox.dto.DepositRequest;
+import com.charitybox.dto.DepositResultDto;
+import com.charitybox.dto.IdRangeDto;
 import com.charitybox.model.CollectionBox;
 import com.charitybox.model.Currency;
+import com.charitybox.model.JournalEntryType;
+import com.charitybox.service.BoxJournalService;
 import com.charitybox.service.CollectionBoxService;
+import com.charitybox.service.DepositIngestionService;
+import com.charitybox.service.ExportFormat;
+import com.charitybox.service.ExportService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -13,8 +24,12 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.*;
@@ -30,6 +45,15 @@ class CollectionBoxControllerTest {
     @MockBean
     private CollectionBoxService collectionBoxService;
 
+    @MockBean
+    private DepositIngestionService depositIngestionService;
+
+    @MockBean
+    private BoxJournalService boxJournalService;
+
+    @MockBean
+    private ExportService exportService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -45,6 +69,20 @@ class CollectionBoxControllerTest {
                 .andExpect(jsonPath("$.id").value(123));
     }
 
+    @Test
+    void createBoxes_shouldReturnIdRanges() throws Exception {
+        Mockito.when(collectionBoxService.createBoxes(100, 5L)).thenReturn(
+                new CollectionBoxBatchDto(100, 5L, List.of(new IdRangeDto(51L, 150L))));
+
+        mockMvc.perform(post("/api/boxes/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"count\":100,\"eventId\":5}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.count").value(100))
+                .andExpect(jsonPath("$.ids[0].firstId").value(51))
+                .andExpect(jsonPath("$.ids[0].lastId").value(150));
+    }
+
     @Test
     void listBoxes_shouldReturnList() throws Exception {
         CollectionBoxDto dto = new CollectionBoxDto(1L, true, true);
@@ -92,10 +130,105 @@ class CollectionBoxControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    void addMoneyBulk_shouldReturnResultPerDeposit() throws Exception {
+        DepositRequest deposit = new DepositRequest();
+        deposit.setBoxId(1L);
+        deposit.setCurrency("PLN");
+        deposit.setAmount(new BigDecimal("10"));
+        Mockito.when(collectionBoxService.addMoneyBulk(anyList())).thenReturn(List.of(
+                DepositResultDto.succeeded(0, 1L),
+                DepositResultDto.failed(1, 1L, "Unsupported currency: XXX")));
+
+        mockMvc.perform(post("/api/boxes/deposits")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(deposit, deposit))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].success").value(true))
+                .andExpect(jsonPath("$[1].success").value(false))
+                .andExpect(jsonPath("$[1].error").value("Unsupported currency: XXX"));
+    }
+
+    @Test
+    void streamDeposits_shouldStreamProgressLines() throws Exception {
+        Mockito.doAnswer(invocation -> {
+            OutputStream output = invocation.getArgument(1);
+            output.write("{\"processed\":1,\"done\":true}\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(depositIngestionService).ingest(any(), any());
+
+        MvcResult result = mockMvc.perform(post("/api/boxes/deposits/stream")
+                        .contentType("application/x-ndjson")
+                        .content("{\"boxId\":1,\"currency\":\"PLN\",\"amount\":10}\n"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(content().string("{\"processed\":1,\"done\":true}\n"));
+    }
+
+    @Test
+    void exportBoxes_shouldStreamNdjsonAttachment() throws Exception {
+        Mockito.doAnswer(invocation -> {
+            OutputStream output = invocation.getArgument(1);
+            output.write("{\"id\":1,\"assigned\":false,\"empty\":true}\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(exportService).exportBoxes(eq(ExportFormat.NDJSON), any());
+
+        MvcResult result = mockMvc.perform(get("/api/boxes/export").param("format", "ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=boxes.ndjson"))
+                .andExpect(content().string("{\"id\":1,\"assigned\":false,\"empty\":true}\n"));
+    }
+
     @Test
     void emptyBox_shouldReturnNoContent() throws Exception {
         mockMvc.perform(post("/api/boxes/1/empty"))
                 .andExpect(status().isNoContent());
         Mockito.verify(collectionBoxService).emptyBox(1L);
     }
-}
\ No newline at end of file
+
+    @Test
+    void getJournal_shouldReturnEntries() throws Exception {
+        Mockito.when(boxJournalService.getJournal(1L)).thenReturn(List.of(
+                new BoxJournalEntryDto(3L, JournalEntryType.DEPOSIT, null, Currency.PLN, new BigDecimal("12.50"), Instant.EPOCH),
+                new BoxJournalEntryDto(4L, JournalEntryType.TRANSFER, 7L, Currency.PLN, new BigDecimal("-12.50"), Instant.EPOCH)));
+
+        mockMvc.perform(get("/api/boxes/1/journal"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].type").value("DEPOSIT"))
+                .andExpect(jsonPath("$[0].amount").value(12.50))
+                .andExpect(jsonPath("$[1].type").value("TRANSFER"))
+                .andExpect(jsonPath("$[1].eventId").value(7));
+    }
+
+    @Test
+    void rebuildAmounts_shouldReturnNoContent() throws Exception {
+        mockMvc.perform(post("/api/boxes/1/rebuild"))
+                .andExpect(status().isNoContent());
+        Mockito.verify(boxJournalService).rebuild(1L);
+    }
+
+    @Test
+    void listBoxesPage_shouldPassFiltersAndReturnCursor() throws Exception {
+        Mockito.when(collectionBoxService.listBoxes(5L, 2, true, false, null)).thenReturn(new CollectionBoxPageDto(
+                List.of(new CollectionBoxDto(6L, true, false), new CollectionBoxDto(9L, true, false)), 9L));
+
+        mockMvc.perform(get("/api/boxes/page")
+                        .param("after", "5")
+                        .param("size", "2")
+                        .param("assigned", "true")
+                        .param("empty", "false"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.boxes.length()").value(2))
+                .andExpect(jsonPath("$.boxes[1].id").value(9))
+                .andExpect(jsonPath("$.nextCursor").value(9));
+    }
+}
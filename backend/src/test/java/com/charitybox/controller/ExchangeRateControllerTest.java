@@ -0,0 +1,68 @@
+package com.charitybox.controller;
+
+import com.charitybox.dto.ExchangeRateSnapshotDto;
+import com.charitybox.dto.RateCacheStatsDto;
+import com.charitybox.model.Currency;
+import com.charitybox.service.CurrencyConversionService;
+import com.charitybox.service.ExchangeRateHistoryService;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ExchangeRateController.class)
+class ExchangeRateControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private CurrencyConversionService currencyConversionService;
+
+    @MockBean
+    private ExchangeRateHistoryService exchangeRateHistoryService;
+
+    @Test
+    void getCacheStats_shouldReturnStats() throws Exception {
+        Mockito.when(currencyConversionService.getCacheStats())
+                .thenReturn(new RateCacheStatsDto(5, 1, 2, 0, null));
+
+        mockMvc.perform(get("/api/rates/cache-stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hits").value(5))
+                .andExpect(jsonPath("$.misses").value(1))
+                .andExpect(jsonPath("$.refreshes").value(2));
+    }
+
+    @Test
+    void getApplicableRates_shouldReturnStoredTable() throws Exception {
+        Mockito.when(exchangeRateHistoryService.getApplicable(LocalDate.of(2024, 5, 12)))
+                .thenReturn(new ExchangeRateSnapshotDto(LocalDate.of(2024, 5, 10), "090/A/NBP/2024",
+                        Map.of(Currency.EUR, new BigDecimal("4.30"))));
+
+        mockMvc.perform(get("/api/rates/history/2024-05-12"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.effectiveDate").value("2024-05-10"))
+                .andExpect(jsonPath("$.tableNo").value("090/A/NBP/2024"))
+                .andExpect(jsonPath("$.ratesToPLN.EUR").value(4.30));
+    }
+
+    @Test
+    void getApplicableRates_shouldReturnNotFoundWhenNothingStored() throws Exception {
+        Mockito.when(exchangeRateHistoryService.getApplicable(LocalDate.of(2020, 1, 1)))
+                .thenThrow(new EntityNotFoundException("No exchange rates stored for: 2020-01-01"));
+
+        mockMvc.perform(get("/api/rates/history/2020-01-01"))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -1,9 +1,15 @@
 package com.charitybox.controller;
 
+import com.charitybox.dto.AssignBoxesRequest;
+import com.charitybox.dto.BoxAssignmentDto;
+import com.charitybox.dto.BoxRejectionDto;
+import com.charitybox.dto.EventSettlementDto;
 import com.charitybox.dto.FundraisingEventDto;
 import com.charitybox.dto.FundraisingEventReportDto;
 import com.charitybox.model.Currency;
 import com.charitybox.model.FundraisingEvent;
+import com.charitybox.service.ExportFormat;
+import com.charitybox.service.ExportService;
 import com.charitybox.service.FundraisingEventService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
@@ -13,9 +19,14 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.OutputStream;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -30,6 +41,9 @@ class FundraisingEventControllerTest {
     @MockBean
     private FundraisingEventService fundraisingEventService;
 
+    @MockBean
+    private ExportService exportService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -58,6 +72,34 @@ class FundraisingEventControllerTest {
         Mockito.verify(fundraisingEventService).assignCollectionBox(1L, 2L);
     }
 
+    @Test
+    void assignCollectionBoxes_shouldReturnRejectedBoxes() throws Exception {
+        Mockito.when(fundraisingEventService.assignCollectionBoxes(eq(1L), any(AssignBoxesRequest.class))).thenReturn(
+                new BoxAssignmentDto(2, List.of(new BoxRejectionDto(3L, "Box 3 is not empty and cannot be assigned."))));
+
+        mockMvc.perform(put("/api/events/1/assign-boxes")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"boxIds\":[1,2,3]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.assigned").value(2))
+                .andExpect(jsonPath("$.rejected[0].boxId").value(3))
+                .andExpect(jsonPath("$.rejected[0].reason").value("Box 3 is not empty and cannot be assigned."));
+    }
+
+    @Test
+    void settleEvent_shouldReturnSettlement() throws Exception {
+        EventSettlementDto settlement = new EventSettlementDto(2, Map.of(Currency.EUR, new BigDecimal("1.50")),
+                new BigDecimal("6.45"), Currency.PLN);
+        Mockito.when(fundraisingEventService.settleEvent(1L)).thenReturn(settlement);
+
+        mockMvc.perform(post("/api/events/1/settle"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.boxesEmptied").value(2))
+                .andExpect(jsonPath("$.collectedAmounts.EUR").value(1.50))
+                .andExpect(jsonPath("$.credited").value(6.45))
+                .andExpect(jsonPath("$.accountCurrency").value("PLN"));
+    }
+
     @Test
     void getFinancialReport_shouldReturnList() throws Exception {
         FundraisingEventReportDto report = new FundraisingEventReportDto("Event1", new BigDecimal("100.00"), Currency.PLN);
@@ -67,6 +109,58 @@ class FundraisingEventControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].name").value("Event1"))
                 .andExpect(jsonPath("$[0].accountBalance").value(100.00))
-                .andExpect(jsonPath("$[0].accountCurrency").value("PLN"));
+                .andExpect(jsonPath("$[0].accountCurrency").value("PLN"))
+                .andExpect(jsonPath("$[0].boxTotal").doesNotExist());
+    }
+
+    @Test
+    void getFinancialReport_shouldKeepEventWithoutName() throws Exception {
+        FundraisingEventReportDto report = new FundraisingEventReportDto(null, new BigDecimal("0.00"), Currency.EUR);
+        Mockito.when(fundraisingEventService.getFinancialReport()).thenReturn(List.of(report));
+
+        mockMvc.perform(get("/api/events/financial-report"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").hasJsonPath())
+                .andExpect(jsonPath("$[0].name").isEmpty())
+                .andExpect(jsonPath("$[0].boxAmounts").doesNotExist());
+    }
+
+    @Test
+    void getFinancialReport_withBoxes_shouldIncludeBoxMoney() throws Exception {
+        FundraisingEventReportDto report = new FundraisingEventReportDto("Event1", new BigDecimal("100.00"), Currency.PLN,
+                Map.of(Currency.EUR, new BigDecimal("1.00")), new BigDecimal("4.30"));
+        Mockito.when(fundraisingEventService.getFinancialReportWithBoxes()).thenReturn(List.of(report));
+
+        mockMvc.perform(get("/api/events/financial-report").param("includeBoxes", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].boxAmounts.EUR").value(1.00))
+                .andExpect(jsonPath("$[0].boxTotal").value(4.30));
+        Mockito.verify(fundraisingEventService, Mockito.never()).getFinancialReport();
+    }
+
+    @Test
+    void exportFinancialReport_shouldStreamCsvAttachment() throws Exception {
+        Mockito.doAnswer(invocation -> {
+            OutputStream output = invocation.getArgument(2);
+            output.write("name,accountBalance,accountCurrency\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(exportService).exportFinancialReport(eq(ExportFormat.CSV), eq(true), any());
+
+        MvcResult result = mockMvc.perform(get("/api/events/financial-report/export").param("includeBoxes", "true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=financial-report.csv"))
+                .andExpect(content().string("name,accountBalance,accountCurrency\n"));
+    }
+
+    @Test
+    void exportFinancialReport_shouldRejectUnknownFormat() throws Exception {
+        mockMvc.perform(get("/api/events/financial-report/export").param("format", "xlsx"))
+                .andExpect(status().isBadRequest());
+        Mockito.verifyNoInteractions(exportService);
     }
-}
\ No newline at end of file
+}
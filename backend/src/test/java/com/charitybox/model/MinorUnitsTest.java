@@ -0,0 +1,45 @@
+package com.charitybox.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MinorUnitsTest {
+
+    @Test
+    void ofShouldConvertDecimalAmounts() {
+        // Act & Assert
+        assertEquals(1234L, MinorUnits.of(new BigDecimal("12.34")));
+        assertEquals(1200L, MinorUnits.of(new BigDecimal("12")));
+        assertEquals(1230L, MinorUnits.of(new BigDecimal("12.3000")));
+        assertEquals(-5L, MinorUnits.of(new BigDecimal("-0.05")));
+    }
+
+    @Test
+    void ofShouldRejectFractionsOfMinorUnits() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> MinorUnits.of(new BigDecimal("0.005")));
+    }
+
+    @Test
+    void ofShouldRejectAmountsOutOfRange() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> MinorUnits.of(new BigDecimal("1e17")));
+    }
+
+    @Test
+    void toDecimalShouldKeepTwoDecimalPlaces() {
+        // Act & Assert
+        assertEquals(new BigDecimal("12.30"), MinorUnits.toDecimal(1230L));
+        assertEquals(new BigDecimal("0.00"), MinorUnits.toDecimal(0L));
+    }
+
+    @Test
+    void addShouldDetectOverflow() {
+        // Act & Assert
+        assertEquals(3L, MinorUnits.add(1L, 2L));
+        assertThrows(IllegalStateException.class, () -> MinorUnits.add(Long.MAX_VALUE, 1L));
+    }
+}
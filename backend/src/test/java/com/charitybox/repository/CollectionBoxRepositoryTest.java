@@ -0,0 +1,381 @@
+package com.charitybox.repository;
+
+import com.charitybox.dto.CollectionBoxDto;
+import com.charitybox.dto.IdRangeDto;
+import com.charitybox.model.CollectionBox;
+import com.charitybox.model.Currency;
+import com.charitybox.model.FundraisingEvent;
+import com.charitybox.model.JournalEntryType;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class CollectionBoxRepositoryTest {
+
+    @Autowired
+    private CollectionBoxRepository collectionBoxRepository;
+
+    @Autowired
+    private BoxJournalRepository boxJournalRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void findAllSummaries_shouldListBoxesInOneStatement() {
+        // Arrange
+        FundraisingEvent event = new FundraisingEvent();
+        event.setName("Charity");
+        entityManager.persist(event);
+        for (int i = 0; i < 30; i++) {
+            CollectionBox box = new CollectionBox();
+            if (i % 2 == 0) {
+                box.setFundraisingEvent(event);
+            }
+            if (i % 3 == 0) {
+                box.getCollectedAmounts().put(Currency.USD, 100L);
+            }
+            entityManager.persist(box);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // Act
+        List<CollectionBoxDto> boxes = collectionBoxRepository.findAllSummaries();
+
+        // Assert
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(30, boxes.size());
+        for (int i = 0; i < boxes.size(); i++) {
+            assertEquals(i % 2 == 0, boxes.get(i).isAssigned(), "assigned " + i);
+            assertEquals(i % 3 != 0, boxes.get(i).isEmpty(), "empty " + i);
+        }
+    }
+
+    @Test
+    void findPage_shouldApplyCursorAndFilters() {
+        // Arrange
+        FundraisingEvent event = new FundraisingEvent();
+        event.setName("Charity");
+        entityManager.persist(event);
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            CollectionBox box = new CollectionBox();
+            if (i % 2 == 0) {
+                box.setFundraisingEvent(event);
+            }
+            if (i % 4 == 0) {
+                box.getCollectedAmounts().put(Currency.PLN, 1L);
+            }
+            entityManager.persist(box);
+            ids.add(box.getId());
+        }
+        entityManager.flush();
+
+        // Act
+        List<CollectionBoxDto> assigned = collectionBoxRepository.findPage(ids.get(0), true, null, null, 100);
+        List<CollectionBoxDto> nonEmpty = collectionBoxRepository.findPage(null, null, false, event.getId(), 100);
+        List<CollectionBoxDto> firstTwo = collectionBoxRepository.findPage(null, false, true, null, 2);
+
+        // Assert
+        assertEquals(List.of(ids.get(2), ids.get(4), ids.get(6), ids.get(8)), idsOf(assigned));
+        assertEquals(List.of(ids.get(0), ids.get(4), ids.get(8)), idsOf(nonEmpty));
+        assertEquals(List.of(ids.get(1), ids.get(3)), idsOf(firstTwo));
+        assertTrue(firstTwo.stream().allMatch(box -> !box.isAssigned() && box.isEmpty()));
+    }
+
+    @Test
+    void statusColumnsShouldFollowAmountChanges() {
+        // Arrange
+        FundraisingEvent event = new FundraisingEvent();
+        event.setName("Charity");
+        entityManager.persist(event);
+        CollectionBox box = new CollectionBox();
+        entityManager.persist(box);
+        CollectionBox other = new CollectionBox();
+        entityManager.persist(other);
+        entityManager.flush();
+        Long id = box.getId();
+
+        // Act & Assert
+        assertTrue(collectionBoxRepository.findStatusById(id).orElseThrow().isEmpty());
+        assertEquals(1, collectionBoxRepository.assignIfEmpty(id, event.getId()));
+
+        collectionBoxRepository.incrementAmount(id, Currency.EUR, 250L);
+        collectionBoxRepository.incrementAmounts(Map.of(other.getId(), Map.of(Currency.PLN, 1L)));
+        assertFalse(collectionBoxRepository.findStatusById(id).orElseThrow().isEmpty());
+        assertFalse(collectionBoxRepository.findStatusById(other.getId()).orElseThrow().isEmpty());
+        assertEquals(0, collectionBoxRepository.assignIfEmpty(other.getId(), event.getId()));
+
+        collectionBoxRepository.withdrawAmounts(id, Map.of(Currency.EUR, 100L), JournalEntryType.TRANSFER, event.getId());
+        assertFalse(collectionBoxRepository.findStatusById(id).orElseThrow().isEmpty());
+        collectionBoxRepository.withdrawAmounts(id, collectionBoxRepository.lockAmounts(id), JournalEntryType.TRANSFER, event.getId());
+        BoxStatus status = collectionBoxRepository.findStatusById(id).orElseThrow();
+        assertTrue(status.isEmpty());
+        assertEquals(event.getId(), status.getEventId());
+    }
+
+    @Test
+    void forEachBox_shouldStreamAllBoxesInIdOrder() {
+        // Arrange
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            CollectionBox box = new CollectionBox();
+            if (i == 2) {
+                box.getCollectedAmounts().put(Currency.GBP, 1L);
+            }
+            entityManager.persist(box);
+            expected.add(box.getId());
+        }
+        entityManager.flush();
+        List<CollectionBoxDto> boxes = new ArrayList<>();
+
+        // Act
+        collectionBoxRepository.forEachBox(2, boxes::add);
+
+        // Assert
+        assertEquals(expected, idsOf(boxes));
+        assertFalse(boxes.get(2).isEmpty());
+        assertTrue(boxes.get(3).isEmpty());
+    }
+
+    @Test
+    void lockedEventBoxesShouldBeEmptiedBySetBasedStatements() {
+        // Arrange
+        FundraisingEvent event = new FundraisingEvent();
+        event.setName("Charity");
+        entityManager.persist(event);
+        List<CollectionBox> boxes = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            CollectionBox box = new CollectionBox();
+            box.setFundraisingEvent(event);
+            if (i > 0) {
+                box.getCollectedAmounts().put(Currency.EUR, 100L * i);
+            }
+            entityManager.persist(box);
+            boxes.add(box);
+        }
+        CollectionBox other = new CollectionBox();
+        other.getCollectedAmounts().put(Currency.EUR, 7L);
+        entityManager.persist(other);
+        entityManager.flush();
+
+        // Act
+        Map<Long, Map<Currency, Long>> locked = collectionBoxRepository.lockEventAmounts(event.getId());
+        collectionBoxRepository.emptyLockedBoxes(locked.keySet(), event.getId());
+
+        // Assert
+        assertEquals(Map.of(boxes.get(1).getId(), Map.of(Currency.EUR, 100L),
+                boxes.get(2).getId(), Map.of(Currency.EUR, 200L)), locked);
+        for (CollectionBox box : boxes) {
+            assertTrue(collectionBoxRepository.findStatusById(box.getId()).orElseThrow().isEmpty());
+            assertEquals(0L, collectionBoxRepository.lockAmounts(box.getId()).get(Currency.EUR));
+        }
+        assertEquals(7L, collectionBoxRepository.lockAmounts(other.getId()).get(Currency.EUR));
+        assertFalse(collectionBoxRepository.findStatusById(other.getId()).orElseThrow().isEmpty());
+        Number transferred = (Number) entityManager.createNativeQuery(
+                "SELECT SUM(amount_minor) FROM box_journal WHERE entry_type = 'TRANSFER' AND event_id = ?1")
+                .setParameter(1, event.getId()).getSingleResult();
+        assertEquals(-300L, transferred.longValue());
+    }
+
+    @Test
+    void provisionedBoxesShouldNotCollideWithGeneratedIds() {
+        // Arrange
+        FundraisingEvent event = new FundraisingEvent();
+        event.setName("Charity");
+        entityManager.persist(event);
+        CollectionBox before = new CollectionBox();
+        entityManager.persist(before);
+        entityManager.flush();
+
+        // Act
+        List<IdRangeDto> ranges = collectionBoxRepository.allocateIds(120);
+        ranges.forEach(range -> collectionBoxRepository.insertEmptyBoxes(range.getFirstId(), range.getLastId(), event.getId()));
+        CollectionBox after = new CollectionBox();
+        entityManager.persist(after);
+        entityManager.flush();
+
+        // Assert
+        Set<Long> ids = new HashSet<>();
+        ranges.forEach(range -> LongStream.rangeClosed(range.getFirstId(), range.getLastId()).forEach(ids::add));
+        assertEquals(120, ids.size());
+        assertFalse(ids.contains(before.getId()));
+        assertFalse(ids.contains(after.getId()));
+        assertEquals(122, collectionBoxRepository.count());
+        for (Long id : ids) {
+            BoxStatus status = collectionBoxRepository.findStatusById(id).orElseThrow();
+            assertEquals(event.getId(), status.getEventId());
+            assertTrue(status.isEmpty());
+        }
+        Map<Currency, Long> amounts = collectionBoxRepository.lockAmounts(ranges.get(0).getFirstId());
+        assertEquals(Currency.values().length, amounts.size());
+        assertTrue(amounts.values().stream().allMatch(amount -> amount == 0));
+    }
+
+    @Test
+    void assignBoxesShouldOnlyAssignUnassignedEmptyBoxes() {
+        // Arrange
+        FundraisingEvent event = new FundraisingEvent();
+        event.setName("Charity");
+        entityManager.persist(event);
+        FundraisingEvent other = new FundraisingEvent();
+        other.setName("Other");
+        entityManager.persist(other);
+        CollectionBox free = new CollectionBox();
+        CollectionBox assigned = new CollectionBox();
+        assigned.setFundraisingEvent(other);
+        CollectionBox full = new CollectionBox();
+        full.getCollectedAmounts().put(Currency.PLN, 100L);
+        List.of(free, assigned, full).forEach(entityManager::persist);
+        entityManager.flush();
+        List<Long> ids = List.of(full.getId(), free.getId(), assigned.getId(), -1L);
+
+        // Act
+        List<BoxStatus> statuses = collectionBoxRepository.lockStatuses(ids);
+        int updated = collectionBoxRepository.assignBoxes(ids, event.getId());
+
+        // Assert
+        assertEquals(List.of(free.getId(), assigned.getId(), full.getId()), statuses.stream().map(BoxStatus::getId).toList());
+        assertEquals(other.getId(), statuses.get(1).getEventId());
+        assertFalse(statuses.get(2).isEmpty());
+        assertEquals(1, updated);
+        assertEquals(event.getId(), collectionBoxRepository.findStatusById(free.getId()).orElseThrow().getEventId());
+        assertEquals(other.getId(), collectionBoxRepository.findStatusById(assigned.getId()).orElseThrow().getEventId());
+        assertFalse(collectionBoxRepository.findStatusById(full.getId()).orElseThrow().isAssigned());
+    }
+
+    // outside the test transaction, so the box is committed and visible to the depositing threads
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void concurrentIncrementsShouldNotLoseDeposits() throws Exception {
+        // Arrange
+        Long id = collectionBoxRepository.save(new CollectionBox()).getId();
+        int threads = 8;
+        int depositsPerThread = 500;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> workers = new ArrayList<>();
+        try {
+            for (int t = 0; t < threads; t++) {
+                workers.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < depositsPerThread; i++) {
+                        assertTrue(collectionBoxRepository.incrementAmount(id, Currency.PLN, 1L));
+                    }
+                    return null;
+                }));
+            }
+
+            // Act
+            start.countDown();
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+
+            // Assert
+            assertEquals((long) threads * depositsPerThread,
+                    collectionBoxRepository.findById(id).orElseThrow().getCollectedAmounts().get(Currency.PLN));
+        } finally {
+            executor.shutdown();
+            collectionBoxRepository.deleteById(id);
+        }
+    }
+
+    @Test
+    void incrementAmountShouldNotWriteIntoMissingBox() {
+        // Arrange
+        CollectionBox box = new CollectionBox();
+        entityManager.persist(box);
+        entityManager.flush();
+        Long id = box.getId();
+        entityManager.remove(box);
+        entityManager.flush();
+
+        // Act & Assert
+        assertFalse(collectionBoxRepository.incrementAmount(id, Currency.PLN, 100L));
+        assertTrue(boxJournalRepository.findByBoxIdOrderByIdAsc(id).isEmpty());
+    }
+
+    @Test
+    void incrementAmountsShouldSkipMissingBoxesOnly() {
+        // Arrange
+        CollectionBox kept = new CollectionBox();
+        entityManager.persist(kept);
+        CollectionBox deleted = new CollectionBox();
+        entityManager.persist(deleted);
+        entityManager.flush();
+        Long deletedId = deleted.getId();
+        entityManager.remove(deleted);
+        entityManager.flush();
+
+        // Act
+        Set<Long> missing = collectionBoxRepository.incrementAmounts(Map.of(
+                kept.getId(), Map.of(Currency.PLN, 100L),
+                deletedId, Map.of(Currency.EUR, 5L)));
+
+        // Assert
+        assertEquals(Set.of(deletedId), missing);
+        assertEquals(100L, collectionBoxRepository.lockAmounts(kept.getId()).get(Currency.PLN));
+        assertEquals(1, boxJournalRepository.findByBoxIdOrderByIdAsc(kept.getId()).size());
+        assertTrue(boxJournalRepository.findByBoxIdOrderByIdAsc(deletedId).isEmpty());
+    }
+
+    @Test
+    void changedBoxesShouldLeaveOutDeletedBoxesAndEntriesOutsideWindow() {
+        // Arrange
+        CollectionBox kept = new CollectionBox();
+        entityManager.persist(kept);
+        CollectionBox deleted = new CollectionBox();
+        entityManager.persist(deleted);
+        entityManager.flush();
+        collectionBoxRepository.incrementAmount(kept.getId(), Currency.PLN, 100L);
+        collectionBoxRepository.incrementAmount(deleted.getId(), Currency.PLN, 100L);
+        long firstRun = boxJournalRepository.findLastId();
+        collectionBoxRepository.incrementAmount(deleted.getId(), Currency.EUR, 5L);
+        collectionBoxRepository.withdrawAmounts(deleted.getId(), collectionBoxRepository.lockAmounts(deleted.getId()),
+                JournalEntryType.DISCARD, null);
+        entityManager.clear();
+        entityManager.remove(entityManager.find(CollectionBox.class, deleted.getId()));
+        entityManager.flush();
+        long lastId = boxJournalRepository.findLastId();
+
+        // Act
+        List<Long> all = boxJournalRepository.findBoxIdsChangedSinceSnapshot(0, lastId);
+        List<Long> sinceFirstRun = boxJournalRepository.findBoxIdsChangedSinceSnapshot(firstRun, lastId);
+
+        // Assert
+        assertEquals(List.of(kept.getId()), all);
+        assertEquals(List.of(), sinceFirstRun);
+    }
+
+    private static List<Long> idsOf(List<CollectionBoxDto> boxes) {
+        return boxes.stream().map(CollectionBoxDto::getId).toList();
+    }
+}
@@ -0,0 +1,91 @@
+package com.charitybox.repository;
+
+import com.charitybox.model.CollectionBox;
+import com.charitybox.model.Currency;
+import com.charitybox.model.FundraisingEvent;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class FundraisingEventRepositoryTest {
+
+    @Autowired
+    private FundraisingEventRepository fundraisingEventRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private FundraisingEvent persistEvent(String name, Currency currency, long balance) {
+        FundraisingEvent event = new FundraisingEvent();
+        event.setName(name);
+        event.setAccountCurrency(currency);
+        event.setAccountBalance(balance);
+        entityManager.persist(event);
+        return event;
+    }
+
+    private void persistBox(FundraisingEvent event, Map<Currency, Long> amounts) {
+        CollectionBox box = new CollectionBox();
+        box.setFundraisingEvent(event);
+        box.getCollectedAmounts().putAll(amounts);
+        entityManager.persist(box);
+    }
+
+    @Test
+    void findAllWithBoxAmounts_shouldSumBoxesPerEventAndCurrency() {
+        // Arrange
+        FundraisingEvent charity = persistEvent("Charity", Currency.PLN, 10000L);
+        FundraisingEvent quiet = persistEvent("Quiet", Currency.EUR, 500L);
+        persistBox(charity, Map.of(Currency.PLN, 150L, Currency.EUR, 20L));
+        persistBox(charity, Map.of(Currency.PLN, 50L));
+        persistBox(charity, Map.of());
+        persistBox(null, Map.of(Currency.PLN, 999L));
+        entityManager.flush();
+
+        // Act
+        List<EventBoxAmounts> events = fundraisingEventRepository.findAllWithBoxAmounts();
+
+        // Assert
+        assertEquals(2, events.size());
+        EventBoxAmounts first = events.get(0);
+        assertEquals(charity.getId(), first.getEventId());
+        assertEquals("Charity", first.getName());
+        assertEquals(10000L, first.getAccountBalance());
+        assertEquals(Map.of(Currency.PLN, 200L, Currency.EUR, 20L), first.getBoxAmounts());
+        EventBoxAmounts second = events.get(1);
+        assertEquals(quiet.getId(), second.getEventId());
+        assertEquals(Currency.EUR, second.getAccountCurrency());
+        assertTrue(second.getBoxAmounts().isEmpty());
+    }
+
+    @Test
+    void forEachEvent_shouldStreamEventsInIdOrder() {
+        // Arrange
+        FundraisingEvent charity = persistEvent("Charity", Currency.PLN, 10000L);
+        FundraisingEvent quiet = persistEvent("Quiet", Currency.EUR, 500L);
+        persistBox(charity, Map.of(Currency.PLN, 150L));
+        persistBox(quiet, Map.of(Currency.USD, 70L));
+        entityManager.flush();
+        List<EventBoxAmounts> plain = new ArrayList<>();
+        List<EventBoxAmounts> withBoxes = new ArrayList<>();
+
+        // Act
+        fundraisingEventRepository.forEachEvent(false, 1, plain::add);
+        fundraisingEventRepository.forEachEvent(true, 1, withBoxes::add);
+
+        // Assert
+        assertEquals(List.of(charity.getId(), quiet.getId()), plain.stream().map(EventBoxAmounts::getEventId).toList());
+        assertTrue(plain.get(0).getBoxAmounts().isEmpty());
+        assertEquals(500L, plain.get(1).getAccountBalance());
+        assertEquals(Map.of(Currency.PLN, 150L), withBoxes.get(0).getBoxAmounts());
+        assertEquals(Map.of(Currency.USD, 70L), withBoxes.get(1).getBoxAmounts());
+    }
+}
@@ -0,0 +1,158 @@
+package com.charitybox.service;
+
+import com.charitybox.model.BoxSnapshot;
+import com.charitybox.model.Currency;
+import com.charitybox.repository.BoxJournalRepository;
+import com.charitybox.repository.BoxSnapshotRepository;
+import com.charitybox.repository.CollectionBoxRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class BoxJournalServiceTest {
+
+    private BoxJournalRepository boxJournalRepository;
+    private BoxSnapshotRepository boxSnapshotRepository;
+    private CollectionBoxRepository collectionBoxRepository;
+    private OperationLog operationLog;
+    private BoxJournalService boxJournalService;
+
+    @BeforeEach
+    void setUp() {
+        boxJournalRepository = mock(BoxJournalRepository.class);
+        boxSnapshotRepository = mock(BoxSnapshotRepository.class);
+        collectionBoxRepository = mock(CollectionBoxRepository.class);
+        operationLog = mock(OperationLog.class);
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(new SimpleTransactionStatus()));
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(new SimpleTransactionStatus());
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        boxJournalService = new BoxJournalService(
+                boxJournalRepository, boxSnapshotRepository, collectionBoxRepository, operationLog, transactionTemplate);
+    }
+
+    private static Map<Currency, Long> amounts(long pln, long eur) {
+        Map<Currency, Long> amounts = new EnumMap<>(Currency.class);
+        amounts.put(Currency.PLN, pln);
+        amounts.put(Currency.EUR, eur);
+        return amounts;
+    }
+
+    @Test
+    void rebuild_shouldReplayJournalAfterSnapshot() {
+        // Arrange
+        when(collectionBoxRepository.lockAmounts(1L)).thenReturn(amounts(1500L, 0L));
+        when(boxSnapshotRepository.findById(1L)).thenReturn(Optional.of(
+                new BoxSnapshot(1L, 10L, amounts(1000L, 0L), Instant.EPOCH)));
+        when(boxJournalRepository.sumByCurrencyAfter(1L, 10L)).thenReturn(List.<Object[]>of(
+                new Object[]{Currency.PLN, 500L}));
+
+        // Act
+        Map<Currency, Long> rebuilt = boxJournalService.rebuild(1L);
+
+        // Assert
+        assertEquals(amounts(1500L, 0L), rebuilt);
+        verify(collectionBoxRepository, never()).overwriteAmounts(any(), any());
+        verifyNoInteractions(operationLog);
+    }
+
+    @Test
+    void rebuild_shouldOverwriteAmountsThatDriftedFromJournal() {
+        // Arrange
+        when(collectionBoxRepository.lockAmounts(1L)).thenReturn(amounts(9999L, 0L));
+        when(boxSnapshotRepository.findById(1L)).thenReturn(Optional.empty());
+        when(boxJournalRepository.sumByCurrencyAfter(1L, 0L)).thenReturn(List.of(
+                new Object[]{Currency.PLN, 1000L},
+                new Object[]{Currency.EUR, 250L}));
+
+        // Act
+        boxJournalService.rebuild(1L);
+
+        // Assert
+        verify(collectionBoxRepository).overwriteAmounts(1L, amounts(1000L, 250L));
+        verify(operationLog).record(argThat(operation ->
+                operation.getType() == LoggedOperation.Type.AMOUNTS_REBUILT
+                        && operation.getId() == 1L
+                        && operation.getBoxAmounts().equals(amounts(1000L, 250L))));
+    }
+
+    @Test
+    void rebuild_shouldThrowIfBoxNotFound() {
+        // Arrange
+        when(collectionBoxRepository.lockAmounts(1L)).thenReturn(Map.of());
+
+        // Act & Assert
+        assertThrows(EntityNotFoundException.class, () -> boxJournalService.rebuild(1L));
+    }
+
+    @Test
+    void snapshot_shouldRecordAmountsUpToLastEntry() {
+        // Arrange
+        when(collectionBoxRepository.lockAmounts(1L)).thenReturn(amounts(1000L, 0L));
+        when(boxJournalRepository.findLastIdByBoxId(1L)).thenReturn(42L);
+
+        // Act
+        boxJournalService.snapshot(1L);
+
+        // Assert
+        verify(boxSnapshotRepository).save(argThat(snapshot ->
+                snapshot.getBoxId().equals(1L)
+                        && snapshot.getLastEntryId() == 42L
+                        && snapshot.getAmounts().equals(amounts(1000L, 0L))));
+    }
+
+    @Test
+    void snapshotChangedBoxes_shouldOnlyReadEntriesAfterPreviousRun() {
+        // Arrange
+        when(boxJournalRepository.findLastId()).thenReturn(100L, 150L);
+        when(boxJournalRepository.findBoxIdsChangedSinceSnapshot(0L, 100L)).thenReturn(List.of(1L));
+        when(boxJournalRepository.findBoxIdsChangedSinceSnapshot(100L, 150L)).thenReturn(List.of());
+        when(collectionBoxRepository.lockAmounts(1L)).thenReturn(amounts(1000L, 0L));
+        when(boxJournalRepository.findLastIdByBoxId(1L)).thenReturn(100L);
+
+        // Act
+        int first = boxJournalService.snapshotChangedBoxes();
+        int second = boxJournalService.snapshotChangedBoxes();
+
+        // Assert
+        assertEquals(1, first);
+        assertEquals(0, second);
+        verify(boxJournalRepository).findBoxIdsChangedSinceSnapshot(100L, 150L);
+        verify(boxSnapshotRepository, times(1)).save(any());
+    }
+
+    @Test
+    void snapshotChangedBoxes_shouldDropSnapshotsOfDeletedBoxes() {
+        // Arrange
+        when(boxJournalRepository.findLastId()).thenReturn(100L);
+        when(boxJournalRepository.findBoxIdsChangedSinceSnapshot(0L, 100L)).thenReturn(List.of());
+        when(boxSnapshotRepository.findBoxIdsOfDeletedBoxes()).thenReturn(List.of(7L));
+        when(collectionBoxRepository.lockAmounts(7L)).thenReturn(Map.of());
+
+        // Act
+        int boxes = boxJournalService.snapshotChangedBoxes();
+
+        // Assert
+        assertEquals(1, boxes);
+        verify(boxSnapshotRepository).deleteById(7L);
+        verify(boxSnapshotRepository, never()).save(any());
+    }
+}
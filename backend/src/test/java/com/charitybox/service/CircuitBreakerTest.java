@@ -0,0 +1,59 @@
+package com.charitybox.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+
+    @Test
+    void shouldOpenAfterConsecutiveFailures() {
+        // Arrange
+        CircuitBreaker circuitBreaker = new CircuitBreaker(2, Duration.ofHours(1));
+
+        // Act
+        circuitBreaker.recordFailure();
+        boolean allowedAfterOneFailure = circuitBreaker.allowRequest();
+        circuitBreaker.recordFailure();
+
+        // Assert
+        assertTrue(allowedAfterOneFailure);
+        assertTrue(circuitBreaker.isOpen());
+        assertFalse(circuitBreaker.allowRequest());
+    }
+
+    @Test
+    void successShouldResetFailureCount() {
+        // Arrange
+        CircuitBreaker circuitBreaker = new CircuitBreaker(2, Duration.ofHours(1));
+
+        // Act
+        circuitBreaker.recordFailure();
+        circuitBreaker.recordSuccess();
+        circuitBreaker.recordFailure();
+
+        // Assert
+        assertFalse(circuitBreaker.isOpen());
+        assertTrue(circuitBreaker.allowRequest());
+    }
+
+    @Test
+    void shouldLetSingleTrialThroughAfterOpenDuration() {
+        // Arrange
+        CircuitBreaker circuitBreaker = new CircuitBreaker(1, Duration.ZERO);
+        circuitBreaker.recordFailure();
+
+        // Act
+        boolean first = circuitBreaker.allowRequest();
+        boolean second = circuitBreaker.allowRequest();
+        circuitBreaker.recordSuccess();
+
+        // Assert
+        assertTrue(first);
+        assertFalse(second);
+        assertFalse(circuitBreaker.isOpen());
+        assertTrue(circuitBreaker.allowRequest());
+    }
+}
@@ -1,40 +1,83 @@
 package com.charitybox.service;
 
+import com.charitybox.config.BoxListingProperties;
+import com.charitybox.config.BoxProvisioningProperties;
+import com.charitybox.dto.CollectionBoxBatchDto;
 import com.charitybox.dto.CollectionBoxDto;
+import com.charitybox.dto.CollectionBoxPageDto;
+import com.charitybox.dto.DepositRequest;
+import com.charitybox.dto.DepositResultDto;
+import com.charitybox.dto.IdRangeDto;
 import com.charitybox.model.CollectionBox;
 import com.charitybox.model.Currency;
-import com.charitybox.model.FundraisingEvent;
+import com.charitybox.model.JournalEntryType;
+import com.charitybox.repository.BoxStatus;
 import com.charitybox.repository.CollectionBoxRepository;
+import com.charitybox.repository.FundraisingEventRepository;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.InOrder;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.mockito.Mockito.when;
 
 class CollectionBoxServiceTest {
 
     private CollectionBoxRepository collectionBoxRepository;
+    private FundraisingEventRepository fundraisingEventRepository;
     private CurrencyConversionService currencyConversionService;
+    private DepositAccumulator depositAccumulator;
+    private OperationLog operationLog;
+    private FinancialReportView financialReportView;
+    private TransactionTemplate transactionTemplate;
     private CollectionBoxService collectionBoxService;
 
     @BeforeEach
     void setUp() {
         collectionBoxRepository = mock(CollectionBoxRepository.class);
+        fundraisingEventRepository = mock(FundraisingEventRepository.class);
         currencyConversionService = mock(CurrencyConversionService.class);
-        collectionBoxService = new CollectionBoxService(collectionBoxRepository, currencyConversionService);
+        depositAccumulator = mock(DepositAccumulator.class);
+        operationLog = mock(OperationLog.class);
+        financialReportView = mock(FinancialReportView.class);
+        transactionTemplate = mock(TransactionTemplate.class);
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(1).run();
+            return null;
+        }).when(operationLog).record(any(), any());
+        collectionBoxService = new CollectionBoxService(collectionBoxRepository, fundraisingEventRepository,
+                currencyConversionService, depositAccumulator, operationLog, new BoxListingProperties(), financialReportView,
+                new BoxProvisioningProperties(), transactionTemplate);
     }
 
     @Test
     void createBox_shouldSaveAndReturnBox() {
         // Arrange
         CollectionBox box = new CollectionBox();
+        box.setId(1L);
         when(collectionBoxRepository.save(box)).thenReturn(box);
 
         // Act
@@ -46,15 +89,54 @@ class CollectionBoxServiceTest {
     }
 
     @Test
-    void listBoxes_shouldReturnDtos() {
+    void createBoxes_shouldInsertAndLogEveryIdRange() {
         // Arrange
-        CollectionBox box1 = new CollectionBox();
-        box1.setId(1L);
-        box1.setFundraisingEvent(new FundraisingEvent());
-        CollectionBox box2 = new CollectionBox();
-        box2.setId(2L);
+        List<IdRangeDto> ranges = List.of(new IdRangeDto(1L, 50L), new IdRangeDto(101L, 110L));
+        when(fundraisingEventRepository.existsById(7L)).thenReturn(true);
+        when(collectionBoxRepository.allocateIds(60)).thenReturn(ranges);
 
-        when(collectionBoxRepository.findAll()).thenReturn(List.of(box1, box2));
+        // Act
+        CollectionBoxBatchDto result = collectionBoxService.createBoxes(60, 7L);
+
+        // Assert
+        assertEquals(60, result.getCount());
+        assertEquals(7L, result.getEventId());
+        assertEquals(ranges, result.getIds());
+        verify(collectionBoxRepository).insertEmptyBoxes(1L, 50L, 7L);
+        verify(collectionBoxRepository).insertEmptyBoxes(101L, 110L, 7L);
+        ArgumentCaptor<LoggedOperation> logged = ArgumentCaptor.forClass(LoggedOperation.class);
+        verify(operationLog, times(2)).record(logged.capture());
+        assertEquals(LoggedOperation.Type.BOXES_CREATED, logged.getValue().getType());
+        assertEquals(101L, logged.getValue().getFirstId());
+        assertEquals(110L, logged.getValue().getLastId());
+        assertEquals(7L, logged.getValue().getEventId());
+    }
+
+    @Test
+    void createBoxes_shouldRejectInvalidCount() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> collectionBoxService.createBoxes(0, null));
+        assertThrows(IllegalArgumentException.class, () -> collectionBoxService.createBoxes(100_001, null));
+        assertThrows(IllegalArgumentException.class, () -> collectionBoxService.createBoxes(null, null));
+        verify(collectionBoxRepository, never()).allocateIds(anyInt());
+    }
+
+    @Test
+    void createBoxes_shouldThrowIfEventNotFound() {
+        // Arrange
+        when(fundraisingEventRepository.existsById(9L)).thenReturn(false);
+
+        // Act & Assert
+        assertThrows(EntityNotFoundException.class, () -> collectionBoxService.createBoxes(10, 9L));
+        verify(collectionBoxRepository, never()).allocateIds(anyInt());
+    }
+
+    @Test
+    void listBoxes_shouldReturnDtos() {
+        // Arrange
+        when(collectionBoxRepository.findAllSummaries()).thenReturn(List.of(
+                new CollectionBoxDto(1L, true, false),
+                new CollectionBoxDto(2L, false, true)));
 
         // Act
         List<CollectionBoxDto> dtos = collectionBoxService.listBoxes();
@@ -63,40 +145,151 @@ class CollectionBoxServiceTest {
         assertEquals(2, dtos.size());
         assertTrue(dtos.get(0).isAssigned());
         assertFalse(dtos.get(1).isAssigned());
+        verify(collectionBoxRepository, never()).findAll();
+    }
+
+    @Test
+    void listBoxesPage_shouldReturnCursorWhenMoreBoxesFollow() {
+        // Arrange
+        when(collectionBoxRepository.findPage(10L, true, null, null, 3)).thenReturn(List.of(
+                new CollectionBoxDto(11L, true, true),
+                new CollectionBoxDto(14L, true, false),
+                new CollectionBoxDto(15L, true, true)));
+
+        // Act
+        CollectionBoxPageDto page = collectionBoxService.listBoxes(10L, 2, true, null, null);
+
+        // Assert
+        assertEquals(List.of(11L, 14L), page.getBoxes().stream().map(CollectionBoxDto::getId).toList());
+        assertEquals(14L, page.getNextCursor());
+    }
+
+    @Test
+    void listBoxesPage_shouldEndWithoutCursor() {
+        // Arrange
+        when(collectionBoxRepository.findPage(null, null, null, 7L, 101)).thenReturn(List.of(
+                new CollectionBoxDto(3L, true, true)));
+
+        // Act
+        CollectionBoxPageDto page = collectionBoxService.listBoxes(null, null, null, null, 7L);
+
+        // Assert
+        assertEquals(1, page.getBoxes().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void listBoxesPage_shouldRejectPageSizeOutOfRange() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> collectionBoxService.listBoxes(null, 0, null, null, null));
+        assertThrows(IllegalArgumentException.class, () -> collectionBoxService.listBoxes(null, 1001, null, null, null));
+        verify(collectionBoxRepository, never()).findPage(any(), any(), any(), any(), anyInt());
     }
 
     @Test
     void deleteBox_shouldEmptyAndDeleteBox() {
         // Arrange
-        CollectionBox box = new CollectionBox();
-        box.setId(1L);
-        box.getCollectedAmounts().put(Currency.PLN, new BigDecimal("100"));
-        when(collectionBoxRepository.findById(1L)).thenReturn(Optional.of(box));
+        Map<Currency, Long> amounts = Map.of(Currency.PLN, 10000L);
+        when(collectionBoxRepository.findStatusById(1L)).thenReturn(Optional.of(new BoxStatus(1L, null, true)));
+        when(collectionBoxRepository.lockAmounts(1L)).thenReturn(amounts);
 
         // Act
         collectionBoxService.deleteBox(1L);
 
         // Assert
-        assertEquals(BigDecimal.ZERO, box.getCollectedAmounts().get(Currency.PLN));
-        verify(collectionBoxRepository).save(box);
-        verify(collectionBoxRepository).deleteById(1L);
+        InOrder inOrder = inOrder(collectionBoxRepository);
+        inOrder.verify(collectionBoxRepository).withdrawAmounts(1L, amounts, JournalEntryType.DISCARD, null);
+        inOrder.verify(collectionBoxRepository).deleteById(1L);
+        verify(depositAccumulator).discard(1L);
+    }
+
+    @Test
+    void deleteBox_shouldThrowIfBoxNotFound() {
+        // Arrange
+        when(collectionBoxRepository.findStatusById(1L)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(EntityNotFoundException.class, () -> collectionBoxService.deleteBox(1L));
+        verify(collectionBoxRepository, never()).deleteById(any());
     }
 
     @Test
     void addMoney_shouldAddAmount() {
         // Arrange
-        CollectionBox box = new CollectionBox();
-        box.setId(1L);
-        FundraisingEvent event = new FundraisingEvent();
-        box.setFundraisingEvent(event);
-        when(collectionBoxRepository.findById(1L)).thenReturn(Optional.of(box));
+        when(collectionBoxRepository.findStatusById(1L)).thenReturn(Optional.of(new BoxStatus(1L, 7L, true)));
+        when(collectionBoxRepository.incrementAmount(1L, Currency.PLN, 5000L)).thenReturn(true);
 
         // Act
         collectionBoxService.addMoney(1L, Currency.PLN.toString(), new BigDecimal("50"));
 
         // Assert
-        assertEquals(new BigDecimal("50"), box.getCollectedAmounts().get(Currency.PLN));
-        verify(collectionBoxRepository).save(box);
+        verify(collectionBoxRepository).incrementAmount(1L, Currency.PLN, 5000L);
+        verify(collectionBoxRepository, never()).save(any());
+    }
+
+    @Test
+    void addMoney_shouldThrowIfBoxDeletedAfterStatusCheck() {
+        // Arrange
+        when(collectionBoxRepository.findStatusById(1L)).thenReturn(Optional.of(new BoxStatus(1L, 7L, true)));
+        when(collectionBoxRepository.incrementAmount(1L, Currency.PLN, 5000L)).thenReturn(false);
+
+        // Act & Assert
+        assertThrows(EntityNotFoundException.class,
+                () -> collectionBoxService.addMoney(1L, Currency.PLN.toString(), new BigDecimal("50")));
+    }
+
+    @Test
+    void addMoney_shouldBufferDepositInWriteBehindMode() {
+        // Arrange
+        when(depositAccumulator.isEnabled()).thenReturn(true);
+        when(depositAccumulator.isKnownAssigned(1L)).thenReturn(true);
+
+        // Act
+        collectionBoxService.addMoney(1L, Currency.EUR.toString(), new BigDecimal("2.50"));
+
+        // Assert
+        verify(depositAccumulator).add(1L, Currency.EUR, 250L);
+        verify(collectionBoxRepository, never()).findStatusById(any());
+        verify(collectionBoxRepository, never()).incrementAmount(any(), any(), anyLong());
+    }
+
+    @Test
+    void addMoney_shouldRememberAssignedBoxInWriteBehindMode() {
+        // Arrange
+        when(depositAccumulator.isEnabled()).thenReturn(true);
+        when(collectionBoxRepository.findStatusById(1L)).thenReturn(Optional.of(new BoxStatus(1L, 7L, true)));
+        when(depositAccumulator.markAssigned(1L, 0L)).thenReturn(true);
+
+        // Act
+        collectionBoxService.addMoney(1L, Currency.PLN.toString(), new BigDecimal("0.01"));
+
+        // Assert
+        verify(depositAccumulator).markAssigned(1L, 0L);
+        verify(depositAccumulator).add(1L, Currency.PLN, 1L);
+    }
+
+    @Test
+    void addMoney_shouldCheckStatusAgainWhenBoxWasDroppedMeanwhile() {
+        // Arrange
+        when(depositAccumulator.isEnabled()).thenReturn(true);
+        when(depositAccumulator.getDrops()).thenReturn(0L, 1L);
+        when(depositAccumulator.markAssigned(1L, 0L)).thenReturn(false);
+        when(collectionBoxRepository.findStatusById(1L))
+                .thenReturn(Optional.of(new BoxStatus(1L, 7L, true)))
+                .thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(EntityNotFoundException.class,
+                () -> collectionBoxService.addMoney(1L, Currency.PLN.toString(), new BigDecimal("0.01")));
+        verify(depositAccumulator, never()).add(any(), any(), anyLong());
+    }
+
+    @Test
+    void addMoney_shouldRejectAmountFinerThanMinorUnits() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () ->
+                collectionBoxService.addMoney(1L, Currency.PLN.toString(), new BigDecimal("0.005")));
+        verify(collectionBoxRepository, never()).incrementAmount(any(), any(), anyLong());
     }
 
     @Test
@@ -109,7 +302,7 @@ class CollectionBoxServiceTest {
     @Test
     void addMoney_shouldThrowIfBoxNotFound() {
         // Arrange
-        when(collectionBoxRepository.findById(1L)).thenReturn(Optional.empty());
+        when(collectionBoxRepository.findStatusById(1L)).thenReturn(Optional.empty());
 
         // Act & Assert
         assertThrows(EntityNotFoundException.class, () ->
@@ -119,53 +312,67 @@ class CollectionBoxServiceTest {
     @Test
     void addMoney_shouldThrowIfBoxNotAssigned() {
         // Arrange
-        CollectionBox box = new CollectionBox();
-        when(collectionBoxRepository.findById(1L)).thenReturn(Optional.of(box));
+        when(collectionBoxRepository.findStatusById(1L)).thenReturn(Optional.of(new BoxStatus(1L, null, true)));
 
         // Act & Assert
         assertThrows(IllegalStateException.class, () ->
                 collectionBoxService.addMoney(1L, Currency.PLN.toString(), BigDecimal.ONE));
+        verify(collectionBoxRepository, never()).incrementAmount(any(), any(), anyLong());
     }
 
     @Test
     void emptyBox_shouldTransferAndZeroAmounts() {
         // Arrange
-        CollectionBox box = new CollectionBox();
-        box.setId(1L);
-        FundraisingEvent event = new FundraisingEvent();
-        event.setAccountCurrency(Currency.PLN);
-        event.setAccountBalance(BigDecimal.ZERO);
-        box.setFundraisingEvent(event);
-
-        // Ustaw wartości dla wszystkich walut
-        for (Currency currency : Currency.values()) {
-            box.getCollectedAmounts().put(currency, BigDecimal.ZERO);
-        }
-        box.getCollectedAmounts().put(Currency.PLN, new BigDecimal("10"));
-
-        when(collectionBoxRepository.findById(1L)).thenReturn(Optional.of(box));
-        // Mockuj konwersję dla wszystkich walut
-        for (Currency currency : Currency.values()) {
-            if (currency == Currency.PLN) {
-                when(currencyConversionService.convert(new BigDecimal("10"), Currency.PLN, Currency.PLN)).thenReturn(new BigDecimal("10"));
-            } else {
-                when(currencyConversionService.convert(BigDecimal.ZERO, currency, Currency.PLN)).thenReturn(BigDecimal.ZERO);
-            }
-        }
+        Map<Currency, Long> amounts = Map.of(Currency.PLN, 1000L, Currency.EUR, 0L);
+        when(collectionBoxRepository.findStatusById(1L)).thenReturn(Optional.of(new BoxStatus(1L, 7L, true)));
+        when(fundraisingEventRepository.findAccountCurrencyById(7L)).thenReturn(Optional.of(Currency.PLN));
+        when(collectionBoxRepository.lockAmounts(1L)).thenReturn(amounts);
+        when(currencyConversionService.convertAll(eq(amounts), eq(Currency.PLN), ArgumentMatchers.<Supplier<RateSnapshot>>any())).thenReturn(1000L);
 
         // Act
         collectionBoxService.emptyBox(1L);
 
         // Assert
-        assertEquals(BigDecimal.ZERO, box.getCollectedAmounts().get(Currency.PLN));
-        assertEquals(new BigDecimal("10"), event.getAccountBalance());
-        verify(collectionBoxRepository).save(box);
+        InOrder inOrder = inOrder(currencyConversionService, transactionTemplate, depositAccumulator,
+                collectionBoxRepository, fundraisingEventRepository);
+        inOrder.verify(currencyConversionService).prefetchSnapshot();
+        inOrder.verify(transactionTemplate).executeWithoutResult(any());
+        inOrder.verify(depositAccumulator).flush(1L);
+        inOrder.verify(collectionBoxRepository).lockAmounts(1L);
+        inOrder.verify(collectionBoxRepository).withdrawAmounts(1L, amounts, JournalEntryType.TRANSFER, 7L);
+        inOrder.verify(fundraisingEventRepository).creditBalance(7L, 1000L);
+        verify(financialReportView).credited(7L, 1000L);
+        verify(currencyConversionService, never()).convert(any(), any(), any());
+        ArgumentCaptor<LoggedOperation> logged = ArgumentCaptor.forClass(LoggedOperation.class);
+        verify(operationLog).record(logged.capture());
+        assertEquals(LoggedOperation.Type.BOX_EMPTIED, logged.getValue().getType());
+        assertEquals(amounts, logged.getValue().getBoxAmounts());
+        assertEquals(1000L, logged.getValue().getAmount());
+        verify(collectionBoxRepository, never()).save(any());
+    }
+
+    @Test
+    void emptyBox_shouldNotCreditEventWhenBoxIsEmpty() {
+        // Arrange
+        Map<Currency, Long> amounts = Map.of(Currency.PLN, 0L);
+        when(collectionBoxRepository.findStatusById(1L)).thenReturn(Optional.of(new BoxStatus(1L, 7L, true)));
+        when(fundraisingEventRepository.findAccountCurrencyById(7L)).thenReturn(Optional.of(Currency.PLN));
+        when(collectionBoxRepository.lockAmounts(1L)).thenReturn(amounts);
+        when(currencyConversionService.convertAll(eq(amounts), eq(Currency.PLN), ArgumentMatchers.<Supplier<RateSnapshot>>any())).thenReturn(0L);
+
+        // Act
+        collectionBoxService.emptyBox(1L);
+
+        // Assert
+        verify(collectionBoxRepository).withdrawAmounts(1L, amounts, JournalEntryType.TRANSFER, 7L);
+        verify(fundraisingEventRepository, never()).creditBalance(any(), anyLong());
+        verify(financialReportView, never()).credited(any(), anyLong());
     }
 
     @Test
     void emptyBox_shouldThrowIfBoxNotFound() {
         // Arrange
-        when(collectionBoxRepository.findById(1L)).thenReturn(Optional.empty());
+        when(collectionBoxRepository.findStatusById(1L)).thenReturn(Optional.empty());
 
         // Act & Assert
         assertThrows(EntityNotFoundException.class, () -> collectionBoxService.emptyBox(1L));
@@ -174,11 +381,11 @@ class CollectionBoxServiceTest {
     @Test
     void emptyBox_shouldThrowIfBoxNotAssigned() {
         // Arrange
-        CollectionBox box = new CollectionBox();
-        when(collectionBoxRepository.findById(1L)).thenReturn(Optional.of(box));
+        when(collectionBoxRepository.findStatusById(1L)).thenReturn(Optional.of(new BoxStatus(1L, null, true)));
 
         // Act & Assert
         assertThrows(IllegalStateException.class, () -> collectionBoxService.emptyBox(1L));
+        verify(collectionBoxRepository, never()).lockAmounts(any());
     }
 
     @Test
@@ -187,4 +394,92 @@ class CollectionBoxServiceTest {
         assertThrows(IllegalArgumentException.class, () ->
                 collectionBoxService.addMoney(1L, Currency.PLN.toString(), null));
     }
+
+    private static DepositRequest deposit(Long boxId, String currency, String amount) {
+        DepositRequest deposit = new DepositRequest();
+        deposit.setBoxId(boxId);
+        deposit.setCurrency(currency);
+        deposit.setAmount(amount != null ? new BigDecimal(amount) : null);
+        return deposit;
+    }
+
+    @Test
+    void addMoneyBulk_shouldSumDepositsPerBoxAndReportEachItem() {
+        // Arrange
+        when(collectionBoxRepository.findStatusByIdIn(any()))
+                .thenReturn(List.of(new BoxStatus(1L, 7L, true), new BoxStatus(2L, 7L, true)));
+
+        List<DepositRequest> deposits = List.of(
+                deposit(1L, "PLN", "10"),
+                deposit(2L, "EUR", "5"),
+                deposit(1L, "PLN", "2.50"),
+                deposit(1L, "XXX", "1"),
+                deposit(2L, "USD", "-1"));
+
+        // Act
+        List<DepositResultDto> results = collectionBoxService.addMoneyBulk(deposits);
+
+        // Assert
+        assertEquals(5, results.size());
+        assertTrue(results.get(0).isSuccess());
+        assertTrue(results.get(1).isSuccess());
+        assertTrue(results.get(2).isSuccess());
+        assertFalse(results.get(3).isSuccess());
+        assertEquals("Unsupported currency: XXX", results.get(3).getError());
+        assertFalse(results.get(4).isSuccess());
+        verify(collectionBoxRepository, times(1)).findStatusByIdIn(any());
+        verify(collectionBoxRepository).incrementAmounts(Map.of(
+                1L, Map.of(Currency.PLN, 1250L),
+                2L, Map.of(Currency.EUR, 500L)));
+    }
+
+    @Test
+    void addMoneyBulk_shouldReportBoxesDeletedBeforeTheWrite() {
+        // Arrange
+        when(collectionBoxRepository.findStatusByIdIn(any()))
+                .thenReturn(List.of(new BoxStatus(1L, 7L, true), new BoxStatus(2L, 7L, true)));
+        when(collectionBoxRepository.incrementAmounts(any())).thenReturn(Set.of(2L));
+
+        // Act
+        List<DepositResultDto> results = collectionBoxService.addMoneyBulk(List.of(
+                deposit(1L, "PLN", "10"),
+                deposit(2L, "EUR", "5"),
+                deposit(2L, "PLN", "1")));
+
+        // Assert
+        assertTrue(results.get(0).isSuccess());
+        assertEquals("Box not found: 2", results.get(1).getError());
+        assertEquals("Box not found: 2", results.get(2).getError());
+        verify(operationLog).record(argThat(operation ->
+                operation.getAmounts().equals(Map.of(1L, Map.of(Currency.PLN, 1000L)))));
+    }
+
+    @Test
+    void addMoneyBulk_shouldRejectDepositsForMissingOrUnassignedBoxes() {
+        // Arrange
+        when(collectionBoxRepository.findStatusByIdIn(any())).thenReturn(List.of(new BoxStatus(2L, null, true)));
+
+        // Act
+        List<DepositResultDto> results = collectionBoxService.addMoneyBulk(List.of(
+                deposit(1L, "PLN", "10"),
+                deposit(2L, "PLN", "10"),
+                deposit(null, "PLN", "10")));
+
+        // Assert
+        assertEquals("Box not found: 1", results.get(0).getError());
+        assertFalse(results.get(1).isSuccess());
+        assertEquals(2L, results.get(1).getBoxId());
+        assertEquals("Box id is required", results.get(2).getError());
+        verify(collectionBoxRepository, never()).incrementAmounts(any());
+    }
+
+    @Test
+    void addMoneyBulk_shouldNotQueryBoxesWhenNothingIsValid() {
+        // Act
+        List<DepositResultDto> results = collectionBoxService.addMoneyBulk(List.of(deposit(1L, "PLN", null)));
+
+        // Assert
+        assertFalse(results.get(0).isSuccess());
+        verify(collectionBoxRepository, never()).findStatusByIdIn(any());
+    }
 }
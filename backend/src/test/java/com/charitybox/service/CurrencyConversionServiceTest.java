@@ -1,32 +1,82 @@
 package com.charitybox.service;
 
+import com.charitybox.config.NbpProperties;
 import com.charitybox.dto.NbpRateDto;
 import com.charitybox.dto.NbpTableDto;
+import com.charitybox.dto.RateCacheStatsDto;
 import com.charitybox.model.Currency;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 class CurrencyConversionServiceTest {
 
     private RestTemplate restTemplate;
+    private NbpAsyncClient nbpAsyncClient;
+    private NbpProperties properties;
+    private ExchangeRateHistoryService exchangeRateHistoryService;
     private CurrencyConversionService service;
 
     @BeforeEach
     void setUp() {
         restTemplate = mock(RestTemplate.class);
-        service = new CurrencyConversionService(restTemplate);
+        nbpAsyncClient = mock(NbpAsyncClient.class);
+        properties = new NbpProperties();
+        properties.setRetryBackoff(Duration.ZERO);
+        exchangeRateHistoryService = mock(ExchangeRateHistoryService.class);
+        service = new CurrencyConversionService(restTemplate, nbpAsyncClient, properties, exchangeRateHistoryService);
+    }
+
+    private void mockRates(String code, String mid) {
+        NbpRateDto rate = new NbpRateDto();
+        rate.setCode(code);
+        rate.setMid(new BigDecimal(mid));
+        NbpTableDto table = new NbpTableDto();
+        table.setRates(List.of(rate));
+        when(restTemplate.getForObject(anyString(), eq(NbpTableDto[].class)))
+                .thenReturn(new NbpTableDto[]{table});
     }
 
     @Test
@@ -139,6 +189,471 @@ class CurrencyConversionServiceTest {
         assertThrows(IllegalArgumentException.class, () ->
                 service.convert(BigDecimal.ONE, Currency.PLN, Currency.USD));
     }
-}
 
+    @Test
+    void convert_shouldReuseCachedSnapshotWithinTtl() {
+        // Arrange
+        mockRates("EUR", "4.00");
+
+        // Act
+        service.convert(BigDecimal.ONE, Currency.EUR, Currency.PLN);
+        service.convert(BigDecimal.TEN, Currency.EUR, Currency.PLN);
+        BigDecimal result = service.convert(new BigDecimal("2"), Currency.EUR, Currency.PLN);
+
+        // Assert
+        assertEquals(new BigDecimal("8.00"), result);
+        verify(restTemplate, times(1)).getForObject(anyString(), eq(NbpTableDto[].class));
+        RateCacheStatsDto stats = service.getCacheStats();
+        assertEquals(2, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(1, stats.getRefreshes());
+    }
+
+    @Test
+    void convert_shouldFetchAgainWhenSnapshotExpired() {
+        // Arrange
+        properties.setCacheTtl(Duration.ZERO);
+        mockRates("EUR", "4.00");
+
+        // Act
+        service.convert(BigDecimal.ONE, Currency.EUR, Currency.PLN);
+        service.convert(BigDecimal.ONE, Currency.EUR, Currency.PLN);
+
+        // Assert
+        verify(restTemplate, times(2)).getForObject(anyString(), eq(NbpTableDto[].class));
+        assertEquals(2, service.getCacheStats().getMisses());
+    }
+
+    @Test
+    void refreshRates_shouldReplaceCachedSnapshot() {
+        // Arrange
+        mockRates("EUR", "4.00");
+        service.convert(BigDecimal.ONE, Currency.EUR, Currency.PLN);
+        mockRates("EUR", "5.00");
+
+        // Act
+        service.refreshRates();
+        BigDecimal result = service.convert(BigDecimal.ONE, Currency.EUR, Currency.PLN);
+
+        // Assert
+        assertEquals(new BigDecimal("5.00"), result);
+        assertEquals(2, service.getCacheStats().getRefreshes());
+    }
+
+    @Test
+    void refreshRates_shouldKeepPreviousSnapshotWhenFetchFails() {
+        // Arrange
+        mockRates("EUR", "4.00");
+        service.convert(BigDecimal.ONE, Currency.EUR, Currency.PLN);
+        when(restTemplate.getForObject(anyString(), eq(NbpTableDto[].class)))
+                .thenThrow(new RestClientException("NBP unavailable"));
+
+        // Act
+        assertThrows(RestClientException.class, () -> service.refreshRates());
+        BigDecimal result = service.convert(BigDecimal.ONE, Currency.EUR, Currency.PLN);
+
+        // Assert
+        assertEquals(new BigDecimal("4.00"), result);
+        assertEquals(1, service.getCacheStats().getRefreshFailures());
+    }
+
+    @Test
+    void convertAll_shouldConvertEveryCurrencyWithOneSnapshot() {
+        // Arrange
+        NbpRateDto eur = new NbpRateDto();
+        eur.setCode("EUR");
+        eur.setMid(new BigDecimal("4.00"));
+        NbpRateDto usd = new NbpRateDto();
+        usd.setCode("USD");
+        usd.setMid(new BigDecimal("5.00"));
+        NbpTableDto table = new NbpTableDto();
+        table.setRates(List.of(eur, usd));
+        when(restTemplate.getForObject(anyString(), eq(NbpTableDto[].class)))
+                .thenReturn(new NbpTableDto[]{table});
+        Map<Currency, Long> amounts = new EnumMap<>(Currency.class);
+        amounts.put(Currency.PLN, 1000L);
+        amounts.put(Currency.EUR, 200L);
+        amounts.put(Currency.USD, 100L);
+        amounts.put(Currency.GBP, 0L);
+
+        // Act
+        long result = service.convertAll(amounts, Currency.PLN);
+
+        // Assert
+        // 10 PLN + 2 EUR * 4.00 + 1 USD * 5.00 = 23.00 PLN
+        assertEquals(2300L, result);
+        verify(restTemplate, times(1)).getForObject(anyString(), eq(NbpTableDto[].class));
+        assertEquals(1, service.getCacheStats().getMisses());
+        assertEquals(0, service.getCacheStats().getHits());
+    }
+
+    @Test
+    void convertAll_shouldNotFetchRatesWhenNothingToConvert() {
+        // Arrange
+        Map<Currency, Long> amounts = new EnumMap<>(Currency.class);
+        amounts.put(Currency.EUR, 350L);
+        amounts.put(Currency.USD, 0L);
+
+        // Act
+        long result = service.convertAll(amounts, Currency.EUR);
+
+        // Assert
+        assertEquals(350L, result);
+        verify(restTemplate, never()).getForObject(anyString(), eq(NbpTableDto[].class));
+    }
+
+    @Test
+    void convertAll_shouldRoundConvertedAmountToMinorUnits() {
+        // Arrange
+        mockRates("EUR", "4.3333");
+
+        // Act
+        // 1.00 PLN + 0.03 EUR * 4.3333 = 1.00 PLN + 0.129999 PLN, rounded to 1.13 PLN
+        long result = service.convertAll(Map.of(Currency.EUR, 3L, Currency.PLN, 100L), Currency.PLN);
+
+        // Assert
+        assertEquals(113L, result);
+    }
+
+    @Test
+    void convertAll_shouldThrowIfRateMissing() {
+        // Arrange
+        mockRates("EUR", "4.00");
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () ->
+                service.convertAll(Map.of(Currency.USD, 100L), Currency.PLN));
+    }
+
+    @Test
+    void refreshRates_shouldRecordFetchedTableInHistory() {
+        // Arrange
+        NbpRateDto eur = new NbpRateDto();
+        eur.setCode("EUR");
+        eur.setMid(new BigDecimal("4.30"));
+        NbpTableDto table = new NbpTableDto();
+        table.setNo("090/A/NBP/2024");
+        table.setEffectiveDate("2024-05-10");
+        table.setRates(List.of(eur));
+        when(restTemplate.getForObject(anyString(), eq(NbpTableDto[].class)))
+                .thenReturn(new NbpTableDto[]{table});
+
+        // Act
+        RateSnapshot snapshot = service.refreshRates();
+
+        // Assert
+        assertEquals(LocalDate.of(2024, 5, 10), snapshot.getEffectiveDate());
+        verify(exchangeRateHistoryService).record(
+                eq(LocalDate.of(2024, 5, 10)), eq("090/A/NBP/2024"), eq(snapshot.getRatesToPLN()), any());
+    }
+
+    @Test
+    void refreshRates_shouldKeepFetchedTableWhenHistoryCannotStoreIt() {
+        // Arrange
+        NbpRateDto eur = new NbpRateDto();
+        eur.setCode("EUR");
+        eur.setMid(new BigDecimal("4.30"));
+        NbpTableDto table = new NbpTableDto();
+        table.setNo("090/A/NBP/2024");
+        table.setEffectiveDate("2024-05-10");
+        table.setRates(List.of(eur));
+        when(restTemplate.getForObject(anyString(), eq(NbpTableDto[].class)))
+                .thenReturn(new NbpTableDto[]{table});
+        doThrow(new DataIntegrityViolationException("duplicate effective_date"))
+                .when(exchangeRateHistoryService).record(any(), any(), any(), any());
+
+        // Act
+        RateSnapshot snapshot = service.refreshRates();
+        BigDecimal converted = service.convert(BigDecimal.ONE, Currency.EUR, Currency.PLN);
+
+        // Assert
+        assertEquals(LocalDate.of(2024, 5, 10), snapshot.getEffectiveDate());
+        assertEquals(new BigDecimal("4.30"), converted);
+        verify(restTemplate, times(1)).getForObject(anyString(), eq(NbpTableDto[].class));
+        verify(exchangeRateHistoryService, never()).findLatest();
+    }
+
+    @Test
+    void convert_shouldUseStoredRatesWhenNbpUnreachable() {
+        // Arrange
+        when(restTemplate.getForObject(anyString(), eq(NbpTableDto[].class)))
+                .thenThrow(new RestClientException("NBP unavailable"));
+        RateSnapshot stored = new RateSnapshot(
+                Map.of(Currency.PLN, BigDecimal.ONE, Currency.EUR, new BigDecimal("4.00")),
+                LocalDate.of(2024, 5, 10), Instant.parse("2024-05-10T12:00:00Z"));
+        when(exchangeRateHistoryService.findLatest()).thenReturn(Optional.of(stored));
+
+        // Act
+        BigDecimal first = service.convert(BigDecimal.ONE, Currency.EUR, Currency.PLN);
+        BigDecimal second = service.convert(BigDecimal.TEN, Currency.EUR, Currency.PLN);
+
+        // Assert
+        assertEquals(new BigDecimal("4.00"), first);
+        assertEquals(new BigDecimal("40.00"), second);
+        // the stored table is served for one TTL, NBP is not retried on every conversion
+        verify(restTemplate, times(1 + properties.getMaxRetries())).getForObject(anyString(), eq(NbpTableDto[].class));
+    }
+
+    @Test
+    void currentSnapshotAsync_shouldShareOneRequestBetweenCallersWithoutBlocking() {
+        // Arrange
+        CompletableFuture<NbpTableDto> pending = new CompletableFuture<>();
+        when(nbpAsyncClient.fetchTable()).thenReturn(pending);
+        NbpRateDto eur = new NbpRateDto();
+        eur.setCode("EUR");
+        eur.setMid(new BigDecimal("4.00"));
+        NbpTableDto table = new NbpTableDto();
+        table.setRates(List.of(eur));
+
+        // Act
+        CompletableFuture<RateSnapshot> first = service.currentSnapshotAsync();
+        CompletableFuture<RateSnapshot> second = service.currentSnapshotAsync();
+        CompletableFuture<Long> converted = service.convertAllAsync(Map.of(Currency.EUR, 150L), Currency.PLN);
+        boolean doneBeforeResponse = first.isDone() || second.isDone() || converted.isDone();
+        pending.complete(table);
+
+        // Assert
+        assertFalse(doneBeforeResponse);
+        assertEquals(new BigDecimal("4.00"), first.join().getRatesToPLN().get(Currency.EUR));
+        assertSame(first.join(), second.join());
+        assertEquals(600L, converted.join());
+        verify(nbpAsyncClient, times(1)).fetchTable();
+        verify(restTemplate, never()).getForObject(anyString(), eq(NbpTableDto[].class));
+        assertEquals(1, service.getCacheStats().getRefreshes());
+    }
+
+    @Test
+    void currentSnapshotAsync_shouldUseStoredRatesWhenNbpUnreachable() {
+        // Arrange
+        when(nbpAsyncClient.fetchTable())
+                .thenAnswer(invocation -> CompletableFuture.failedFuture(new ResourceAccessException("Connection refused")));
+        RateSnapshot stored = new RateSnapshot(
+                Map.of(Currency.PLN, BigDecimal.ONE, Currency.EUR, new BigDecimal("4.00")),
+                LocalDate.of(2024, 5, 10), Instant.parse("2024-05-10T12:00:00Z"));
+        when(exchangeRateHistoryService.findLatest()).thenReturn(Optional.of(stored));
+
+        // Act
+        RateSnapshot result = service.currentSnapshotAsync().join();
+
+        // Assert
+        assertEquals(stored.getRatesToPLN(), result.getRatesToPLN());
+        verify(nbpAsyncClient, times(1 + properties.getMaxRetries())).fetchTable();
+        assertEquals(1, service.getCacheStats().getRefreshFailures());
+    }
+
+    @Test
+    void refreshRatesAsync_shouldNotRetryClientErrors() {
+        // Arrange
+        when(nbpAsyncClient.fetchTable())
+                .thenReturn(CompletableFuture.failedFuture(new HttpClientErrorException(HttpStatus.NOT_FOUND)));
+
+        // Act
+        CompletionException ex = assertThrows(CompletionException.class, () -> service.refreshRatesAsync().join());
+
+        // Assert
+        assertInstanceOf(HttpClientErrorException.class, ex.getCause());
+        verify(nbpAsyncClient, times(1)).fetchTable();
+    }
+
+    @Test
+    void refreshRatesAsync_shouldReleaseSharedRefreshWhenClientThrows() {
+        // Arrange
+        when(nbpAsyncClient.fetchTable()).thenThrow(new IllegalArgumentException("Illegal character in URL"));
+        mockRates("EUR", "4.00");
+
+        // Act
+        CompletionException ex = assertThrows(CompletionException.class, () -> service.refreshRatesAsync().join());
+        RateSnapshot next = service.refreshRates();
+
+        // Assert
+        assertInstanceOf(IllegalArgumentException.class, ex.getCause());
+        assertEquals(new BigDecimal("4.00"), next.getRatesToPLN().get(Currency.EUR));
+    }
+
+    @Test
+    void refreshRates_shouldStopWaitingForRefreshThatNeverCompletes() {
+        // Arrange
+        properties.setConnectTimeout(Duration.ofMillis(50));
+        properties.setReadTimeout(Duration.ofMillis(50));
+        properties.setMaxRetries(0);
+        when(nbpAsyncClient.fetchTable()).thenReturn(new CompletableFuture<>());
+        service.refreshRatesAsync();
+
+        // Act & Assert
+        RestClientException ex = assertThrows(RestClientException.class, () -> service.refreshRates());
+        assertTrue(ex.getMessage().contains("Timed out"));
+        verify(restTemplate, never()).getForObject(anyString(), eq(NbpTableDto[].class));
+    }
+
+    @Test
+    void convertAllAsync_shouldNotFetchRatesWhenNothingToConvert() {
+        // Act
+        CompletableFuture<Long> result = service.convertAllAsync(Map.of(Currency.EUR, 350L, Currency.USD, 0L), Currency.EUR);
+
+        // Assert
+        assertTrue(result.isDone());
+        assertEquals(350L, result.join());
+        verifyNoInteractions(nbpAsyncClient, restTemplate);
+    }
+
+    @Test
+    void prefetchSnapshot_shouldDeferFailureUntilRatesAreNeeded() {
+        // Arrange
+        when(restTemplate.getForObject(anyString(), eq(NbpTableDto[].class)))
+                .thenThrow(new RestClientException("NBP unavailable"));
+        when(exchangeRateHistoryService.findLatest()).thenReturn(Optional.empty());
+
+        // Act
+        Supplier<RateSnapshot> rates = service.prefetchSnapshot();
+
+        // Assert
+        assertEquals(350L, service.convertAll(Map.of(Currency.PLN, 350L), Currency.PLN, rates));
+        assertThrows(RestClientException.class, () -> service.convertAll(Map.of(Currency.EUR, 100L), Currency.PLN, rates));
+    }
+
+    @Test
+    void convert_shouldRethrowWhenNbpUnreachableAndNothingStored() {
+        // Arrange
+        when(restTemplate.getForObject(anyString(), eq(NbpTableDto[].class)))
+                .thenThrow(new RestClientException("NBP unavailable"));
+        when(exchangeRateHistoryService.findLatest()).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(RestClientException.class, () ->
+                service.convert(BigDecimal.ONE, Currency.EUR, Currency.PLN));
+    }
+
+    @Test
+    void refreshRates_shouldRetryTransientFailures() {
+        // Arrange
+        NbpTableDto table = new NbpTableDto();
+        table.setRates(List.of());
+        when(restTemplate.getForObject(anyString(), eq(NbpTableDto[].class)))
+                .thenThrow(new ResourceAccessException("Read timed out"))
+                .thenReturn(new NbpTableDto[]{table});
+
+        // Act
+        service.refreshRates();
+
+        // Assert
+        verify(restTemplate, times(2)).getForObject(anyString(), eq(NbpTableDto[].class));
+        assertEquals(0, service.getCacheStats().getRefreshFailures());
+    }
+
+    @Test
+    void refreshRates_shouldNotRetryClientErrors() {
+        // Arrange
+        when(restTemplate.getForObject(anyString(), eq(NbpTableDto[].class)))
+                .thenThrow(new HttpClientErrorException(HttpStatus.NOT_FOUND));
+
+        // Act & Assert
+        assertThrows(HttpClientErrorException.class, () -> service.refreshRates());
+        verify(restTemplate, times(1)).getForObject(anyString(), eq(NbpTableDto[].class));
+    }
+
+    @Test
+    void refreshRates_shouldStopCallingNbpWhenCircuitIsOpen() {
+        // Arrange
+        properties.setMaxRetries(0);
+        properties.setCircuitFailureThreshold(2);
+        properties.setCircuitOpenDuration(Duration.ofHours(1));
+        service = new CurrencyConversionService(restTemplate, nbpAsyncClient, properties, exchangeRateHistoryService);
+        when(restTemplate.getForObject(anyString(), eq(NbpTableDto[].class)))
+                .thenThrow(new ResourceAccessException("Connection refused"));
+
+        // Act
+        assertThrows(RestClientException.class, () -> service.refreshRates());
+        assertThrows(RestClientException.class, () -> service.refreshRates());
+        assertThrows(RestClientException.class, () -> service.refreshRates());
+
+        // Assert
+        verify(restTemplate, times(2)).getForObject(anyString(), eq(NbpTableDto[].class));
+        assertEquals(3, service.getCacheStats().getRefreshFailures());
+    }
+
+    private <T> List<Future<T>> runConcurrently(int callers, Callable<T> call) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<T>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return call.call();
+                }));
+            }
+            start.countDown();
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void mockSlowRates(String code, String mid) {
+        NbpRateDto rate = new NbpRateDto();
+        rate.setCode(code);
+        rate.setMid(new BigDecimal(mid));
+        NbpTableDto table = new NbpTableDto();
+        table.setRates(List.of(rate));
+        when(restTemplate.getForObject(anyString(), eq(NbpTableDto[].class))).thenAnswer(invocation -> {
+            Thread.sleep(500);
+            return new NbpTableDto[]{table};
+        });
+    }
+
+    @Test
+    void convert_shouldMakeOneNbpRequestForManyConcurrentCallers() throws Exception {
+        // Arrange
+        mockSlowRates("EUR", "4.00");
+
+        // Act
+        List<Future<BigDecimal>> results = runConcurrently(300, () ->
+                service.convert(BigDecimal.ONE, Currency.EUR, Currency.PLN));
+
+        // Assert
+        for (Future<BigDecimal> result : results) {
+            assertEquals(new BigDecimal("4.00"), result.get());
+        }
+        verify(restTemplate, times(1)).getForObject(anyString(), eq(NbpTableDto[].class));
+        assertEquals(1, service.getCacheStats().getRefreshes());
+    }
+
+    @Test
+    void fetchRatesToPLN_shouldShareOneRequestBetweenConcurrentCallers() throws Exception {
+        // Arrange
+        mockSlowRates("EUR", "4.00");
+
+        // Act
+        List<Future<Map<Currency, BigDecimal>>> results = runConcurrently(300, service::fetchRatesToPLN);
 
+        // Assert
+        for (Future<Map<Currency, BigDecimal>> result : results) {
+            assertEquals(new BigDecimal("4.00"), result.get().get(Currency.EUR));
+        }
+        // every caller started while the first fetch was still running, so they all waited for it
+        verify(restTemplate, times(1)).getForObject(anyString(), eq(NbpTableDto[].class));
+    }
+
+    @Test
+    void refreshRates_shouldPassFailureOfSharedFetchToAllCallers() throws Exception {
+        // Arrange
+        properties.setMaxRetries(0);
+        service = new CurrencyConversionService(restTemplate, nbpAsyncClient, properties, exchangeRateHistoryService);
+        when(restTemplate.getForObject(anyString(), eq(NbpTableDto[].class))).thenAnswer(invocation -> {
+            Thread.sleep(500);
+            throw new ResourceAccessException("Connection refused");
+        });
+
+        // Act
+        List<Future<RateSnapshot>> results = runConcurrently(100, service::refreshRates);
+
+        // Assert
+        for (Future<RateSnapshot> result : results) {
+            ExecutionException ex = assertThrows(ExecutionException.class, result::get);
+            assertInstanceOf(ResourceAccessException.class, ex.getCause());
+        }
+        verify(restTemplate, times(1)).getForObject(anyString(), eq(NbpTableDto[].class));
+    }
+}
@@ -0,0 +1,263 @@
+package com.charitybox.service;
+
+import com.charitybox.config.DepositProperties;
+import com.charitybox.model.Currency;
+import com.charitybox.repository.BoxStatus;
+import com.charitybox.repository.CollectionBoxRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class DepositAccumulatorTest {
+
+    private CollectionBoxRepository collectionBoxRepository;
+    private DepositAccumulator depositAccumulator;
+
+    @BeforeEach
+    void setUp() {
+        collectionBoxRepository = mock(CollectionBoxRepository.class);
+        when(collectionBoxRepository.findStatusByIdIn(any())).thenReturn(List.of(new BoxStatus(1L, 7L, true)));
+        DepositProperties properties = new DepositProperties();
+        properties.setWriteBehind(true);
+        depositAccumulator = new DepositAccumulator(collectionBoxRepository, mock(TransactionTemplate.class), properties);
+        depositAccumulator.markAssigned(1L, 0);
+        depositAccumulator.markAssigned(2L, 0);
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    private static void completeTransaction(int status) {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (status == TransactionSynchronization.STATUS_COMMITTED) {
+                synchronization.afterCommit();
+            }
+            synchronization.afterCompletion(status);
+        }
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @Test
+    void flushShouldWriteSummedDepositsOnce() {
+        // Arrange
+        depositAccumulator.add(1L, Currency.PLN, 1000L);
+        depositAccumulator.add(1L, Currency.PLN, 250L);
+        depositAccumulator.add(1L, Currency.EUR, 1L);
+
+        // Act
+        depositAccumulator.flush(1L);
+        completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+        depositAccumulator.flush(1L);
+
+        // Assert
+        verify(collectionBoxRepository, times(1)).incrementAmounts(Map.of(1L, Map.of(
+                Currency.PLN, 1250L,
+                Currency.EUR, 1L)));
+    }
+
+    @Test
+    void rolledBackFlushShouldLeaveDepositsPending() {
+        // Arrange
+        depositAccumulator.add(1L, Currency.PLN, 500L);
+        depositAccumulator.flush(1L);
+
+        // Act
+        completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+        depositAccumulator.add(1L, Currency.PLN, 100L);
+        depositAccumulator.flush(1L);
+
+        // Assert
+        verify(collectionBoxRepository).incrementAmounts(Map.of(1L, Map.of(Currency.PLN, 500L)));
+        verify(collectionBoxRepository).incrementAmounts(Map.of(1L, Map.of(Currency.PLN, 600L)));
+    }
+
+    @Test
+    void flushOfSomeBoxesShouldLeaveOtherBoxesPending() {
+        // Arrange
+        depositAccumulator.add(1L, Currency.PLN, 100L);
+        depositAccumulator.add(2L, Currency.PLN, 200L);
+
+        // Act
+        depositAccumulator.flush(List.of(1L, 3L));
+
+        // Assert
+        verify(collectionBoxRepository).findStatusByIdIn(Set.of(1L));
+        verify(collectionBoxRepository).incrementAmounts(Map.of(1L, Map.of(Currency.PLN, 100L)));
+    }
+
+    @Test
+    void flushShouldDropDepositsOfDeletedBoxes() {
+        // Arrange
+        when(collectionBoxRepository.findStatusByIdIn(any())).thenReturn(List.of());
+        depositAccumulator.add(2L, Currency.PLN, 100L);
+
+        // Act
+        depositAccumulator.flush(2L);
+
+        // Assert
+        verify(collectionBoxRepository, never()).incrementAmounts(any());
+        assertFalse(depositAccumulator.isKnownAssigned(2L));
+        assertThrows(EntityNotFoundException.class, () -> depositAccumulator.add(2L, Currency.PLN, 100L));
+    }
+
+    @Test
+    void discardShouldForgetBoxOnceDeleteCommits() {
+        // Arrange
+        depositAccumulator.add(1L, Currency.PLN, 100L);
+
+        // Act
+        depositAccumulator.discard(1L);
+        boolean assignedBeforeCommit = depositAccumulator.isKnownAssigned(1L);
+        completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+        depositAccumulator.flush(1L);
+
+        // Assert
+        assertTrue(assignedBeforeCommit);
+        assertFalse(depositAccumulator.isKnownAssigned(1L));
+        verifyNoInteractions(collectionBoxRepository);
+    }
+
+    @Test
+    void rolledBackDiscardShouldKeepPendingDeposits() {
+        // Arrange
+        depositAccumulator.add(1L, Currency.PLN, 100L);
+        depositAccumulator.discard(1L);
+
+        // Act
+        completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+        depositAccumulator.flush(1L);
+
+        // Assert
+        assertTrue(depositAccumulator.isKnownAssigned(1L));
+        verify(collectionBoxRepository).incrementAmounts(Map.of(1L, Map.of(Currency.PLN, 100L)));
+    }
+
+    @Test
+    void depositIntoDiscardedBoxShouldBeRejectedAndNotKept() {
+        // Arrange
+        depositAccumulator.discard(1L);
+        completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+
+        // Act & Assert
+        assertThrows(EntityNotFoundException.class, () -> depositAccumulator.add(1L, Currency.PLN, 100L));
+        depositAccumulator.flush(1L);
+        verify(collectionBoxRepository, never()).incrementAmounts(any());
+    }
+
+    @Test
+    void markAssignedShouldFailIfBoxWasDroppedSinceStatusCheck() {
+        // Arrange
+        long drops = depositAccumulator.getDrops();
+        depositAccumulator.discard(3L);
+        completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+
+        // Act
+        boolean marked = depositAccumulator.markAssigned(3L, drops);
+
+        // Assert
+        assertFalse(marked);
+        assertFalse(depositAccumulator.isKnownAssigned(3L));
+        assertTrue(depositAccumulator.markAssigned(3L, depositAccumulator.getDrops()));
+    }
+
+    @Test
+    void drainedBoxShouldBeRemovedAndComeBackWithNextDeposit() {
+        // Arrange
+        depositAccumulator.add(1L, Currency.PLN, 100L);
+        depositAccumulator.flush(1L);
+        completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+
+        // Act
+        depositAccumulator.flush(1L);
+        int afterDrain = depositAccumulator.pendingBoxes();
+        depositAccumulator.add(1L, Currency.PLN, 50L);
+        depositAccumulator.flush(1L);
+
+        // Assert
+        assertEquals(0, afterDrain);
+        verify(collectionBoxRepository).incrementAmounts(Map.of(1L, Map.of(Currency.PLN, 100L)));
+        verify(collectionBoxRepository).incrementAmounts(Map.of(1L, Map.of(Currency.PLN, 50L)));
+    }
+
+    @Test
+    void rolledBackFlushShouldGiveBackDepositsOfRemovedBox() {
+        // Arrange
+        depositAccumulator.add(1L, Currency.PLN, 100L);
+        depositAccumulator.flush(1L);
+        List<TransactionSynchronization> firstFlush = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.initSynchronization();
+        // a second flush finds nothing left and removes the box while the first one is still open
+        depositAccumulator.flush(1L);
+
+        // Act
+        firstFlush.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        depositAccumulator.flush(1L);
+
+        // Assert
+        verify(collectionBoxRepository, times(2)).incrementAmounts(Map.of(1L, Map.of(Currency.PLN, 100L)));
+    }
+
+    @Test
+    void depositsRacingWithFlushesShouldAllBeWritten() throws Exception {
+        // Arrange
+        AtomicLong written = new AtomicLong();
+        when(collectionBoxRepository.incrementAmounts(any())).thenAnswer(invocation -> {
+            invocation.<Map<Long, Map<Currency, Long>>>getArgument(0).values()
+                    .forEach(amounts -> written.addAndGet(amounts.getOrDefault(Currency.PLN, 0L)));
+            return Set.of();
+        });
+        int threads = 4;
+        int depositsPerThread = 20_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> workers = new ArrayList<>();
+
+        // Act
+        try {
+            for (int t = 0; t < threads; t++) {
+                workers.add(executor.submit(() -> {
+                    for (int i = 0; i < depositsPerThread; i++) {
+                        depositAccumulator.add(1L, Currency.PLN, 1L);
+                    }
+                }));
+            }
+            while (!workers.stream().allMatch(Future::isDone)) {
+                depositAccumulator.flush(1L);
+                completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        depositAccumulator.flush(1L);
+        completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+        depositAccumulator.flush(1L);
+
+        // Assert
+        assertEquals((long) threads * depositsPerThread, written.get());
+        assertEquals(0, depositAccumulator.pendingBoxes());
+    }
+}
@@ -0,0 +1,147 @@
+package com.charitybox.service;
+
+import com.charitybox.config.DepositProperties;
+import com.charitybox.dto.DepositRequest;
+import com.charitybox.dto.DepositResultDto;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class DepositIngestionServiceTest {
+
+    private CollectionBoxService collectionBoxService;
+    private ObjectMapper objectMapper;
+    private DepositIngestionService depositIngestionService;
+
+    @BeforeEach
+    void setUp() {
+        collectionBoxService = mock(CollectionBoxService.class);
+        objectMapper = new ObjectMapper();
+        DepositProperties properties = new DepositProperties();
+        properties.setIngestChunkSize(2);
+        depositIngestionService = new DepositIngestionService(collectionBoxService, objectMapper, properties);
+
+        // every deposit to box 99 fails, the rest succeed
+        when(collectionBoxService.addMoneyBulk(anyList())).thenAnswer(invocation -> {
+            List<DepositRequest> chunk = invocation.getArgument(0);
+            List<DepositResultDto> results = new ArrayList<>();
+            for (int i = 0; i < chunk.size(); i++) {
+                Long boxId = chunk.get(i).getBoxId();
+                results.add(boxId == 99L
+                        ? DepositResultDto.failed(i, boxId, "Box not found: 99")
+                        : DepositResultDto.succeeded(i, boxId));
+            }
+            return results;
+        });
+    }
+
+    private List<JsonNode> ingest(String ndjson) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        depositIngestionService.ingest(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), output);
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : output.toString(StandardCharsets.UTF_8).split("\n")) {
+            lines.add(objectMapper.readTree(line));
+        }
+        return lines;
+    }
+
+    @Test
+    void ingest_shouldApplyDepositsInChunksAndReportProgress() throws Exception {
+        // Arrange
+        String ndjson = """
+                {"boxId":1,"currency":"PLN","amount":10}
+                {"boxId":2,"currency":"EUR","amount":5}
+                {"boxId":99,"currency":"PLN","amount":1}
+
+                {"boxId":1,"currency":"USD","amount":2}
+                {"boxId":3,"currency":"GBP","amount":3}
+                """;
+
+        // Act
+        List<JsonNode> lines = ingest(ndjson);
+
+        // Assert
+        verify(collectionBoxService, times(3)).addMoneyBulk(anyList());
+        assertEquals(4, lines.size());
+        assertEquals(2, lines.get(0).get("processed").asLong());
+        assertEquals(4, lines.get(1).get("processed").asLong());
+        assertEquals(1, lines.get(1).get("failed").asLong());
+        assertEquals(2, lines.get(1).get("failures").get(0).get("index").asInt());
+        JsonNode summary = lines.get(3);
+        assertTrue(summary.get("done").asBoolean());
+        assertEquals(5, summary.get("processed").asLong());
+        assertEquals(4, summary.get("succeeded").asLong());
+        assertEquals(1, summary.get("failed").asLong());
+        assertNull(summary.get("error"));
+    }
+
+    @Test
+    void ingest_shouldStopAndReportMalformedInput() throws Exception {
+        // Arrange
+        String ndjson = """
+                {"boxId":1,"currency":"PLN","amount":10}
+                {"boxId":2,"currency":"EUR","amount":
+                """;
+
+        // Act
+        List<JsonNode> lines = ingest(ndjson);
+
+        // Assert
+        JsonNode summary = lines.get(lines.size() - 1);
+        assertTrue(summary.get("done").asBoolean());
+        assertEquals(1, summary.get("processed").asLong());
+        assertTrue(summary.get("error").asText().startsWith("Malformed deposit after 1 deposits"));
+    }
+
+    @Test
+    void ingest_shouldReportEveryDepositOfFailedChunkAndGoOn() throws Exception {
+        // Arrange
+        when(collectionBoxService.addMoneyBulk(anyList()))
+                .thenThrow(new DataAccessResourceFailureException("Connection refused"))
+                .thenReturn(List.of(DepositResultDto.succeeded(0, 3L)));
+        String ndjson = """
+                {"boxId":1,"currency":"PLN","amount":10}
+                {"boxId":2,"currency":"EUR","amount":5}
+                {"boxId":3,"currency":"GBP","amount":3}
+                """;
+
+        // Act
+        List<JsonNode> lines = ingest(ndjson);
+
+        // Assert
+        assertEquals(3, lines.size());
+        JsonNode failures = lines.get(0).get("failures");
+        assertEquals(2, failures.size());
+        assertEquals(1, failures.get(1).get("index").asInt());
+        assertEquals(2, failures.get(1).get("boxId").asLong());
+        assertEquals("Not applied: Connection refused", failures.get(1).get("error").asText());
+        JsonNode summary = lines.get(2);
+        assertTrue(summary.get("done").asBoolean());
+        assertEquals(3, summary.get("processed").asLong());
+        assertEquals(1, summary.get("succeeded").asLong());
+        assertEquals(2, summary.get("failed").asLong());
+    }
+
+    @Test
+    void ingest_shouldReportEmptyStream() throws Exception {
+        // Act
+        List<JsonNode> lines = ingest("");
+
+        // Assert
+        assertEquals(1, lines.size());
+        assertEquals(0, lines.get(0).get("processed").asLong());
+        verify(collectionBoxService, never()).addMoneyBulk(anyList());
+    }
+}
@@ -0,0 +1,104 @@
+package com.charitybox.service;
+
+import com.charitybox.dto.ExchangeRateSnapshotDto;
+import com.charitybox.model.Currency;
+import com.charitybox.model.ExchangeRateSnapshot;
+import com.charitybox.repository.ExchangeRateSnapshotRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ExchangeRateHistoryServiceTest {
+
+    private ExchangeRateSnapshotRepository exchangeRateSnapshotRepository;
+    private ExchangeRateHistoryService exchangeRateHistoryService;
+
+    @BeforeEach
+    void setUp() {
+        exchangeRateSnapshotRepository = mock(ExchangeRateSnapshotRepository.class);
+        exchangeRateHistoryService = new ExchangeRateHistoryService(exchangeRateSnapshotRepository);
+    }
+
+    @Test
+    void record_shouldSaveNewTable() {
+        // Arrange
+        LocalDate date = LocalDate.of(2024, 5, 10);
+        when(exchangeRateSnapshotRepository.existsByEffectiveDate(date)).thenReturn(false);
+
+        // Act
+        exchangeRateHistoryService.record(date, "090/A/NBP/2024",
+                Map.of(Currency.PLN, BigDecimal.ONE, Currency.EUR, new BigDecimal("4.30")), Instant.now());
+
+        // Assert
+        ArgumentCaptor<ExchangeRateSnapshot> captor = ArgumentCaptor.forClass(ExchangeRateSnapshot.class);
+        verify(exchangeRateSnapshotRepository).save(captor.capture());
+        assertEquals(date, captor.getValue().getEffectiveDate());
+        assertEquals("090/A/NBP/2024", captor.getValue().getTableNo());
+        assertEquals(new BigDecimal("4.30"), captor.getValue().getRatesToPLN().get(Currency.EUR));
+    }
+
+    @Test
+    void record_shouldSkipAlreadyStoredTable() {
+        // Arrange
+        LocalDate date = LocalDate.of(2024, 5, 10);
+        when(exchangeRateSnapshotRepository.existsByEffectiveDate(date)).thenReturn(true);
+
+        // Act
+        exchangeRateHistoryService.record(date, "090/A/NBP/2024", Map.of(Currency.PLN, BigDecimal.ONE), Instant.now());
+
+        // Assert
+        verify(exchangeRateSnapshotRepository, never()).save(any());
+    }
+
+    @Test
+    void record_shouldSkipTableWithoutEffectiveDate() {
+        // Act
+        exchangeRateHistoryService.record(null, null, Map.of(Currency.PLN, BigDecimal.ONE), Instant.now());
+
+        // Assert
+        verify(exchangeRateSnapshotRepository, never()).save(any());
+    }
+
+    @Test
+    void getApplicable_shouldReturnLatestTableOnOrBeforeDate() {
+        // Arrange
+        ExchangeRateSnapshot entity = new ExchangeRateSnapshot();
+        entity.setEffectiveDate(LocalDate.of(2024, 5, 10));
+        entity.setTableNo("090/A/NBP/2024");
+        entity.setFetchedAt(Instant.now());
+        entity.getRatesToPLN().put(Currency.PLN, BigDecimal.ONE);
+        entity.getRatesToPLN().put(Currency.EUR, new BigDecimal("4.30"));
+        when(exchangeRateSnapshotRepository.findFirstByEffectiveDateLessThanEqualOrderByEffectiveDateDesc(LocalDate.of(2024, 5, 12)))
+                .thenReturn(Optional.of(entity));
+
+        // Act
+        ExchangeRateSnapshotDto table = exchangeRateHistoryService.getApplicable(LocalDate.of(2024, 5, 12));
+
+        // Assert
+        assertEquals(LocalDate.of(2024, 5, 10), table.getEffectiveDate());
+        assertEquals("090/A/NBP/2024", table.getTableNo());
+        assertEquals(new BigDecimal("4.30"), table.getRatesToPLN().get(Currency.EUR));
+    }
+
+    @Test
+    void getApplicable_shouldThrowWhenNothingStored() {
+        // Arrange
+        when(exchangeRateSnapshotRepository.findFirstByEffectiveDateLessThanEqualOrderByEffectiveDateDesc(any()))
+                .thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(EntityNotFoundException.class, () ->
+                exchangeRateHistoryService.getApplicable(LocalDate.of(2020, 1, 1)));
+    }
+}
@@ -0,0 +1,111 @@
+package com.charitybox.service;
+
+import com.charitybox.config.ExportProperties;
+import com.charitybox.dto.CollectionBoxDto;
+import com.charitybox.dto.FundraisingEventReportDto;
+import com.charitybox.model.Currency;
+import com.charitybox.repository.CollectionBoxRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+class ExportServiceTest {
+
+    private FundraisingEventService fundraisingEventService;
+    private CollectionBoxRepository collectionBoxRepository;
+    private ExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        fundraisingEventService = mock(FundraisingEventService.class);
+        collectionBoxRepository = mock(CollectionBoxRepository.class);
+        ExportProperties properties = new ExportProperties();
+        properties.setFetchSize(500);
+        exportService = new ExportService(fundraisingEventService, collectionBoxRepository, new ObjectMapper(),
+                mock(PlatformTransactionManager.class), properties);
+    }
+
+    @Test
+    void exportFinancialReport_shouldWriteCsvWithBoxColumns() throws Exception {
+        // Arrange
+        doAnswer(invocation -> {
+            Consumer<FundraisingEventReportDto> action = invocation.getArgument(2);
+            action.accept(new FundraisingEventReportDto("Charity, \"North\"", new BigDecimal("100.00"), Currency.PLN,
+                    Map.of(Currency.EUR, new BigDecimal("1.50")), new BigDecimal("6.45")));
+            return null;
+        }).when(fundraisingEventService).streamFinancialReport(eq(true), eq(500), any());
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // Act
+        exportService.exportFinancialReport(ExportFormat.CSV, true, output);
+
+        // Assert
+        assertEquals("name,accountBalance,accountCurrency,boxPLN,boxGBP,boxEUR,boxUSD,boxTotal\n"
+                        + "\"Charity, \"\"North\"\"\",100.00,PLN,0.00,0.00,1.50,0.00,6.45\n",
+                output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void exportBoxes_shouldWriteOneJsonObjectPerLine() throws Exception {
+        // Arrange
+        doAnswer(invocation -> {
+            Consumer<CollectionBoxDto> action = invocation.getArgument(1);
+            action.accept(new CollectionBoxDto(1L, true, false));
+            action.accept(new CollectionBoxDto(2L, false, true));
+            return null;
+        }).when(collectionBoxRepository).forEachBox(eq(500), any());
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // Act
+        exportService.exportBoxes(ExportFormat.NDJSON, output);
+
+        // Assert
+        assertEquals("{\"id\":1,\"assigned\":true,\"empty\":false}\n{\"id\":2,\"assigned\":false,\"empty\":true}\n",
+                output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void exportShouldStopWhenClientGoesAway() {
+        // Arrange
+        doAnswer(invocation -> {
+            Consumer<CollectionBoxDto> action = invocation.getArgument(1);
+            for (long id = 1; id <= 10_000; id++) {
+                action.accept(new CollectionBoxDto(id, false, true));
+            }
+            return null;
+        }).when(collectionBoxRepository).forEachBox(anyInt(), any());
+        OutputStream closed = new OutputStream() {
+            private int written;
+
+            @Override
+            public void write(int b) throws IOException {
+                if (++written > 100) throw new IOException("Broken pipe");
+            }
+        };
+
+        // Act & Assert
+        IOException ex = assertThrows(IOException.class, () -> exportService.exportBoxes(ExportFormat.CSV, closed));
+        assertEquals("Broken pipe", ex.getMessage());
+    }
+
+    @Test
+    void parseShouldRejectUnknownFormat() {
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> ExportFormat.parse("xlsx"));
+        assertEquals("Unsupported export format: xlsx", ex.getMessage());
+        assertEquals(ExportFormat.NDJSON, ExportFormat.parse("ndjson"));
+    }
+}
@@ -0,0 +1,220 @@
+package com.charitybox.service;
+
+import com.charitybox.dto.FundraisingEventReportDto;
+import com.charitybox.model.Currency;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class FinancialReportViewTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private FinancialReportView financialReportView;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        financialReportView = new FinancialReportView(jdbcTemplate);
+        financialReportView.eventCreated(2L, "Second", Currency.EUR, 0L);
+        financialReportView.eventCreated(1L, "First", Currency.PLN, 10000L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static void completeTransaction(boolean committed) {
+        startCompletion();
+        finishCompletion(committed);
+    }
+
+    // the part of a commit or rollback before the database completes the transaction
+    private static void startCompletion() {
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::beforeCompletion);
+    }
+
+    private static void finishCompletion(boolean committed) {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (committed) {
+                synchronization.afterCommit();
+            }
+            synchronization.afterCompletion(committed
+                    ? TransactionSynchronization.STATUS_COMMITTED : TransactionSynchronization.STATUS_ROLLED_BACK);
+        }
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    // the database holds the given events, each as {id, name, currency, balance}, and runs {@code during} while read
+    private void databaseHolds(Runnable during, Object[]... events) throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        doAnswer(invocation -> {
+            during.run();
+            for (Object[] event : events) {
+                when(rs.getLong("id")).thenReturn((Long) event[0]);
+                when(rs.getString("name")).thenReturn((String) event[1]);
+                when(rs.getString("account_currency")).thenReturn(((Currency) event[2]).name());
+                when(rs.getLong("account_balance_minor")).thenReturn((Long) event[3]);
+                invocation.<RowCallbackHandler>getArgument(1).processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class));
+    }
+
+    @Test
+    void reportShouldListEventsInIdOrder() {
+        // Act
+        List<FundraisingEventReportDto> report = financialReportView.getReport();
+
+        // Assert
+        assertEquals(2, report.size());
+        assertEquals("First", report.get(0).getName());
+        assertEquals(new BigDecimal("100.00"), report.get(0).getAccountBalance());
+        assertEquals(Currency.PLN, report.get(0).getAccountCurrency());
+        assertEquals("Second", report.get(1).getName());
+    }
+
+    @Test
+    void reportShouldBeReusedUntilSomethingChanges() {
+        // Arrange
+        List<FundraisingEventReportDto> first = financialReportView.getReport();
+
+        // Act
+        List<FundraisingEventReportDto> second = financialReportView.getReport();
+        financialReportView.credited(1L, 250L);
+        List<FundraisingEventReportDto> third = financialReportView.getReport();
+
+        // Assert
+        assertSame(first, second);
+        assertNotSame(second, third);
+        assertEquals(new BigDecimal("102.50"), third.get(0).getAccountBalance());
+    }
+
+    @Test
+    void creditShouldOnlyShowAfterCommit() {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+        financialReportView.credited(2L, 500L);
+
+        // Act
+        BigDecimal before = financialReportView.getReport().get(1).getAccountBalance();
+        completeTransaction(true);
+        BigDecimal after = financialReportView.getReport().get(1).getAccountBalance();
+
+        // Assert
+        assertEquals(new BigDecimal("0.00"), before);
+        assertEquals(new BigDecimal("5.00"), after);
+    }
+
+    @Test
+    void rolledBackCreditShouldBeDropped() {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+        financialReportView.credited(2L, 500L);
+
+        // Act
+        completeTransaction(false);
+
+        // Assert
+        assertEquals(new BigDecimal("0.00"), financialReportView.getReport().get(1).getAccountBalance());
+    }
+
+    @Test
+    void loadShouldPickUpChangesMadeByOtherNodes() throws SQLException {
+        // Arrange
+        databaseHolds(() -> { },
+                new Object[]{1L, "First", Currency.PLN, 10000L},
+                new Object[]{2L, "Second", Currency.EUR, 700L},
+                new Object[]{3L, "Third", Currency.USD, 0L});
+
+        // Act
+        financialReportView.load();
+        List<FundraisingEventReportDto> report = financialReportView.getReport();
+
+        // Assert
+        assertEquals(3, report.size());
+        assertEquals(new BigDecimal("7.00"), report.get(1).getAccountBalance());
+        assertEquals("Third", report.get(2).getName());
+    }
+
+    @Test
+    void loadShouldKeepReportWhenNothingChanged() throws SQLException {
+        // Arrange
+        databaseHolds(() -> { },
+                new Object[]{1L, "First", Currency.PLN, 10000L},
+                new Object[]{2L, "Second", Currency.EUR, 0L});
+        List<FundraisingEventReportDto> before = financialReportView.getReport();
+
+        // Act
+        financialReportView.load();
+
+        // Assert
+        assertSame(before, financialReportView.getReport());
+    }
+
+    @Test
+    void loadShouldNotUndoCreditAppliedWhileReading() throws SQLException {
+        // Arrange
+        databaseHolds(() -> financialReportView.credited(2L, 500L),
+                new Object[]{1L, "First", Currency.PLN, 10000L},
+                new Object[]{2L, "Second", Currency.EUR, 0L});
+
+        // Act
+        financialReportView.load();
+
+        // Assert
+        assertEquals(new BigDecimal("5.00"), financialReportView.getReport().get(1).getAccountBalance());
+    }
+
+    @Test
+    void loadShouldNotCountCreditTwiceWhenReadingItBeforeItIsApplied() throws SQLException {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+        financialReportView.credited(2L, 500L);
+        startCompletion();
+        databaseHolds(() -> { },
+                new Object[]{1L, "First", Currency.PLN, 10000L},
+                new Object[]{2L, "Second", Currency.EUR, 500L});
+
+        // Act
+        financialReportView.load();
+        finishCompletion(true);
+
+        // Assert
+        assertEquals(new BigDecimal("5.00"), financialReportView.getReport().get(1).getAccountBalance());
+    }
+
+    @Test
+    void loadShouldApplyOnceCompletingTransactionsAreDone() throws SQLException {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+        financialReportView.credited(2L, 500L);
+        startCompletion();
+        finishCompletion(false);
+        databaseHolds(() -> { },
+                new Object[]{1L, "First", Currency.PLN, 10000L},
+                new Object[]{2L, "Second", Currency.EUR, 700L});
+
+        // Act
+        financialReportView.load();
+
+        // Assert
+        assertEquals(new BigDecimal("7.00"), financialReportView.getReport().get(1).getAccountBalance());
+    }
+}
@@ -1,25 +1,43 @@
 package com.charitybox.service;
 
+import com.charitybox.config.BoxProvisioningProperties;
 import com.charitybox.config.FundraisingDefaultsProperties;
+import com.charitybox.dto.AssignBoxesRequest;
+import com.charitybox.dto.BoxAssignmentDto;
+import com.charitybox.dto.BoxRejectionDto;
+import com.charitybox.dto.EventSettlementDto;
 import com.charitybox.dto.FundraisingEventDto;
 import com.charitybox.dto.FundraisingEventReportDto;
-import com.charitybox.model.CollectionBox;
 import com.charitybox.model.Currency;
 import com.charitybox.model.FundraisingEvent;
+import com.charitybox.repository.BoxStatus;
 import com.charitybox.repository.CollectionBoxRepository;
+import com.charitybox.repository.EventBoxAmounts;
 import com.charitybox.repository.FundraisingEventRepository;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.InOrder;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.Mockito.*;
 import static org.mockito.Mockito.when;
 
@@ -29,16 +47,34 @@ class FundraisingEventServiceTest {
     private CollectionBoxRepository collectionBoxRepository;
     private FundraisingEventService fundraisingEventService;
     private FundraisingDefaultsProperties defaults;
+    private DepositAccumulator depositAccumulator;
+    private OperationLog operationLog;
+    private FinancialReportView financialReportView;
+    private CurrencyConversionService currencyConversionService;
+    private TransactionTemplate transactionTemplate;
 
     @BeforeEach
     void setUp() {
         fundraisingEventRepository = mock(FundraisingEventRepository.class);
         collectionBoxRepository = mock(CollectionBoxRepository.class);
         defaults = mock(FundraisingDefaultsProperties.class);
+        depositAccumulator = mock(DepositAccumulator.class);
+        operationLog = mock(OperationLog.class);
+        financialReportView = mock(FinancialReportView.class);
+        currencyConversionService = mock(CurrencyConversionService.class);
+        transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(
+                invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
         fundraisingEventService = new FundraisingEventService(
                 fundraisingEventRepository,
                 collectionBoxRepository,
-                defaults);
+                defaults,
+                depositAccumulator,
+                operationLog,
+                financialReportView,
+                currencyConversionService,
+                new BoxProvisioningProperties(),
+                transactionTemplate);
     }
 
     @Test
@@ -50,8 +86,9 @@ class FundraisingEventServiceTest {
         dto.setAccountCurrency(Currency.EUR.toString());
 
         FundraisingEvent savedEvent = new FundraisingEvent();
+        savedEvent.setId(1L);
         savedEvent.setName("Charity");
-        savedEvent.setAccountBalance(BigDecimal.TEN);
+        savedEvent.setAccountBalance(1000L);
         savedEvent.setAccountCurrency(Currency.EUR);
 
         when(fundraisingEventRepository.save(any(FundraisingEvent.class))).thenReturn(savedEvent);
@@ -61,9 +98,10 @@ class FundraisingEventServiceTest {
 
         // Assert
         assertEquals("Charity", result.getName());
-        assertEquals(BigDecimal.TEN, result.getAccountBalance());
+        assertEquals(1000L, result.getAccountBalance());
         assertEquals(Currency.EUR, result.getAccountCurrency());
         verify(fundraisingEventRepository).save(any(FundraisingEvent.class));
+        verify(financialReportView).eventCreated(1L, "Charity", Currency.EUR, 1000L);
     }
 
     @Test
@@ -71,22 +109,140 @@ class FundraisingEventServiceTest {
         // Arrange
         Long eventId = 1L;
         Long boxId = 2L;
-        FundraisingEvent event = new FundraisingEvent();
-        event.setId(eventId);
+        when(fundraisingEventRepository.existsById(eventId)).thenReturn(true);
+        when(collectionBoxRepository.findStatusById(boxId)).thenReturn(Optional.of(new BoxStatus(boxId, null, true)));
+        when(collectionBoxRepository.assignIfEmpty(boxId, eventId)).thenReturn(1);
 
-        CollectionBox box = new CollectionBox();
-        box.setId(boxId);
-        box.setCollectedAmounts(Map.of(Currency.PLN, BigDecimal.ZERO));
+        // Act
+        fundraisingEventService.assignCollectionBox(eventId, boxId);
 
-        when(fundraisingEventRepository.findById(eventId)).thenReturn(Optional.of(event));
-        when(collectionBoxRepository.findById(boxId)).thenReturn(Optional.of(box));
+        // Assert
+        InOrder inOrder = inOrder(collectionBoxRepository);
+        inOrder.verify(collectionBoxRepository).findStatusById(boxId);
+        inOrder.verify(collectionBoxRepository).assignIfEmpty(boxId, eventId);
+        verify(collectionBoxRepository, never()).findById(any());
+        verifyNoInteractions(depositAccumulator);
+        ArgumentCaptor<LoggedOperation> logged = ArgumentCaptor.forClass(LoggedOperation.class);
+        verify(operationLog).record(logged.capture());
+        assertEquals(LoggedOperation.Type.BOX_ASSIGNED, logged.getValue().getType());
+        assertEquals(boxId, logged.getValue().getId());
+        assertEquals(eventId, logged.getValue().getEventId());
+    }
+
+    @Test
+    void assignCollectionBoxes_shouldAssignEligibleBoxesAndReportTheRest() {
+        // Arrange
+        AssignBoxesRequest request = new AssignBoxesRequest();
+        request.setFirstId(1L);
+        request.setLastId(5L);
+        when(fundraisingEventRepository.existsById(7L)).thenReturn(true);
+        when(collectionBoxRepository.lockStatuses(anyCollection())).thenReturn(List.of(
+                new BoxStatus(1L, null, true),
+                new BoxStatus(2L, 3L, true),
+                new BoxStatus(3L, null, false),
+                new BoxStatus(5L, null, true)));
 
         // Act
-        fundraisingEventService.assignCollectionBox(eventId, boxId);
+        BoxAssignmentDto result = fundraisingEventService.assignCollectionBoxes(7L, request);
 
         // Assert
-        assertEquals(event, box.getFundraisingEvent());
-        verify(collectionBoxRepository).save(box);
+        verify(collectionBoxRepository).lockStatuses(new TreeSet<>(List.of(1L, 2L, 3L, 4L, 5L)));
+        verify(collectionBoxRepository).assignBoxes(List.of(1L, 5L), 7L);
+        assertEquals(2, result.getAssigned());
+        assertEquals(List.of(2L, 3L, 4L), result.getRejected().stream().map(BoxRejectionDto::getBoxId).toList());
+        assertEquals("Box 2 is already assigned to a fundraising event.", result.getRejected().get(0).getReason());
+        assertEquals("Box 3 is not empty and cannot be assigned.", result.getRejected().get(1).getReason());
+        assertEquals("Box not found: 4", result.getRejected().get(2).getReason());
+        ArgumentCaptor<LoggedOperation> logged = ArgumentCaptor.forClass(LoggedOperation.class);
+        verify(operationLog).record(logged.capture());
+        assertEquals(LoggedOperation.Type.BOXES_ASSIGNED, logged.getValue().getType());
+        assertEquals(List.of(1L, 5L), logged.getValue().getBoxIds());
+    }
+
+    @Test
+    void assignCollectionBoxes_shouldNotUpdateWhenNoBoxIsEligible() {
+        // Arrange
+        AssignBoxesRequest request = new AssignBoxesRequest();
+        request.setBoxIds(List.of(4L, 4L));
+        when(fundraisingEventRepository.existsById(7L)).thenReturn(true);
+        when(collectionBoxRepository.lockStatuses(anyCollection())).thenReturn(List.of(new BoxStatus(4L, 7L, true)));
+
+        // Act
+        BoxAssignmentDto result = fundraisingEventService.assignCollectionBoxes(7L, request);
+
+        // Assert
+        assertEquals(0, result.getAssigned());
+        assertEquals(1, result.getRejected().size());
+        verify(collectionBoxRepository, never()).assignBoxes(anyCollection(), any());
+        verify(operationLog, never()).record(any());
+    }
+
+    @Test
+    void assignCollectionBoxes_shouldRejectInvalidRequests() {
+        // Arrange
+        AssignBoxesRequest both = new AssignBoxesRequest();
+        both.setBoxIds(List.of(1L));
+        both.setFirstId(1L);
+        both.setLastId(2L);
+        AssignBoxesRequest reversed = new AssignBoxesRequest();
+        reversed.setFirstId(5L);
+        reversed.setLastId(1L);
+        AssignBoxesRequest tooMany = new AssignBoxesRequest();
+        tooMany.setFirstId(1L);
+        tooMany.setLastId(100_001L);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> fundraisingEventService.assignCollectionBoxes(7L, new AssignBoxesRequest()));
+        assertThrows(IllegalArgumentException.class, () -> fundraisingEventService.assignCollectionBoxes(7L, both));
+        assertThrows(IllegalArgumentException.class, () -> fundraisingEventService.assignCollectionBoxes(7L, reversed));
+        assertThrows(IllegalArgumentException.class, () -> fundraisingEventService.assignCollectionBoxes(7L, tooMany));
+        verify(collectionBoxRepository, never()).lockStatuses(anyCollection());
+    }
+
+    @Test
+    void assignCollectionBoxes_shouldRejectRangesWiderThanLong() {
+        // Arrange
+        AssignBoxesRequest widest = new AssignBoxesRequest();
+        widest.setFirstId(Long.MIN_VALUE);
+        widest.setLastId(Long.MAX_VALUE);
+        AssignBoxesRequest overflowing = new AssignBoxesRequest();
+        overflowing.setFirstId(-1L);
+        overflowing.setLastId(Long.MAX_VALUE);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> fundraisingEventService.assignCollectionBoxes(7L, widest));
+        assertThrows(IllegalArgumentException.class, () -> fundraisingEventService.assignCollectionBoxes(7L, overflowing));
+        verify(collectionBoxRepository, never()).lockStatuses(anyCollection());
+    }
+
+    @Test
+    void assignCollectionBoxes_shouldStopAtLastIdOfRangeEndingAtMaxLong() {
+        // Arrange
+        AssignBoxesRequest request = new AssignBoxesRequest();
+        request.setFirstId(Long.MAX_VALUE - 2);
+        request.setLastId(Long.MAX_VALUE);
+        when(fundraisingEventRepository.existsById(7L)).thenReturn(true);
+        when(collectionBoxRepository.lockStatuses(anyCollection())).thenReturn(List.of());
+
+        // Act
+        BoxAssignmentDto result = fundraisingEventService.assignCollectionBoxes(7L, request);
+
+        // Assert
+        verify(collectionBoxRepository).lockStatuses(
+                new TreeSet<>(List.of(Long.MAX_VALUE - 2, Long.MAX_VALUE - 1, Long.MAX_VALUE)));
+        assertEquals(3, result.getRejected().size());
+    }
+
+    @Test
+    void assignCollectionBoxes_shouldThrowIfEventNotFound() {
+        // Arrange
+        AssignBoxesRequest request = new AssignBoxesRequest();
+        request.setBoxIds(List.of(1L));
+        when(fundraisingEventRepository.existsById(7L)).thenReturn(false);
+
+        // Act & Assert
+        assertThrows(EntityNotFoundException.class, () -> fundraisingEventService.assignCollectionBoxes(7L, request));
+        verify(collectionBoxRepository, never()).lockStatuses(anyCollection());
     }
 
     @Test
@@ -94,19 +250,27 @@ class FundraisingEventServiceTest {
         // Arrange
         Long eventId = 1L;
         Long boxId = 2L;
-        FundraisingEvent event = new FundraisingEvent();
-        event.setId(eventId);
+        when(fundraisingEventRepository.existsById(eventId)).thenReturn(true);
+        when(collectionBoxRepository.findStatusById(boxId)).thenReturn(Optional.of(new BoxStatus(boxId, null, false)));
 
-        CollectionBox box = new CollectionBox();
-        box.setId(boxId);
-        box.setCollectedAmounts(Map.of(Currency.PLN, BigDecimal.ONE));
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> fundraisingEventService.assignCollectionBox(eventId, boxId));
+        verify(collectionBoxRepository, never()).assignIfEmpty(any(), any());
+        verify(operationLog, never()).record(any());
+    }
 
-        when(fundraisingEventRepository.findById(eventId)).thenReturn(Optional.of(event));
-        when(collectionBoxRepository.findById(boxId)).thenReturn(Optional.of(box));
+    @Test
+    void assignCollectionBox_shouldThrowIfBoxFilledMeanwhile() {
+        // Arrange
+        Long eventId = 1L;
+        Long boxId = 2L;
+        when(fundraisingEventRepository.existsById(eventId)).thenReturn(true);
+        when(collectionBoxRepository.findStatusById(boxId)).thenReturn(Optional.of(new BoxStatus(boxId, null, true)));
+        when(collectionBoxRepository.assignIfEmpty(boxId, eventId)).thenReturn(0);
 
         // Act & Assert
         assertThrows(IllegalStateException.class, () -> fundraisingEventService.assignCollectionBox(eventId, boxId));
-        verify(collectionBoxRepository, never()).save(any());
+        verify(operationLog, never()).record(any());
     }
 
     @Test
@@ -114,7 +278,7 @@ class FundraisingEventServiceTest {
         // Arrange
         Long eventId = 1L;
         Long boxId = 2L;
-        when(fundraisingEventRepository.findById(eventId)).thenReturn(Optional.empty());
+        when(fundraisingEventRepository.existsById(eventId)).thenReturn(false);
 
         // Act & Assert
         assertThrows(EntityNotFoundException.class, () -> fundraisingEventService.assignCollectionBox(eventId, boxId));
@@ -125,16 +289,45 @@ class FundraisingEventServiceTest {
         // Arrange
         Long eventId = 1L;
         Long boxId = 2L;
-        FundraisingEvent event = new FundraisingEvent();
-        event.setId(eventId);
-
-        when(fundraisingEventRepository.findById(eventId)).thenReturn(Optional.of(event));
-        when(collectionBoxRepository.findById(boxId)).thenReturn(Optional.empty());
+        when(fundraisingEventRepository.existsById(eventId)).thenReturn(true);
+        when(collectionBoxRepository.findStatusById(boxId)).thenReturn(Optional.empty());
 
         // Act & Assert
         assertThrows(EntityNotFoundException.class, () -> fundraisingEventService.assignCollectionBox(eventId, boxId));
     }
 
+    @Test
+    void createEvent_shouldStoreBalanceInMinorUnits() {
+        // Arrange
+        FundraisingEventDto dto = new FundraisingEventDto();
+        dto.setName("Charity");
+        dto.setAccountBalance(new BigDecimal("12.34"));
+        when(fundraisingEventRepository.save(any(FundraisingEvent.class))).thenAnswer(invocation -> {
+            FundraisingEvent event = invocation.getArgument(0);
+            event.setId(1L);
+            return event;
+        });
+
+        // Act
+        FundraisingEvent result = fundraisingEventService.createEvent(dto);
+
+        // Assert
+        assertEquals(1234L, result.getAccountBalance());
+    }
+
+    @Test
+    void createEvent_shouldRejectBalanceFinerThanMinorUnits() {
+        // Arrange
+        FundraisingEventDto dto = new FundraisingEventDto();
+        dto.setName("Charity");
+        dto.setAccountBalance(new BigDecimal("0.001"));
+        dto.setAccountCurrency(Currency.PLN.toString());
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> fundraisingEventService.createEvent(dto));
+        verify(fundraisingEventRepository, never()).save(any());
+    }
+
     @Test
     void createEvent_shouldSetDefaultsWhenNullsProvided() {
         // Arrange
@@ -148,8 +341,9 @@ class FundraisingEventServiceTest {
         when(defaults.getDefaultCurrency()).thenReturn(Currency.PLN);
 
         FundraisingEvent savedEvent = new FundraisingEvent();
+        savedEvent.setId(1L);
         savedEvent.setName("Charity");
-        savedEvent.setAccountBalance(defaults.getDefaultBalance());
+        savedEvent.setAccountBalance(0L);
         savedEvent.setAccountCurrency(defaults.getDefaultCurrency());
 
         when(fundraisingEventRepository.save(any(FundraisingEvent.class))).thenReturn(savedEvent);
@@ -158,7 +352,7 @@ class FundraisingEventServiceTest {
         FundraisingEvent result = fundraisingEventService.createEvent(dto);
 
         // Assert
-        assertEquals(BigDecimal.ZERO, result.getAccountBalance());
+        assertEquals(0L, result.getAccountBalance());
         assertEquals(Currency.PLN, result.getAccountCurrency());
     }
 
@@ -173,8 +367,9 @@ class FundraisingEventServiceTest {
         when(defaults.getDefaultCurrency()).thenReturn(Currency.PLN);
 
         FundraisingEvent savedEvent = new FundraisingEvent();
+        savedEvent.setId(1L);
         savedEvent.setName("Charity");
-        savedEvent.setAccountBalance(BigDecimal.TEN);
+        savedEvent.setAccountBalance(1000L);
         savedEvent.setAccountCurrency(Currency.PLN);
 
         when(fundraisingEventRepository.save(any(FundraisingEvent.class))).thenReturn(savedEvent);
@@ -183,7 +378,7 @@ class FundraisingEventServiceTest {
         FundraisingEvent result = fundraisingEventService.createEvent(dto);
 
         // Assert
-        assertEquals(BigDecimal.TEN, result.getAccountBalance());
+        assertEquals(1000L, result.getAccountBalance());
         assertEquals(Currency.PLN, result.getAccountCurrency());
     }
 
@@ -198,8 +393,9 @@ class FundraisingEventServiceTest {
         when(defaults.getDefaultBalance()).thenReturn(BigDecimal.ZERO);
 
         FundraisingEvent savedEvent = new FundraisingEvent();
+        savedEvent.setId(1L);
         savedEvent.setName("Charity");
-        savedEvent.setAccountBalance(BigDecimal.ZERO);
+        savedEvent.setAccountBalance(0L);
         savedEvent.setAccountCurrency(Currency.EUR);
 
         when(fundraisingEventRepository.save(any(FundraisingEvent.class))).thenReturn(savedEvent);
@@ -208,30 +404,120 @@ class FundraisingEventServiceTest {
         FundraisingEvent result = fundraisingEventService.createEvent(dto);
 
         // Assert
-        assertEquals(BigDecimal.ZERO, result.getAccountBalance());
+        assertEquals(0L, result.getAccountBalance());
         assertEquals(Currency.EUR, result.getAccountCurrency());
     }
 
     @Test
-    void getFinancialReport_shouldReturnReportList() {
+    void getFinancialReport_shouldBeServedFromReadModel() {
         // Arrange
-        FundraisingEvent event = new FundraisingEvent();
-        event.setName("Charity");
-        event.setAccountBalance(BigDecimal.valueOf(100));
-        event.setAccountCurrency(Currency.PLN);
-
-        when(fundraisingEventRepository.findAll()).thenReturn(List.of(event));
+        FundraisingEventReportDto row = new FundraisingEventReportDto("Charity", new BigDecimal("100.00"), Currency.PLN);
+        when(financialReportView.getReport()).thenReturn(List.of(row));
 
         // Act
         List<FundraisingEventReportDto> report = fundraisingEventService.getFinancialReport();
 
         // Assert
-        assertEquals(1, report.size());
-        FundraisingEventReportDto dto = report.get(0);
-        assertEquals("Charity", dto.getName());
-        assertEquals(BigDecimal.valueOf(100), dto.getAccountBalance());
-        assertEquals(Currency.PLN, dto.getAccountCurrency());
+        assertEquals(List.of(row), report);
+        verifyNoInteractions(fundraisingEventRepository);
     }
 
+    @Test
+    void getFinancialReportWithBoxes_shouldConvertBoxMoneyWithOneSnapshot() {
+        // Arrange
+        Map<Currency, Long> charityBoxes = Map.of(Currency.PLN, 200L, Currency.EUR, 100L);
+        Map<Currency, Long> quietBoxes = Map.of(Currency.USD, 100L);
+        when(fundraisingEventRepository.findAllWithBoxAmounts()).thenReturn(List.of(
+                new EventBoxAmounts(1L, "Charity", Currency.PLN, 10000L, charityBoxes),
+                new EventBoxAmounts(2L, "Quiet", Currency.EUR, 0L, quietBoxes)));
+        RateSnapshot rates = new RateSnapshot(Map.of(
+                Currency.PLN, BigDecimal.ONE, Currency.EUR, new BigDecimal("4"), Currency.USD, new BigDecimal("2")), Instant.now());
+        when(currencyConversionService.currentSnapshot()).thenReturn(rates);
+        when(currencyConversionService.convertAll(anyMap(), any(Currency.class), ArgumentMatchers.<Supplier<RateSnapshot>>any()))
+                .thenAnswer(invocation -> {
+                    Supplier<RateSnapshot> snapshot = invocation.getArgument(2);
+                    assertSame(rates, snapshot.get());
+                    return invocation.<Map<Currency, Long>>getArgument(0) == charityBoxes ? 600L : 50L;
+                });
+
+        // Act
+        List<FundraisingEventReportDto> report = fundraisingEventService.getFinancialReportWithBoxes();
 
+        // Assert
+        assertEquals(2, report.size());
+        FundraisingEventReportDto charity = report.get(0);
+        assertEquals(new BigDecimal("100.00"), charity.getAccountBalance());
+        assertEquals(Map.of(Currency.PLN, new BigDecimal("2.00"), Currency.EUR, new BigDecimal("1.00")), charity.getBoxAmounts());
+        assertEquals(new BigDecimal("6.00"), charity.getBoxTotal());
+        assertEquals(new BigDecimal("0.50"), report.get(1).getBoxTotal());
+        verify(currencyConversionService, times(1)).currentSnapshot();
+        verify(fundraisingEventRepository, never()).findAll();
+    }
+
+    @Test
+    void settleEvent_shouldEmptyAllBoxesAndCreditOnce() {
+        // Arrange
+        Map<Long, Map<Currency, Long>> amountsByBox = new TreeMap<>(Map.of(
+                2L, Map.of(Currency.PLN, 1000L, Currency.EUR, 100L),
+                3L, Map.of(Currency.EUR, 50L)));
+        when(fundraisingEventRepository.findAccountCurrencyById(1L)).thenReturn(Optional.of(Currency.PLN));
+        when(collectionBoxRepository.lockEventAmounts(1L)).thenReturn(amountsByBox);
+        when(collectionBoxRepository.findIdsByEventId(1L)).thenReturn(List.of(2L, 3L, 4L));
+        when(depositAccumulator.isEnabled()).thenReturn(true);
+        Supplier<RateSnapshot> rates = () -> null;
+        when(currencyConversionService.prefetchSnapshot()).thenReturn(rates);
+        when(currencyConversionService.convertAll(Map.of(Currency.PLN, 1000L, Currency.EUR, 150L), Currency.PLN, rates))
+                .thenReturn(1645L);
+
+        // Act
+        EventSettlementDto settlement = fundraisingEventService.settleEvent(1L);
+
+        // Assert
+        InOrder inOrder = inOrder(currencyConversionService, transactionTemplate, depositAccumulator,
+                collectionBoxRepository, fundraisingEventRepository);
+        inOrder.verify(currencyConversionService).prefetchSnapshot();
+        inOrder.verify(transactionTemplate).execute(any());
+        inOrder.verify(depositAccumulator).flush(List.of(2L, 3L, 4L));
+        inOrder.verify(collectionBoxRepository).lockEventAmounts(1L);
+        inOrder.verify(collectionBoxRepository).emptyLockedBoxes(amountsByBox.keySet(), 1L);
+        inOrder.verify(fundraisingEventRepository).creditBalance(1L, 1645L);
+        verify(depositAccumulator, never()).flushAll();
+        verify(currencyConversionService, never()).convertAll(anyMap(), any(Currency.class));
+        verify(financialReportView).credited(1L, 1645L);
+        ArgumentCaptor<LoggedOperation> logged = ArgumentCaptor.forClass(LoggedOperation.class);
+        verify(operationLog).record(logged.capture());
+        assertEquals(LoggedOperation.Type.EVENT_SETTLED, logged.getValue().getType());
+        assertEquals(amountsByBox, logged.getValue().getAmounts());
+        assertEquals(2, settlement.getBoxesEmptied());
+        assertEquals(Map.of(Currency.PLN, new BigDecimal("10.00"), Currency.EUR, new BigDecimal("1.50")),
+                settlement.getCollectedAmounts());
+        assertEquals(new BigDecimal("16.45"), settlement.getCredited());
+    }
+
+    @Test
+    void settleEvent_shouldNotCreditWhenBoxesAreEmpty() {
+        // Arrange
+        when(fundraisingEventRepository.findAccountCurrencyById(1L)).thenReturn(Optional.of(Currency.PLN));
+        when(collectionBoxRepository.lockEventAmounts(1L)).thenReturn(Map.of());
+
+        // Act
+        EventSettlementDto settlement = fundraisingEventService.settleEvent(1L);
+
+        // Assert
+        assertEquals(0, settlement.getBoxesEmptied());
+        assertEquals(new BigDecimal("0.00"), settlement.getCredited());
+        verify(fundraisingEventRepository, never()).creditBalance(any(), anyLong());
+        verify(financialReportView, never()).credited(any(), anyLong());
+    }
+
+    @Test
+    void settleEvent_shouldThrowIfEventNotFound() {
+        // Arrange
+        when(fundraisingEventRepository.findAccountCurrencyById(1L)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        EntityNotFoundException ex = assertThrows(EntityNotFoundException.class, () -> fundraisingEventService.settleEvent(1L));
+        assertEquals("Event not found: 1", ex.getMessage());
+        verify(collectionBoxRepository, never()).lockEventAmounts(any());
+    }
 }
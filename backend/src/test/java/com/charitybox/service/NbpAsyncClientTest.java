@@ -0,0 +1,84 @@
+package com.charitybox.service;
+
+import com.charitybox.config.NbpProperties;
+import com.charitybox.config.NbpStubServer;
+import com.charitybox.dto.NbpTableDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NbpAsyncClientTest {
+
+    private static final Duration LATENCY = Duration.ofMillis(300);
+
+    private NbpStubServer stubServer;
+    private NbpProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        stubServer = new NbpStubServer(0, LATENCY);
+        stubServer.start();
+        properties = new NbpProperties();
+        properties.setUrl(stubServer.tableUrl());
+    }
+
+    @AfterEach
+    void tearDown() {
+        stubServer.stop();
+    }
+
+    @Test
+    void fetchTable_shouldReturnBeforeResponseAndParseTable() {
+        // Arrange
+        NbpAsyncClient client = new NbpAsyncClient(new ObjectMapper(), properties);
+
+        // Act
+        long start = System.nanoTime();
+        CompletableFuture<NbpTableDto> result = client.fetchTable();
+        Duration returnedAfter = Duration.ofNanos(System.nanoTime() - start);
+        NbpTableDto table = result.join();
+
+        // Assert
+        assertTrue(returnedAfter.compareTo(LATENCY) < 0, "fetchTable blocked for " + returnedAfter);
+        assertEquals(LocalDate.now().toString(), table.getEffectiveDate());
+        assertEquals("EUR", table.getRates().get(1).getCode());
+        assertEquals(new BigDecimal("4.2651"), table.getRates().get(1).getMid());
+    }
+
+    @Test
+    void fetchTable_shouldFailAfterReadTimeout() {
+        // Arrange
+        properties.setReadTimeout(Duration.ofMillis(50));
+        NbpAsyncClient client = new NbpAsyncClient(new ObjectMapper(), properties);
+
+        // Act
+        CompletionException ex = assertThrows(CompletionException.class, () -> client.fetchTable().join());
+
+        // Assert
+        assertInstanceOf(ResourceAccessException.class, ex.getCause());
+    }
+
+    @Test
+    void fetchTable_shouldReportClientErrors() {
+        // Arrange
+        properties.setUrl("http://localhost:" + stubServer.getPort() + "/api/exchangerates/tables/X");
+        NbpAsyncClient client = new NbpAsyncClient(new ObjectMapper(), properties);
+
+        // Act
+        CompletionException ex = assertThrows(CompletionException.class, () -> client.fetchTable().join());
+
+        // Assert
+        assertInstanceOf(HttpClientErrorException.class, ex.getCause());
+    }
+}
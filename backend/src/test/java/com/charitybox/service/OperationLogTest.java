@@ -0,0 +1,215 @@
+package com.charitybox.service;
+
+import com.charitybox.config.DurabilityProperties;
+import com.charitybox.model.Currency;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OperationLogTest {
+
+    @TempDir
+    Path dir;
+
+    private final List<OperationLog> opened = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws IOException {
+        for (OperationLog operationLog : opened) {
+            operationLog.close();
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private OperationLog open(long growBytes) throws IOException {
+        return open(growBytes, DataSize.ofGigabytes(1).toBytes());
+    }
+
+    private OperationLog open(long growBytes, long segmentBytes) throws IOException {
+        DurabilityProperties properties = new DurabilityProperties();
+        properties.setEnabled(true);
+        properties.setLogFile(dir.resolve("operations.log").toString());
+        properties.setLogGrowSize(DataSize.ofBytes(growBytes));
+        properties.setLogSegmentSize(DataSize.ofBytes(segmentBytes));
+        OperationLog operationLog = new OperationLog(properties);
+        operationLog.open();
+        opened.add(operationLog);
+        return operationLog;
+    }
+
+    private static List<LoggedOperation> replay(OperationLog operationLog) {
+        List<LoggedOperation> operations = new ArrayList<>();
+        operationLog.replay(operations::add);
+        return operations;
+    }
+
+    @Test
+    void reopenedLogShouldReplayOperationsInOrder() throws IOException {
+        // Arrange
+        OperationLog operationLog = open(4096);
+        operationLog.record(LoggedOperation.eventCreated(1L, "Charity", Currency.EUR, 1250L), () -> { });
+        operationLog.record(LoggedOperation.deposited(Map.of(2L, Map.of(Currency.PLN, 500L, Currency.USD, 1L))), () -> { });
+        operationLog.record(LoggedOperation.boxEmptied(2L, 1L, Map.of(Currency.PLN, 500L), 117L), () -> { });
+        operationLog.record(LoggedOperation.eventSettled(1L, Map.of(2L, Map.of(Currency.USD, 1L)), 1L), () -> { });
+        operationLog.record(LoggedOperation.boxesCreated(51L, 150L, 1L), () -> { });
+        operationLog.record(LoggedOperation.boxesAssigned(1L, List.of(7L, 9L)), () -> { });
+        operationLog.record(LoggedOperation.boxesCreated(151L, 160L, null), () -> { });
+        operationLog.close();
+        opened.clear();
+
+        // Act
+        List<LoggedOperation> operations = replay(open(4096));
+
+        // Assert
+        assertEquals(7, operations.size());
+        assertEquals(LoggedOperation.Type.EVENT_CREATED, operations.get(0).getType());
+        assertEquals("Charity", operations.get(0).getName());
+        assertEquals(Currency.EUR, operations.get(0).getCurrency());
+        assertEquals(1250L, operations.get(0).getAmount());
+        assertEquals(Map.of(2L, Map.of(Currency.PLN, 500L, Currency.USD, 1L)), operations.get(1).getAmounts());
+        assertEquals(Map.of(Currency.PLN, 500L), operations.get(2).getBoxAmounts());
+        assertEquals(117L, operations.get(2).getAmount());
+        assertEquals(LoggedOperation.Type.EVENT_SETTLED, operations.get(3).getType());
+        assertEquals(1L, operations.get(3).getEventId());
+        assertEquals(Map.of(2L, Map.of(Currency.USD, 1L)), operations.get(3).getAmounts());
+        assertEquals(LoggedOperation.Type.BOXES_CREATED, operations.get(4).getType());
+        assertEquals(51L, operations.get(4).getFirstId());
+        assertEquals(150L, operations.get(4).getLastId());
+        assertEquals(1L, operations.get(4).getEventId());
+        assertEquals(LoggedOperation.Type.BOXES_ASSIGNED, operations.get(5).getType());
+        assertEquals(List.of(7L, 9L), operations.get(5).getBoxIds());
+        assertEquals(1L, operations.get(5).getEventId());
+        assertEquals(151L, operations.get(6).getFirstId());
+        assertNull(operations.get(6).getEventId());
+    }
+
+    @Test
+    void failedOperationsShouldNotBeReplayed() throws IOException {
+        // Arrange
+        OperationLog operationLog = open(4096);
+        assertThrows(IllegalStateException.class, () ->
+                operationLog.record(LoggedOperation.deposited(1L, Currency.PLN, 100L), () -> {
+                    throw new IllegalStateException("Box not found: 1");
+                }));
+        TransactionSynchronizationManager.initSynchronization();
+        operationLog.record(LoggedOperation.boxCreated(3L, Map.of(Currency.PLN, 0L)));
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        }
+        TransactionSynchronizationManager.clearSynchronization();
+        operationLog.record(LoggedOperation.boxDeleted(4L), () -> { });
+
+        // Act
+        List<LoggedOperation> operations = replay(operationLog);
+
+        // Assert
+        assertEquals(1, operations.size());
+        assertEquals(LoggedOperation.Type.BOX_DELETED, operations.get(0).getType());
+    }
+
+    @Test
+    void tornRecordShouldEndLogAndBeOverwritten() throws IOException {
+        // Arrange
+        OperationLog operationLog = open(4096);
+        operationLog.record(LoggedOperation.boxCreated(1L, Map.of(Currency.PLN, 0L)), () -> { });
+        operationLog.record(LoggedOperation.boxCreated(2L, Map.of(Currency.PLN, 0L)), () -> { });
+        operationLog.close();
+        opened.clear();
+        corruptByteNearEndOfLastRecord();
+
+        // Act
+        OperationLog reopened = open(4096);
+        reopened.record(LoggedOperation.boxAssigned(1L, 9L), () -> { });
+        List<LoggedOperation> operations = replay(reopened);
+
+        // Assert
+        assertEquals(2, operations.size());
+        assertEquals(1L, operations.get(0).getId());
+        assertEquals(LoggedOperation.Type.BOX_ASSIGNED, operations.get(1).getType());
+    }
+
+    @Test
+    void logShouldGrowWhenFull() throws IOException {
+        // Arrange
+        OperationLog operationLog = open(256);
+
+        // Act
+        for (long boxId = 1; boxId <= 100; boxId++) {
+            operationLog.record(LoggedOperation.deposited(boxId, Currency.GBP, boxId), () -> { });
+        }
+        operationLog.close();
+        opened.clear();
+        List<LoggedOperation> operations = replay(open(256));
+
+        // Assert
+        assertEquals(100, operations.size());
+        assertEquals(Map.of(100L, Map.of(Currency.GBP, 100L)), operations.get(99).getAmounts());
+    }
+
+    @Test
+    void logShouldContinueInNextSegment() throws IOException {
+        // Arrange
+        OperationLog operationLog = open(64, 200);
+
+        // Act
+        for (long boxId = 1; boxId <= 100; boxId++) {
+            TransactionSynchronizationManager.initSynchronization();
+            operationLog.record(LoggedOperation.deposited(boxId, Currency.GBP, boxId));
+            int status = boxId % 10 == 0 ? TransactionSynchronization.STATUS_ROLLED_BACK : TransactionSynchronization.STATUS_COMMITTED;
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                if (status == TransactionSynchronization.STATUS_COMMITTED) synchronization.afterCommit();
+                synchronization.afterCompletion(status);
+            }
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        operationLog.close();
+        opened.clear();
+        List<LoggedOperation> operations = replay(open(64, 200));
+
+        // Assert
+        assertTrue(dir.resolve("operations.log").toFile().length() > 10 * 200);
+        assertEquals(90, operations.size());
+        assertEquals(Map.of(99L, Map.of(Currency.GBP, 99L)), operations.get(89).getAmounts());
+    }
+
+    @Test
+    void operationLargerThanSegmentShouldBeRejected() throws IOException {
+        // Arrange
+        OperationLog operationLog = open(64, 64);
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () ->
+                operationLog.record(LoggedOperation.eventCreated(1L, "x".repeat(100), Currency.EUR, 0L), () -> { }));
+    }
+
+    private void corruptByteNearEndOfLastRecord() throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(dir.resolve("operations.log").toFile(), "rw")) {
+            long end = 0;
+            for (long i = file.length() - 1; i >= 0; i--) {
+                file.seek(i);
+                if (file.read() != 0) {
+                    end = i;
+                    break;
+                }
+            }
+            file.seek(end - 10);
+            int value = file.read();
+            file.seek(end - 10);
+            file.write(value ^ 0xFF);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.charitybox.service;
+
+import com.charitybox.model.Currency;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateSnapshotTest {
+
+    @Test
+    void crossRate_shouldBeComputedForEveryKnownPair() {
+        // Arrange
+        RateSnapshot snapshot = new RateSnapshot(Map.of(
+                Currency.PLN, BigDecimal.ONE,
+                Currency.EUR, new BigDecimal("4.00"),
+                Currency.USD, new BigDecimal("5.00")), Instant.now());
+
+        // Act & Assert
+        assertEquals(0, new BigDecimal("4").compareTo(snapshot.crossRate(Currency.EUR, Currency.PLN)));
+        assertEquals(0, new BigDecimal("0.25").compareTo(snapshot.crossRate(Currency.PLN, Currency.EUR)));
+        assertEquals(0, new BigDecimal("0.8").compareTo(snapshot.crossRate(Currency.EUR, Currency.USD)));
+        assertEquals(BigDecimal.ONE, snapshot.crossRate(Currency.GBP, Currency.GBP));
+    }
+
+    @Test
+    void crossRate_shouldBeNullWhenRateMissing() {
+        // Arrange
+        RateSnapshot snapshot = new RateSnapshot(Map.of(Currency.PLN, BigDecimal.ONE), Instant.now());
+
+        // Act & Assert
+        assertNull(snapshot.crossRate(Currency.PLN, Currency.GBP));
+        assertNull(snapshot.crossRate(Currency.GBP, Currency.PLN));
+    }
+
+    @Test
+    void isExpired_shouldCompareAgeWithTtl() {
+        // Arrange
+        Instant fetchedAt = Instant.parse("2024-01-01T10:00:00Z");
+        RateSnapshot snapshot = new RateSnapshot(Map.of(Currency.PLN, BigDecimal.ONE), fetchedAt);
+
+        // Act & Assert
+        assertFalse(snapshot.isExpired(Duration.ofMinutes(30), fetchedAt.plusSeconds(60)));
+        assertTrue(snapshot.isExpired(Duration.ofMinutes(30), fetchedAt.plus(Duration.ofMinutes(30))));
+    }
+}